@@ -0,0 +1,213 @@
+package org.scoula.util.mocktrading;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.scoula.domain.mocktrading.RealtimeBidsAndAsksDto;
+import org.scoula.domain.mocktrading.RealtimeStockDto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실시간 프레임 파싱 벤치마크 - 기존 split 방식 vs RealtimeFrameParser
+ * - *ToJson: 프레임 -> DTO -> 구독자에게 보낼 JSON까지 (Eager = 모든 필드 문자열을 먼저 만드는 이전 방식)
+ * - *NoSubscriber: 구독자가 없을 때 (DTO 생성 + 현재가/종목코드만 사용)
+ * 실행: ./gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RealtimeFrameParserBenchmark {
+
+    // H0UNCNT0 체결 프레임 (46 필드)
+    private static final String EXECUTION_FRAME = "0|H0UNCNT0|001|"
+            + "005930^093015^71500^2^500^0.70^71420.35^71000^71800^70900^71600^71500^120^8543210^610234567890^"
+            + "15234^16789^1555^105.32^4123456^4419754^1^51.74^87.12^090000^5^500^091203^5^-300^090112^2^600^"
+            + "20250110^20^N^35412^41230^1523400^1498700^0.14^9812345^87.06^0^^71000";
+
+    // H0STASP0 호가 프레임 (58 필드)
+    private static final String ORDER_BOOK_FRAME = "0|H0STASP0|001|"
+            + "005930^093015^0^"
+            + "71600^71700^71800^71900^72000^72100^72200^72300^72400^72500^"
+            + "71500^71400^71300^71200^71100^71000^70900^70800^70700^70600^"
+            + "35412^21034^18230^15021^40123^12034^9821^8123^7712^30211^"
+            + "41230^25123^19283^17212^38912^11023^8812^9123^6512^28123^"
+            + "197723^205353^0^0^0^0^8543210^0^0^0.00^8543210^1234^-2345^0^0";
+
+    private final RealtimeFrameParser parser = new RealtimeFrameParser();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Benchmark
+    public void executionSplit(Blackhole bh) {
+        String[] parts = EXECUTION_FRAME.split("\\|");
+        String[] fields = parts[3].split("\\^");
+        bh.consume(fields[0]);
+        bh.consume(Integer.parseInt(fields[2]));    // STCK_PRPR
+        bh.consume(Double.parseDouble(fields[5]));  // PRDY_CTRT
+        bh.consume(Long.parseLong(fields[12]));     // CNTG_VOL
+        bh.consume(Long.parseLong(fields[13]));     // ACML_VOL
+    }
+
+    @Benchmark
+    public void executionParser(Blackhole bh) {
+        parser.parse(EXECUTION_FRAME);
+        bh.consume(parser.fieldEquals(0, "005930"));
+        bh.consume(parser.getInt(2));
+        bh.consume(parser.getDouble(5));
+        bh.consume(parser.getLong(12));
+        bh.consume(parser.getLong(13));
+    }
+
+    @Benchmark
+    public void orderBookSplit(Blackhole bh) {
+        String[] parts = ORDER_BOOK_FRAME.split("\\|");
+        String[] fields = parts[3].split("\\^");
+        long sum = 0;
+        for (int i = 3; i < 43; i++) {
+            sum += Long.parseLong(fields[i]);  // 호가 10단계 가격/잔량
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public void orderBookParser(Blackhole bh) {
+        parser.parse(ORDER_BOOK_FRAME);
+        long sum = 0;
+        for (int i = 3; i < 43; i++) {
+            sum += parser.getLong(i);
+        }
+        bh.consume(sum);
+    }
+
+    @Benchmark
+    public String executionToJsonEager() throws Exception {
+        parser.parse(EXECUTION_FRAME);
+        return mapper.writeValueAsString(eagerExecution(parser));
+    }
+
+    @Benchmark
+    public String executionToJsonLazy() throws Exception {
+        parser.parse(EXECUTION_FRAME);
+        RealtimeStockDto dto = RealtimeStockDto.from(parser.snapshot());
+        dto.setStockCode(parser.getString(0));
+        return mapper.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public void executionNoSubscriberEager(Blackhole bh) {
+        parser.parse(EXECUTION_FRAME);
+        RealtimeStockDto dto = eagerExecution(parser);
+        bh.consume(dto.getStockCode());
+        bh.consume(parser.getLong(2));
+    }
+
+    @Benchmark
+    public void executionNoSubscriberLazy(Blackhole bh) {
+        parser.parse(EXECUTION_FRAME);
+        RealtimeStockDto dto = RealtimeStockDto.from(parser.snapshot());
+        dto.setStockCode(parser.getString(0));
+        bh.consume(dto.getStockCode());
+        bh.consume(parser.getLong(2));
+    }
+
+    @Benchmark
+    public String orderBookToJsonEager() throws Exception {
+        parser.parse(ORDER_BOOK_FRAME);
+        return mapper.writeValueAsString(eagerOrderBook(parser));
+    }
+
+    @Benchmark
+    public String orderBookToJsonLazy() throws Exception {
+        parser.parse(ORDER_BOOK_FRAME);
+        RealtimeBidsAndAsksDto dto = RealtimeBidsAndAsksDto.from(parser.snapshot());
+        dto.setStockCode(parser.getString(0));
+        return mapper.writeValueAsString(dto);
+    }
+
+    // 이전 방식: 46개 필드를 모두 문자열로 만든 뒤 DTO 구성
+    private static RealtimeStockDto eagerExecution(RealtimeFrameParser p) {
+        return new RealtimeStockDto(p.getString(0), p.getString(1), p.getString(2), p.getString(3), p.getString(4),
+                p.getString(5), p.getString(6), p.getString(7), p.getString(8), p.getString(9), p.getString(10),
+                p.getString(11), p.getString(12), p.getString(13), p.getString(14), p.getString(15), p.getString(16),
+                p.getString(17), p.getString(18), p.getString(19), p.getString(20), p.getString(21), p.getString(22),
+                p.getString(23), p.getString(24), p.getString(25), p.getString(26), p.getString(27), p.getString(28),
+                p.getString(29), p.getString(30), p.getString(31), p.getString(32), p.getString(33), p.getString(34),
+                p.getString(35), p.getString(36), p.getString(37), p.getString(38), p.getString(39), p.getString(40),
+                p.getString(41), p.getString(42), p.getString(43), p.getString(44), p.getString(45));
+    }
+
+    // 이전 방식: 58개 필드를 모두 문자열로 만든 뒤 DTO 구성
+    private static RealtimeBidsAndAsksDto eagerOrderBook(RealtimeFrameParser p) {
+        RealtimeBidsAndAsksDto dto = new RealtimeBidsAndAsksDto();
+        dto.setStockCode(p.getString(0));
+        dto.setBusinessHour(p.getString(1));
+        dto.setHourCode(p.getString(2));
+        dto.setAskPrice1(p.getString(3));
+        dto.setAskPrice2(p.getString(4));
+        dto.setAskPrice3(p.getString(5));
+        dto.setAskPrice4(p.getString(6));
+        dto.setAskPrice5(p.getString(7));
+        dto.setAskPrice6(p.getString(8));
+        dto.setAskPrice7(p.getString(9));
+        dto.setAskPrice8(p.getString(10));
+        dto.setAskPrice9(p.getString(11));
+        dto.setAskPrice10(p.getString(12));
+        dto.setBidPrice1(p.getString(13));
+        dto.setBidPrice2(p.getString(14));
+        dto.setBidPrice3(p.getString(15));
+        dto.setBidPrice4(p.getString(16));
+        dto.setBidPrice5(p.getString(17));
+        dto.setBidPrice6(p.getString(18));
+        dto.setBidPrice7(p.getString(19));
+        dto.setBidPrice8(p.getString(20));
+        dto.setBidPrice9(p.getString(21));
+        dto.setBidPrice10(p.getString(22));
+        dto.setAskQty1(p.getString(23));
+        dto.setAskQty2(p.getString(24));
+        dto.setAskQty3(p.getString(25));
+        dto.setAskQty4(p.getString(26));
+        dto.setAskQty5(p.getString(27));
+        dto.setAskQty6(p.getString(28));
+        dto.setAskQty7(p.getString(29));
+        dto.setAskQty8(p.getString(30));
+        dto.setAskQty9(p.getString(31));
+        dto.setAskQty10(p.getString(32));
+        dto.setBidQty1(p.getString(33));
+        dto.setBidQty2(p.getString(34));
+        dto.setBidQty3(p.getString(35));
+        dto.setBidQty4(p.getString(36));
+        dto.setBidQty5(p.getString(37));
+        dto.setBidQty6(p.getString(38));
+        dto.setBidQty7(p.getString(39));
+        dto.setBidQty8(p.getString(40));
+        dto.setBidQty9(p.getString(41));
+        dto.setBidQty10(p.getString(42));
+        dto.setTotalAskQty(p.getString(43));
+        dto.setTotalBidQty(p.getString(44));
+        dto.setOvertimeAskQty(p.getString(45));
+        dto.setOvertimeBidQty(p.getString(46));
+        dto.setExpectedPrice(p.getString(47));
+        dto.setExpectedQty(p.getString(48));
+        dto.setExpectedVolume(p.getString(49));
+        dto.setExpectedDiff(p.getString(50));
+        dto.setExpectedSign(p.getString(51));
+        dto.setExpectedRate(p.getString(52));
+        dto.setAccumulatedVolume(p.getString(53));
+        dto.setAskQtyChange(p.getString(54));
+        dto.setBidQtyChange(p.getString(55));
+        dto.setOvertimeAskChange(p.getString(56));
+        dto.setOvertimeBidChange(p.getString(57));
+        return dto;
+    }
+}
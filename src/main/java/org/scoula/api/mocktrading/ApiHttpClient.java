@@ -0,0 +1,64 @@
+package org.scoula.api.mocktrading;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KIS / 키움 REST 호출용 공용 HTTP 클라이언트
+ * - 호출마다 OkHttpClient를 만들면 매번 TCP + TLS 핸드셰이크를 다시 하고 스레드 풀도 새로 생기므로
+ *   애플리케이션 전체에서 커넥션 풀 하나를 공유
+ * - HTTP/2를 지원하는 서버는 커넥션 하나로 다중화, 아니면 HTTP/1.1 keep-alive 재사용
+ * - ObjectMapper도 스레드 안전하므로 하나만 사용
+ * - 모든 호출은 ApiRateLimiter를 거쳐 앱키별 초당 호출 제한을 지킴
+ */
+public final class ApiHttpClient {
+
+    // 유지할 유휴 커넥션 수 / 유휴 유지 시간
+    private static final int MAX_IDLE_CONNECTIONS = 16;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    // 호스트당 동시 요청 수 (KIS 초당 호출 제한보다 여유 있게)
+    private static final int MAX_REQUESTS_PER_HOST = 16;
+
+    private static final OkHttpClient client = createClient();
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private ApiHttpClient() {
+    }
+
+    /**
+     * 공용 클라이언트 - 호출별로 타임아웃을 바꿔야 하면 client().newBuilder()로 파생 (커넥션 풀은 공유됨)
+     */
+    public static OkHttpClient client() {
+        return client;
+    }
+
+    public static ObjectMapper mapper() {
+        return mapper;
+    }
+
+    private static OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(64);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(15, TimeUnit.SECONDS)
+                .writeTimeout(15, TimeUnit.SECONDS)
+                .callTimeout(30, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true)
+                .addInterceptor(ApiRateLimiter.interceptor())
+                .build();
+    }
+}
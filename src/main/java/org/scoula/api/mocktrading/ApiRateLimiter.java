@@ -0,0 +1,295 @@
+package org.scoula.api.mocktrading;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.scoula.util.mocktrading.ConfigManager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 호스트 + 앱키별 REST 호출 제한 (토큰 버킷 + 우선순위 대기열)
+ * - ApiHttpClient의 인터셉터로 동작하므로 모든 KIS / 키움 REST 호출이 자동으로 거쳐감
+ * - 요청 호스트와 헤더 appkey(MAIN/SUB)로 버킷을 고르고, 토큰이 없으면 다음 충전 시점까지 대기
+ *   (같은 앱키라도 실전/모의투자(openapivts) 서버는 한도가 따로이며 모의투자는 더 낮음)
+ * - 대기 중에는 우선순위가 높은 요청(INTERACTIVE)이 먼저 토큰을 받음
+ *   배치 작업은 try (ApiRateLimiter.Scope ignored = ApiRateLimiter.batch()) { ... } 안에서 호출
+ */
+public final class ApiRateLimiter {
+
+    public enum Priority {
+        INTERACTIVE, BATCH
+    }
+
+    // 초당 호출 수 기본값 (실전 계좌 초당 20건 기준, 여유분 확보)
+    private static final double DEFAULT_KIS_PER_SECOND = 18;
+    // 모의투자 서버 (초당 5건 기준, 여유분 확보)
+    private static final double DEFAULT_KIS_VTS_PER_SECOND = 4;
+    private static final double DEFAULT_KIWOOM_PER_SECOND = 10;
+
+    // 토큰을 이 시간 안에 받지 못하면 호출 실패 처리
+    private static final long MAX_WAIT_MS = 30_000L;
+
+    private static final String KIWOOM_HOST = "api.kiwoom.com";
+    private static final String KIS_VTS_HOST = "openapivts.koreainvestment.com";
+
+    private static final String MAIN_APP_KEY = ConfigManager.get("app.key");
+    private static final String SUB_APP_KEY = ConfigManager.get("app.key2");
+
+    private static final double KIS_RATE = rateOf("kis.rate.per-second", DEFAULT_KIS_PER_SECOND);
+    private static final double KIS_VTS_RATE = rateOf("kis.vts.rate.per-second", DEFAULT_KIS_VTS_PER_SECOND);
+    private static final double KIWOOM_RATE = rateOf("kiwoom.rate.per-second", DEFAULT_KIWOOM_PER_SECOND);
+
+    // "호스트/앱키 종류" -> 버킷 (처음 호출할 때 생성)
+    private static final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    // 현재 스레드의 호출 우선순위 (동기 호출은 인터셉터가 호출 스레드에서 실행됨)
+    private static final ThreadLocal<Priority> currentPriority = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    private static final Interceptor interceptor = ApiRateLimiter::intercept;
+
+    private ApiRateLimiter() {
+    }
+
+    static Interceptor interceptor() {
+        return interceptor;
+    }
+
+    /**
+     * 배치 우선순위 구간 시작 - 닫기 전까지 현재 스레드의 REST 호출은 화면 요청보다 뒤로 밀림
+     */
+    public static Scope batch() {
+        Scope scope = new Scope(currentPriority.get());
+        currentPriority.set(Priority.BATCH);
+        return scope;
+    }
+
+    /**
+     * 키움 REST 초당 호출 한도 (설정값 반영)
+     */
+    public static double kiwoomRatePerSecond() {
+        return KIWOOM_RATE;
+    }
+
+    /**
+     * 토큰 1개 획득 (호출 전 직접 사용할 때)
+     * @param host 호출할 서버 호스트 (예: openapivts.koreainvestment.com)
+     */
+    public static void acquire(String host, TokenManager.TokenType type, Priority priority) throws IOException {
+        bucket(host, type).acquire(priority);
+    }
+
+    /**
+     * 버킷별 대기열/대기 시간 통계 (모니터링용)
+     */
+    public static Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, Bucket> entry : new TreeMap<>(buckets).entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().stats());
+        }
+        return stats;
+    }
+
+    private static Response intercept(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        Bucket bucket = bucketOf(request);
+        if (bucket == null) {
+            return chain.proceed(request);
+        }
+
+        bucket.acquire(currentPriority.get());
+
+        Response response = chain.proceed(request);
+        if (response.code() == 429) {
+            bucket.throttled.incrementAndGet();
+        }
+        return response;
+    }
+
+    // 토큰 발급 등 oauth2 호출은 별도 제한이므로 제외
+    private static Bucket bucketOf(Request request) {
+        if (request.url().encodedPath().startsWith("/oauth2/")) {
+            return null;
+        }
+        String host = request.url().host();
+        if (KIWOOM_HOST.equals(host)) {
+            return bucket(host, TokenManager.TokenType.KIWOOM);
+        }
+        String appKey = request.header("appkey");
+        if (appKey == null) {
+            return null;
+        }
+        if (appKey.equals(MAIN_APP_KEY)) {
+            return bucket(host, TokenManager.TokenType.MAIN);
+        }
+        if (appKey.equals(SUB_APP_KEY)) {
+            return bucket(host, TokenManager.TokenType.SUB);
+        }
+        return null;
+    }
+
+    private static Bucket bucket(String host, TokenManager.TokenType type) {
+        return buckets.computeIfAbsent(host + "/" + type.name(), key -> new Bucket(rateFor(host, type)));
+    }
+
+    private static double rateFor(String host, TokenManager.TokenType type) {
+        if (type == TokenManager.TokenType.KIWOOM) {
+            return KIWOOM_RATE;
+        }
+        return KIS_VTS_HOST.equals(host) ? KIS_VTS_RATE : KIS_RATE;
+    }
+
+    private static double rateOf(String key, double defaultRate) {
+        String value = ConfigManager.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultRate;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultRate;
+        }
+    }
+
+    /**
+     * 토큰 버킷 - 초당 ratePerSecond개 충전, 최대 ratePerSecond개까지 모아둘 수 있음
+     * 대기 요청은 (우선순위, 도착 순서)로 정렬되어 맨 앞 요청만 토큰을 가져감
+     */
+    private static final class Bucket {
+
+        private final double ratePerSecond;
+        private final double capacity;
+
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+        private long sequence = 0;
+        private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+
+        private final AtomicLong acquired = new AtomicLong();
+        private final AtomicLong delayed = new AtomicLong();
+        private final AtomicLong totalWaitMs = new AtomicLong();
+        private final AtomicLong maxWaitMs = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private final Map<Priority, AtomicLong> acquiredByPriority = new EnumMap<>(Priority.class);
+
+        Bucket(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+            this.capacity = Math.max(1, ratePerSecond);
+            this.tokens = capacity;
+            for (Priority priority : Priority.values()) {
+                acquiredByPriority.put(priority, new AtomicLong());
+            }
+        }
+
+        void acquire(Priority priority) throws IOException {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MS);
+
+            synchronized (this) {
+                Waiter waiter = new Waiter(priority, sequence++);
+                waiters.add(waiter);
+                try {
+                    while (true) {
+                        refill();
+                        if (waiters.peek() == waiter && tokens >= 1) {
+                            tokens -= 1;
+                            break;
+                        }
+
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            timeouts.incrementAndGet();
+                            throw new IOException("API 호출 대기 시간 초과 (" + MAX_WAIT_MS + "ms)");
+                        }
+                        // 다음 토큰이 충전될 때까지 대기 (앞 요청이 가져가면 notifyAll로 깨어남)
+                        long untilNextToken = (long) ((1 - tokens) / ratePerSecond * 1_000_000_000L);
+                        long waitNanos = Math.max(1_000_000L, Math.min(remaining, untilNextToken));
+                        TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("API 호출 대기 중 인터럽트");
+                } finally {
+                    waiters.remove(waiter);
+                    notifyAll();
+                }
+            }
+
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            acquired.incrementAndGet();
+            acquiredByPriority.get(priority).incrementAndGet();
+            if (waitedMs > 0) {
+                delayed.incrementAndGet();
+                totalWaitMs.addAndGet(waitedMs);
+                maxWaitMs.accumulateAndGet(waitedMs, Math::max);
+            }
+        }
+
+        // 호출자가 락을 잡고 있어야 함
+        private void refill() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * ratePerSecond);
+            lastRefillNanos = now;
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stat = new LinkedHashMap<>();
+            stat.put("ratePerSecond", ratePerSecond);
+            synchronized (this) {
+                stat.put("queued", waiters.size());
+            }
+            stat.put("acquired", acquired.get());
+            for (Map.Entry<Priority, AtomicLong> entry : acquiredByPriority.entrySet()) {
+                stat.put(entry.getKey().name().toLowerCase(), entry.getValue().get());
+            }
+            stat.put("delayed", delayed.get());
+            stat.put("avgWaitMs", delayed.get() == 0 ? 0 : totalWaitMs.get() / delayed.get());
+            stat.put("maxWaitMs", maxWaitMs.get());
+            stat.put("timeouts", timeouts.get());
+            stat.put("throttled", throttled.get());
+            return stat;
+        }
+    }
+
+    /**
+     * 우선순위 구간 - 닫으면 이전 우선순위로 복원
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Priority previous;
+
+        private Scope(Priority previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            currentPriority.set(previous);
+        }
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+        private final Priority priority;
+        private final long sequence;
+
+        Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
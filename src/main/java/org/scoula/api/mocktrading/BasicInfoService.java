@@ -18,8 +18,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BasicInfoService {
 
-    private final OkHttpClient client = new OkHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OkHttpClient client = ApiHttpClient.client();
+    private final ObjectMapper objectMapper = ApiHttpClient.mapper();
 
     private static final String BASE_URL = "https://openapi.koreainvestment.com:9443";
     private static final String ENDPOINT = "/uapi/domestic-stock/v1/quotations/search-stock-info";
@@ -44,7 +44,7 @@ public class ConditionSearchApi {
                 .addHeader("custtype", "P") // 개인: P, 법인: B
                 .build();
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = ApiHttpClient.client();
 
         try (Response response = client.newCall(request).execute()) {
             String responseBody = response.body().string();
@@ -53,7 +53,7 @@ public class ConditionSearchApi {
                 throw new IOException("🔛 종목조건검색 목록조회 실패 (" + response.code() + ")\n응답: " + responseBody);
             }
 
-            ObjectMapper mapper = new ObjectMapper();
+            ObjectMapper mapper = ApiHttpClient.mapper();
             JsonNode json = mapper.readTree(responseBody);
 
             return json;
@@ -4,6 +4,7 @@ import okhttp3.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.scoula.util.mocktrading.ConfigManager;
+import org.scoula.util.mocktrading.SingleFlightCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -27,8 +28,8 @@ public class MarketIndexApi {
     @Value("${kis.api.base-url}")
     private String baseUrl;
 
-    // ✅ API 호출 간격 (밀리초)
-    private static final long API_CALL_INTERVAL_MS = 1000L;
+    // 동시 요청은 한 번의 조회로 합치고, 결과는 3초간 재사용
+    private final SingleFlightCache<String, Map<String, Object>> indicesCache = new SingleFlightCache<>(3_000L, 4);
 
     /**
      * 시장지수 조회 - 개선된 버전
@@ -59,8 +60,8 @@ public class MarketIndexApi {
                 .addHeader("custtype", "P")
                 .build();
 
-        // ✅ 타임아웃 설정이 있는 클라이언트
-        OkHttpClient client = new OkHttpClient.Builder()
+        // ✅ 타임아웃 설정이 있는 클라이언트 (공용 커넥션 풀 공유)
+        OkHttpClient client = ApiHttpClient.client().newBuilder()
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(30, TimeUnit.SECONDS)
@@ -76,7 +77,7 @@ public class MarketIndexApi {
             String responseBody = response.body().string();
             log.debug("📨 시장지수 API 응답 받음: {}", responseBody.substring(0, Math.min(200, responseBody.length())));
 
-            ObjectMapper mapper = new ObjectMapper();
+            ObjectMapper mapper = ApiHttpClient.mapper();
             JsonNode json = mapper.readTree(responseBody);
 
             String rtCd = json.path("rt_cd").asText();
@@ -102,22 +103,20 @@ public class MarketIndexApi {
      * 코스피/코스닥 둘 다 조회 - 개선된 버전
      */
     public Map<String, Object> getAllMarketIndices() throws IOException {
+        return indicesCache.get("ALL", this::fetchAllMarketIndices);
+    }
+
+    private Map<String, Object> fetchAllMarketIndices() throws IOException {
 
         Map<String, Object> result = new HashMap<>();
 
+        // 호출 간격은 ApiRateLimiter가 조절
         try {
             result.put("kospi", getMarketIndex("0001"));
-
-            waitForApiInterval();
-
             result.put("kosdaq", getMarketIndex("1001"));
 
             return result;
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("❌ API 호출 중 인터럽트 발생");
-            throw new IOException("API 호출 중 인터럽트", e);
         } catch (IOException e) {
             log.error("❌ 전체 시장지수 조회 실패: {}", e.getMessage());
             throw e;
@@ -211,14 +210,6 @@ public class MarketIndexApi {
         }
     }
 
-    /**
-     * API 호출 간격 대기
-     */
-    private void waitForApiInterval() throws InterruptedException {
-        log.debug("⏳ API 호출 간격 대기: {}ms", API_CALL_INTERVAL_MS);
-        Thread.sleep(API_CALL_INTERVAL_MS);
-    }
-
     /**
      * API 인증정보 검증
      */
@@ -1,29 +1,37 @@
 package org.scoula.api.mocktrading;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
+import org.scoula.util.mocktrading.KiwoomMinuteBars;
+import org.scoula.util.mocktrading.SingleFlightCache;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.Map;
 
 @Slf4j
 @Service
 public class MinuteChartApiKiwoom {
 
+    // 같은 종목 동시 조회는 한 번의 키움 호출로 합치고, 결과는 3초간 재사용
+    private final SingleFlightCache<String, KiwoomMinuteBars> chartCache = new SingleFlightCache<>(3_000L, 1_024);
+
     /**
-     * 키움증권 분봉 차트 데이터 조회 (컨트롤러에서 호출)
+     * 가장 최근 영업일 1분봉 (원시 배열, 최신순)
+     * @return 조회 실패 또는 분봉 배열이 없으면 null
      */
-
-    public JsonNode getKiwoomMinuteChartData(String stockCode) {
-        return getKiwoomMinuteChartData(stockCode, false);
+    public KiwoomMinuteBars getKiwoomMinuteBars(String stockCode) {
+        try {
+            return chartCache.get(stockCode, () -> fetchKiwoomMinuteBars(stockCode));
+        } catch (IOException e) {
+            log.error("분봉 조회 실패: {} - {}", stockCode, e.getMessage());
+            return null;
+        }
     }
 
-    public JsonNode getKiwoomMinuteChartData(String stockCode, boolean wrapWithStockCode) {
+    private KiwoomMinuteBars fetchKiwoomMinuteBars(String stockCode) {
         log.info("Fetching Kiwoom minute chart data for stock: {}", stockCode);
 
         String accessToken;
@@ -35,13 +43,13 @@ public class MinuteChartApiKiwoom {
         }
 
         try {
-            ObjectMapper mapper = new ObjectMapper();
+            ObjectMapper mapper = ApiHttpClient.mapper();
             ObjectNode body = mapper.createObjectNode();
             body.put("stk_cd", stockCode+"_AL");
             body.put("tic_scope", "1");
             body.put("upd_stkpc_tp", "0");
 
-            OkHttpClient client = new OkHttpClient();
+            OkHttpClient client = ApiHttpClient.client();
             okhttp3.Request.Builder builder = new okhttp3.Request.Builder()
                     .url("https://api.kiwoom.com/api/dostk/chart")
                     .addHeader("authorization", "Bearer " + accessToken)
@@ -57,102 +65,15 @@ public class MinuteChartApiKiwoom {
                     log.error("Kiwoom API error: {}", response.message());
                     return null;
                 }
-                String responseBody = response.body().string();
-                JsonNode result = mapper.readTree(responseBody);
-
-                JsonNode chartArray = result.get("stk_min_pole_chart_qry");
-                if (chartArray == null || !chartArray.isArray()) {
-                    log.warn("분봉 데이터가 없습니다.");
-                    return null;
-                }
-
-                String today = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.BASIC_ISO_DATE); // "yyyyMMdd"
-                ArrayNode processedArray = mapper.createArrayNode();
-                String usedDate = today; // 실제 데이터의 날짜 저장
-
-                for (JsonNode candle : chartArray) {
-                    String cntrTm = candle.path("cntr_tm").asText(); // "20250805133700"
-                    if (cntrTm.length() != 14) continue;
-                    String datePart = cntrTm.substring(0, 8);
-                    if (!datePart.equals(today)) continue;
-
-                    String hour = cntrTm.substring(8, 10);
-                    String minute = cntrTm.substring(10, 12);
-                    String timeKey = hour + minute + "00"; // "133700"
-
-                    // 부호 제거
-                    String stck_prpr = candle.path("cur_prc").asText().replaceAll("^[+-]", "");
-                    String stck_oprc = candle.path("open_pric").asText().replaceAll("^[+-]", "");
-                    String stck_hgpr = candle.path("high_pric").asText().replaceAll("^[+-]", "");
-                    String stck_lwpr = candle.path("low_pric").asText().replaceAll("^[+-]", "");
-                    String cntg_vol = candle.path("trde_qty").asText();
-
-                    ObjectNode obj = mapper.createObjectNode();
-                    obj.put("stck_cntg_hour", timeKey);
-                    obj.put("stck_prpr", stck_prpr);
-                    obj.put("stck_oprc", stck_oprc);
-                    obj.put("stck_hgpr", stck_hgpr);
-                    obj.put("stck_lwpr", stck_lwpr);
-                    obj.put("cntg_vol", cntg_vol);
-
-                    processedArray.add(obj);
-                }
-
-                // 오늘 데이터가 없으면 가장 최근 날짜 데이터로 대체
-                if (processedArray.isEmpty()) {
-                    // chartArray에서 가장 최근 날짜 찾기
-                    String latestDate = null;
-                    for (JsonNode candle : chartArray) {
-                        String cntrTm = candle.path("cntr_tm").asText();
-                        if (cntrTm.length() != 14) continue;
-                        String datePart = cntrTm.substring(0, 8);
-                        if (latestDate == null || datePart.compareTo(latestDate) > 0) {
-                            latestDate = datePart;
-                        }
-                    }
-                    if (latestDate != null) {
-                        usedDate = latestDate;
-                        for (JsonNode candle : chartArray) {
-                            String cntrTm = candle.path("cntr_tm").asText();
-                            if (cntrTm.length() != 14) continue;
-                            String datePart = cntrTm.substring(0, 8);
-                            if (!datePart.equals(latestDate)) continue;
-
-                            String hour = cntrTm.substring(8, 10);
-                            String minute = cntrTm.substring(10, 12);
-                            String timeKey = hour + minute + "00";
-
-                            String stck_prpr = candle.path("cur_prc").asText().replaceAll("^[+-]", "");
-                            String stck_oprc = candle.path("open_pric").asText().replaceAll("^[+-]", "");
-                            String stck_hgpr = candle.path("high_pric").asText().replaceAll("^[+-]", "");
-                            String stck_lwpr = candle.path("low_pric").asText().replaceAll("^[+-]", "");
-                            String cntg_vol = candle.path("trde_qty").asText();
-
-                            ObjectNode obj = mapper.createObjectNode();
-                            obj.put("stck_cntg_hour", timeKey);
-                            obj.put("stck_prpr", stck_prpr);
-                            obj.put("stck_oprc", stck_oprc);
-                            obj.put("stck_hgpr", stck_hgpr);
-                            obj.put("stck_lwpr", stck_lwpr);
-                            obj.put("cntg_vol", cntg_vol);
-
-                            processedArray.add(obj);
-                        }
-                    }
+                // 응답 본문을 트리로 만들지 않고 스트림에서 바로 분봉 배열로 변환
+                KiwoomMinuteBars bars;
+                try (JsonParser parser = mapper.getFactory().createParser(response.body().byteStream())) {
+                    bars = KiwoomMinuteBars.parse(parser);
                 }
-
-                if (wrapWithStockCode) {
-                    ObjectNode wrapped = mapper.createObjectNode();
-                    wrapped.put("stock_code", stockCode);
-                    wrapped.put("date", usedDate); // 실제 데이터 날짜 추가
-                    wrapped.set("data", processedArray);
-                    return wrapped;
-                } else {
-                    ObjectNode resultWithDate = mapper.createObjectNode();
-                    resultWithDate.put("date", usedDate); // 실제 데이터 날짜 추가
-                    resultWithDate.set("data", processedArray);
-                    return resultWithDate;
+                if (bars == null) {
+                    log.warn("분봉 데이터가 없습니다.");
                 }
+                return bars;
             }
         } catch (Exception e) {
             log.error("Error fetching Kiwoom minute chart data for stock: {}", stockCode, e);
@@ -66,7 +66,7 @@ public class MultiPriceApi {
                 .addHeader("custtype", "P")
                 .build();
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = ApiHttpClient.client();
 
         try (Response response = client.newCall(request).execute()) {
             String responseBody = response.body().string();
@@ -75,7 +75,7 @@ public class MultiPriceApi {
                 throw new IOException("🔛 다중 현재가 조회 실패 (" + response.code() + ")\n응답: " + responseBody);
             }
 
-            ObjectMapper mapper = new ObjectMapper();
+            ObjectMapper mapper = ApiHttpClient.mapper();
             return mapper.readTree(responseBody);
         }
     }
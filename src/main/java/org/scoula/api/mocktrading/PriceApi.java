@@ -4,6 +4,7 @@ import okhttp3.*;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.scoula.util.mocktrading.ConfigManager;
+import org.scoula.util.mocktrading.SingleFlightCache;
 
 import java.io.IOException;
 
@@ -16,10 +17,30 @@ public class PriceApi {
     private static final String APP_SECRET = ConfigManager.get("app.secret");
     private static final String TR_ID = "FHKST01010100"; // 실전투자 현재가 TR
 
+    // 같은 종목 동시 조회는 한 번의 REST 호출로 합치고, 결과는 1초간 재사용
+    private static final SingleFlightCache<String, JsonNode> priceCache = new SingleFlightCache<>(1_000L, 4_096);
+
     /**
-     * 전체 응답 JsonNode 반환
+     * 현재가만 필요한 경우 - 실시간 최신값이 신선하면 REST 호출 없이 반환
+     */
+    public static long getCurrentPrice(String code) throws IOException {
+        long cached = RealtimeQuoteCache.getFreshPrice(code);
+        if (cached > 0) {
+            return cached;
+        }
+
+        JsonNode response = getPriceData(code);
+        return response.path("output").path("stck_prpr").asLong();
+    }
+
+    /**
+     * 전체 응답 JsonNode 반환 (여러 호출자가 공유하므로 수정하지 말 것)
      */
     public static JsonNode getPriceData(String code) throws IOException {
+        return priceCache.get(code, () -> fetchPriceData(code));
+    }
+
+    private static JsonNode fetchPriceData(String code) throws IOException {
         String token = TokenManager.getAccessToken();
 
         HttpUrl url = HttpUrl.parse(BASE_URL + ENDPOINT).newBuilder()
@@ -38,7 +59,7 @@ public class PriceApi {
                 .addHeader("custtype", "P") // 개인: P
                 .build();
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = ApiHttpClient.client();
 
         try (Response response = client.newCall(request).execute()) {
             String responseBody = response.body().string();
@@ -47,7 +68,7 @@ public class PriceApi {
                 throw new IOException("\uD83D\uDD1B 현재가 조회 실패 (" + response.code() + ")\n응답: " + responseBody);
             }
 
-            ObjectMapper mapper = new ObjectMapper();
+            ObjectMapper mapper = ApiHttpClient.mapper();
             JsonNode json = mapper.readTree(responseBody);
 
             return json;
@@ -0,0 +1,417 @@
+package org.scoula.api.mocktrading;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.log4j.Log4j2;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 한국투자증권 실시간 웹소켓 다중화 허브
+ * - approval key 하나당 업스트림 연결 1개만 유지
+ * - (tr_id, tr_key) 구독을 참조 카운트로 관리하여 첫 구독 시 등록, 마지막 해제 시 해지
+ * - 수신 프레임은 tr_id 별로 등록된 리스너에게만 전달
+ * - 연결당 등록 한도(41건)를 넘는 새 구독은 거절 (approval key 하나로는 연결을 더 열 수 없음)
+ * - 연결/재연결은 허브 잠금 밖에서 시작하므로 연결 중에도 구독 요청과 프레임 처리가 막히지 않음
+ */
+@Log4j2
+public class RealtimeFeedHub {
+
+    private static final String WS_URL = "ws://ops.koreainvestment.com:21000";
+
+    // 한투 웹소켓 세션당 최대 등록 가능 건수
+    private static final int MAX_SUBSCRIPTIONS_PER_CONNECTION = 41;
+
+    // 구독이 모두 해제된 뒤 연결을 닫기까지의 유예 시간 (종목 전환 시 재연결 방지)
+    private static final long IDLE_CLOSE_DELAY_SECONDS = 30;
+
+    // 비정상 종료 시 재연결 대기 시간 (지수 백오프)
+    private static final long RECONNECT_BASE_DELAY_MS = 1_000L;
+    private static final long RECONNECT_MAX_DELAY_MS = 30_000L;
+
+    private static final ObjectMapper mapper = ApiHttpClient.mapper();
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kis-feed-hub");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // approval key -> 업스트림 연결
+    private static final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+
+    // tr_id -> 프레임 처리기
+    private static final Map<String, Consumer<String>> listeners = new ConcurrentHashMap<>();
+
+    private RealtimeFeedHub() {
+    }
+
+    /**
+     * tr_id 별 프레임 처리기 등록 (최초 1회만 등록됨)
+     */
+    public static void registerListener(String trId, Consumer<String> listener) {
+        listeners.putIfAbsent(trId, listener);
+    }
+
+    /**
+     * 구독 참조 획득 - 해당 (tr_id, tr_key)의 첫 구독일 때만 업스트림에 등록 요청
+     */
+    public static void acquire(String approvalKey, String trId, String trKey) throws Exception {
+        Upstream upstream = upstreams.computeIfAbsent(approvalKey, Upstream::new);
+        WebSocketClient pending = upstream.acquire(trId, trKey);
+        if (pending != null) {
+            pending.connect(); // 별도 스레드에서 연결, onOpen에서 구독 일괄 등록
+        }
+    }
+
+    /**
+     * 구독 참조 반납 - 마지막 참조가 해제될 때만 업스트림에 해지 요청
+     */
+    public static void release(String trId, String trKey) {
+        // approval key가 갱신되었을 수 있으므로 해당 구독을 가진 연결을 찾아 반납
+        for (Upstream upstream : upstreams.values()) {
+            if (upstream.release(trId, trKey)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 특정 tr_id의 모든 구독을 강제로 해지 (거래소 전환 등)
+     */
+    public static void releaseAll(String trId) {
+        for (Upstream upstream : upstreams.values()) {
+            upstream.releaseAll(trId);
+        }
+    }
+
+    /**
+     * 특정 tr_id 구독이 하나라도 열려있는 연결 위에 있는지 확인
+     */
+    public static boolean isConnected(String trId) {
+        for (Upstream upstream : upstreams.values()) {
+            if (upstream.isOpen() && upstream.hasTrId(trId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 특정 (tr_id, tr_key)를 구독 중인지 확인
+     */
+    public static boolean isSubscribed(String trId, String trKey) {
+        for (Upstream upstream : upstreams.values()) {
+            if (upstream.hasSubscription(trId, trKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 현재 구독 중인 tr_key 목록 (모니터링용)
+     */
+    public static Map<String, Integer> getSubscriptionCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Upstream upstream : upstreams.values()) {
+            counts.putAll(upstream.snapshot());
+        }
+        return counts;
+    }
+
+    private static String subscriptionKey(String trId, String trKey) {
+        return trId + "|" + trKey;
+    }
+
+    // 프레임 헤더("0|H0UNCNT0|001|...")에서 tr_id 추출
+    private static String extractTrId(String message) {
+        int first = message.indexOf('|');
+        if (first < 0) return null;
+        int second = message.indexOf('|', first + 1);
+        if (second < 0) return null;
+        return message.substring(first + 1, second);
+    }
+
+    // WebSocket 종료 코드 해석
+    private static String getCloseCodeDescription(int code) {
+        switch (code) {
+            case 1000: return "정상 종료";
+            case 1001: return "엔드포인트 종료 (페이지 이동 등)";
+            case 1002: return "프로토콜 오류";
+            case 1003: return "지원하지 않는 데이터 타입";
+            case 1005: return "종료 코드 없음";
+            case 1006: return "비정상 종료 (연결 끊김)";
+            case 1007: return "잘못된 데이터 형식";
+            case 1008: return "정책 위반";
+            case 1009: return "메시지 크기 초과";
+            case 1010: return "확장 협상 실패";
+            case 1011: return "서버 내부 오류";
+            case 1012: return "서비스 재시작";
+            case 1013: return "나중에 다시 시도";
+            case 1014: return "잘못된 게이트웨이";
+            case 1015: return "TLS 핸드셰이크 실패";
+            default: return "알 수 없는 종료 코드";
+        }
+    }
+
+    /**
+     * approval key 하나에 대응하는 업스트림 연결
+     */
+    private static class Upstream {
+
+        private final String approvalKey;
+
+        // "tr_id|tr_key" -> 참조 수
+        private final Map<String, Integer> refCounts = new HashMap<>();
+
+        private WebSocketClient client;
+        private ScheduledFuture<?> idleCloseTask;
+        private int reconnectAttempts = 0;
+        private boolean closing = false;
+
+        Upstream(String approvalKey) {
+            this.approvalKey = approvalKey;
+        }
+
+        /**
+         * @return 새로 만든 연결 (호출한 쪽이 잠금 밖에서 connect), 기존 연결을 쓰면 null
+         */
+        synchronized WebSocketClient acquire(String trId, String trKey) throws Exception {
+            String key = subscriptionKey(trId, trKey);
+            int count = refCounts.getOrDefault(key, 0);
+            if (count == 0 && refCounts.size() >= MAX_SUBSCRIPTIONS_PER_CONNECTION) {
+                log.warn("실시간 구독 한도 초과로 거절 ({}/{}): {}", refCounts.size(), MAX_SUBSCRIPTIONS_PER_CONNECTION, key);
+                throw new IllegalStateException("실시간 구독 한도(" + MAX_SUBSCRIPTIONS_PER_CONNECTION + "건)를 초과했습니다.");
+            }
+            refCounts.put(key, count + 1);
+
+            cancelIdleClose();
+
+            if (count > 0) {
+                return null; // 이미 업스트림에 등록된 구독
+            }
+
+            if (client == null || closing) {
+                return newClient(); // 유휴 종료 중인 연결은 버리고 새로 연결
+            }
+            if (client.isOpen()) {
+                sendSubscription(trId, trKey, true);
+            }
+            // 연결 중이면 onOpen에서 일괄 등록
+            return null;
+        }
+
+        synchronized boolean release(String trId, String trKey) {
+            String key = subscriptionKey(trId, trKey);
+            Integer count = refCounts.get(key);
+            if (count == null) {
+                return false;
+            }
+
+            if (count > 1) {
+                refCounts.put(key, count - 1);
+                return true;
+            }
+
+            refCounts.remove(key);
+            if (client != null && client.isOpen()) {
+                sendSubscription(trId, trKey, false);
+            }
+            scheduleIdleCloseIfEmpty();
+            return true;
+        }
+
+        synchronized void releaseAll(String trId) {
+            List<String> removed = new ArrayList<>();
+            for (String key : refCounts.keySet()) {
+                if (key.startsWith(trId + "|")) {
+                    removed.add(key);
+                }
+            }
+            for (String key : removed) {
+                refCounts.remove(key);
+                if (client != null && client.isOpen()) {
+                    sendSubscription(trId, key.substring(trId.length() + 1), false);
+                }
+            }
+            scheduleIdleCloseIfEmpty();
+        }
+
+        synchronized boolean isOpen() {
+            return client != null && client.isOpen();
+        }
+
+        synchronized boolean hasTrId(String trId) {
+            for (String key : refCounts.keySet()) {
+                if (key.startsWith(trId + "|")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean hasSubscription(String trId, String trKey) {
+            return refCounts.containsKey(subscriptionKey(trId, trKey));
+        }
+
+        synchronized Map<String, Integer> snapshot() {
+            return new HashMap<>(refCounts);
+        }
+
+        // 새 연결 객체로 교체 (연결 시작은 호출한 쪽이 잠금 밖에서)
+        private WebSocketClient newClient() throws Exception {
+            closing = false;
+            client = new WebSocketClient(new URI(WS_URL)) {
+                @Override
+                public void onOpen(ServerHandshake handshakeData) {
+                    onConnected(this);
+                }
+
+                @Override
+                public void onMessage(String message) {
+                    dispatch(this, message);
+                }
+
+                @Override
+                public void onClose(int code, String reason, boolean remote) {
+                    log.info("실시간 허브 연결 종료: {} (코드: {})", getCloseCodeDescription(code), code);
+                    onDisconnected(this);
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                    log.warn("실시간 허브 오류: {}", ex.getMessage());
+                }
+            };
+            return client;
+        }
+
+        private synchronized void onConnected(WebSocketClient source) {
+            if (source != client) {
+                return;
+            }
+            if (closing) {
+                source.close(); // 연결 중에 유휴 종료가 결정됨
+                return;
+            }
+            reconnectAttempts = 0;
+            log.info("실시간 허브 연결 완료 - 구독 {}건 등록", refCounts.size());
+            for (String key : refCounts.keySet()) {
+                int sep = key.indexOf('|');
+                sendSubscription(key.substring(0, sep), key.substring(sep + 1), true);
+            }
+        }
+
+        private synchronized void onDisconnected(WebSocketClient source) {
+            if (source != client) {
+                return; // 이미 교체된 이전 연결
+            }
+            if (closing || refCounts.isEmpty()) {
+                client = null;
+                return;
+            }
+
+            // 구독이 남아 있는데 끊긴 경우에만 백오프 후 재연결
+            long delay = Math.min(RECONNECT_MAX_DELAY_MS, RECONNECT_BASE_DELAY_MS << Math.min(reconnectAttempts, 5));
+            reconnectAttempts++;
+            log.info("실시간 허브 {}ms 후 재연결 시도 ({}회차)", delay, reconnectAttempts);
+
+            scheduler.schedule(() -> {
+                WebSocketClient next;
+                synchronized (Upstream.this) {
+                    if (client != source || closing || refCounts.isEmpty()) {
+                        return;
+                    }
+                    try {
+                        next = newClient();
+                    } catch (Exception e) {
+                        log.error("실시간 허브 재연결 준비 실패: {}", e.getMessage());
+                        return;
+                    }
+                }
+                // 끊긴 연결을 재사용(reconnect)하면 이전 스레드 정리까지 기다리므로 새 연결을 비동기로 시작
+                next.connect();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void dispatch(WebSocketClient source, String message) {
+            if (message.startsWith("0|") || message.startsWith("1|")) {
+                String trId = extractTrId(message);
+                Consumer<String> listener = trId != null ? listeners.get(trId) : null;
+                if (listener != null) {
+                    listener.accept(message);
+                }
+                return;
+            }
+
+            // JSON 제어 메시지: PINGPONG은 그대로 돌려보내 연결 유지
+            if (message.contains("PINGPONG")) {
+                source.send(message);
+                return;
+            }
+
+            log.debug("실시간 허브 응답: {}", message.substring(0, Math.min(120, message.length())));
+        }
+
+        private void sendSubscription(String trId, String trKey, boolean register) {
+            try {
+                ObjectNode header = mapper.createObjectNode();
+                header.put("approval_key", approvalKey);
+                header.put("custtype", "P");
+                header.put("tr_type", register ? "1" : "2"); // 1: 등록, 2: 해제
+                header.put("content-type", "utf-8");
+
+                ObjectNode input = mapper.createObjectNode();
+                input.put("tr_id", trId);
+                input.put("tr_key", trKey);
+
+                ObjectNode body = mapper.createObjectNode();
+                body.set("input", input);
+
+                ObjectNode request = mapper.createObjectNode();
+                request.set("header", header);
+                request.set("body", body);
+
+                client.send(mapper.writeValueAsString(request));
+                log.info("{} {} ({})", register ? "실시간 구독 등록:" : "실시간 구독 해제:", trId, trKey);
+            } catch (Exception e) {
+                log.error("실시간 구독 요청 오류 ({}, {}): {}", trId, trKey, e.getMessage());
+            }
+        }
+
+        private void cancelIdleClose() {
+            if (idleCloseTask != null) {
+                idleCloseTask.cancel(false);
+                idleCloseTask = null;
+            }
+        }
+
+        private void scheduleIdleCloseIfEmpty() {
+            if (!refCounts.isEmpty() || client == null || idleCloseTask != null) {
+                return;
+            }
+            idleCloseTask = scheduler.schedule(() -> {
+                synchronized (Upstream.this) {
+                    idleCloseTask = null;
+                    if (refCounts.isEmpty() && client != null) {
+                        closing = true;
+                        client.close();
+                        log.info("구독 없음 - 실시간 허브 연결 종료");
+                    }
+                }
+            }, IDLE_CLOSE_DELAY_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+}
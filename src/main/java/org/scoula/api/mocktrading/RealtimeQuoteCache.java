@@ -0,0 +1,152 @@
+package org.scoula.api.mocktrading;
+
+import org.scoula.domain.mocktrading.RealtimeBidsAndAsksDto;
+import org.scoula.domain.mocktrading.RealtimeStockDto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 실시간 체결/호가 최신값 저장소 (종목코드별)
+ * - 실시간 클라이언트가 틱마다 갱신하고, 현재가가 필요한 곳은 REST 호출 전에 먼저 조회
+ * - 신선도: 마지막 갱신 후 MAX_AGE_MS 이내이거나, 해당 종목 체결 구독이 연결된 상태로 살아있는 경우
+ *   (거래가 뜸한 종목은 틱이 오래 없어도 구독 중이면 마지막 체결가가 곧 현재가)
+ */
+public class RealtimeQuoteCache {
+
+    // 구독이 끊긴 뒤에도 신뢰할 수 있는 최대 경과 시간
+    private static final long MAX_AGE_MS = 10_000L;
+
+    // 구독 중이라도 이보다 오래된 값은 사용하지 않음 (장 마감 후 전일 데이터 방지)
+    private static final long MAX_SUBSCRIBED_AGE_MS = 30 * 60_000L;
+
+    private static final String EXECUTION_TR_ID = "H0UNCNT0";
+
+    private static final Map<String, Quote> quotes = new ConcurrentHashMap<>();
+
+    private RealtimeQuoteCache() {
+    }
+
+    /**
+     * 체결 틱 반영
+     */
+    public static void putTick(RealtimeStockDto tick, long price) {
+        if (tick.getStockCode() == null || price <= 0) {
+            return;
+        }
+        quote(tick.getStockCode()).tick = new Tick(tick, price, System.currentTimeMillis());
+    }
+
+    /**
+     * 호가 스냅샷 반영
+     */
+    public static void putOrderBook(RealtimeBidsAndAsksDto orderBook) {
+        if (orderBook.getStockCode() == null) {
+            return;
+        }
+        quote(orderBook.getStockCode()).orderBook = new OrderBook(orderBook, System.currentTimeMillis());
+    }
+
+    /**
+     * 신선한 현재가 (없거나 오래되었으면 0)
+     */
+    public static long getFreshPrice(String stockCode) {
+        Tick tick = getFreshTick(stockCode);
+        return tick != null ? tick.price : 0L;
+    }
+
+    /**
+     * 신선한 최근 체결 (없거나 오래되었으면 null)
+     */
+    public static Tick getFreshTick(String stockCode) {
+        Quote quote = quotes.get(stockCode);
+        Tick tick = quote != null ? quote.tick : null;
+        if (tick == null) {
+            return null;
+        }
+
+        long age = System.currentTimeMillis() - tick.updatedAt;
+        if (age <= MAX_AGE_MS) {
+            return tick;
+        }
+        if (age <= MAX_SUBSCRIBED_AGE_MS
+                && RealtimeFeedHub.isSubscribed(EXECUTION_TR_ID, stockCode)
+                && RealtimeFeedHub.isConnected(EXECUTION_TR_ID)) {
+            return tick;
+        }
+        return null;
+    }
+
+    /**
+     * 신선한 호가 (없거나 오래되었으면 null)
+     */
+    public static OrderBook getFreshOrderBook(String stockCode) {
+        Quote quote = quotes.get(stockCode);
+        OrderBook orderBook = quote != null ? quote.orderBook : null;
+        if (orderBook == null || System.currentTimeMillis() - orderBook.updatedAt > MAX_AGE_MS) {
+            return null;
+        }
+        return orderBook;
+    }
+
+    public static int size() {
+        return quotes.size();
+    }
+
+    private static Quote quote(String stockCode) {
+        return quotes.computeIfAbsent(stockCode, k -> new Quote());
+    }
+
+    private static class Quote {
+        private volatile Tick tick;
+        private volatile OrderBook orderBook;
+    }
+
+    /**
+     * 체결 최신값 (불변)
+     */
+    public static final class Tick {
+        private final RealtimeStockDto dto;
+        private final long price;
+        private final long updatedAt;
+
+        private Tick(RealtimeStockDto dto, long price, long updatedAt) {
+            this.dto = dto;
+            this.price = price;
+            this.updatedAt = updatedAt;
+        }
+
+        public RealtimeStockDto getDto() {
+            return dto;
+        }
+
+        public long getPrice() {
+            return price;
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+
+    /**
+     * 호가 최신값 (불변)
+     */
+    public static final class OrderBook {
+        private final RealtimeBidsAndAsksDto dto;
+        private final long updatedAt;
+
+        private OrderBook(RealtimeBidsAndAsksDto dto, long updatedAt) {
+            this.dto = dto;
+            this.updatedAt = updatedAt;
+        }
+
+        public RealtimeBidsAndAsksDto getDto() {
+            return dto;
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
@@ -8,8 +8,13 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.sql.*;
 import java.sql.Connection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 public class TokenManager {
@@ -62,17 +67,38 @@ public class TokenManager {
         MAIN, SUB, KIWOOM
     }
 
-    // ✅ access token만 필요할 때 (기본: MAIN) + SUB 토큰도 함께 발급
+    // 만료 이 시간 전부터는 백그라운드에서 미리 재발급
+    private static final long REFRESH_AHEAD_MS = 10 * 60_000L;
+
+    // 토큰 종류별 메모리 캐시 (DB는 재시작 시 복구용으로만 사용)
+    private static final Map<TokenType, TokenInfo> cache = new ConcurrentHashMap<>();
+
+    // 토큰 종류별 발급 락 - 동시에 여러 요청이 와도 발급은 한 번만
+    private static final Map<TokenType, Object> locks = new EnumMap<>(TokenType.class);
+
+    // 토큰 종류별 백그라운드 재발급 진행 여부
+    private static final Map<TokenType, AtomicBoolean> refreshing = new EnumMap<>(TokenType.class);
+
+    private static final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "kis-token-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        for (TokenType type : TokenType.values()) {
+            locks.put(type, new Object());
+            refreshing.put(type, new AtomicBoolean(false));
+        }
+    }
+
+    // ✅ access token만 필요할 때 (기본: MAIN)
     public static String getAccessToken() throws IOException {
-        // MAIN 토큰 발급 시 SUB 토큰도 함께 발급받음
         TokenInfo mainToken = getTokenInfo(TokenType.MAIN);
 
-        // SUB 토큰도 백그라운드에서 함께 발급 (실패해도 MAIN 토큰은 정상 반환)
-        try {
-            getTokenInfo(TokenType.SUB);
-            // System.out.println("[TokenManager] MAIN + SUB 토큰 모두 발급 완료");
-        } catch (Exception e) {
-            System.err.println("[TokenManager] SUB 토큰 발급 실패 (MAIN은 정상): " + e.getMessage());
+        // SUB 토큰은 아직 한 번도 받지 않았을 때만 백그라운드에서 미리 발급 (실시간 체결용)
+        if (!cache.containsKey(TokenType.SUB)) {
+            refreshAsync(TokenType.SUB);
         }
 
         return mainToken.getAccessToken();
@@ -83,8 +109,55 @@ public class TokenManager {
         return getTokenInfo(TokenType.MAIN);
     }
 
-    // ✅ 토큰 종류별로 관리
+    // ✅ 토큰 종류별로 관리 - 메모리에 유효한 토큰이 있으면 DB 조회 없이 바로 반환
     public static TokenInfo getTokenInfo(TokenType type) throws IOException {
+        long now = System.currentTimeMillis();
+        TokenInfo cached = cache.get(type);
+        if (cached != null && now < cached.getExpireTime()) {
+            if (now >= cached.getExpireTime() - REFRESH_AHEAD_MS) {
+                refreshAsync(type);
+            }
+            return cached;
+        }
+
+        synchronized (locks.get(type)) {
+            // 락을 기다리는 동안 다른 스레드가 이미 발급했을 수 있음
+            cached = cache.get(type);
+            if (cached != null && System.currentTimeMillis() < cached.getExpireTime()) {
+                return cached;
+            }
+            TokenInfo loaded = loadOrIssue(type, false);
+            cache.put(type, loaded);
+            return loaded;
+        }
+    }
+
+    // ✅ 만료 임박 토큰 백그라운드 재발급 (종류별로 한 번에 하나만)
+    private static void refreshAsync(TokenType type) {
+        AtomicBoolean flag = refreshing.get(type);
+        if (!flag.compareAndSet(false, true)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                synchronized (locks.get(type)) {
+                    TokenInfo cached = cache.get(type);
+                    if (cached != null && System.currentTimeMillis() < cached.getExpireTime() - REFRESH_AHEAD_MS) {
+                        return;
+                    }
+                    cache.put(type, loadOrIssue(type, true));
+                    System.out.println("[TokenManager] 토큰 사전 재발급 완료 (" + type + ")");
+                }
+            } catch (Exception e) {
+                System.err.println("[TokenManager] 토큰 사전 재발급 실패 (" + type + "): " + e.getMessage());
+            } finally {
+                flag.set(false);
+            }
+        });
+    }
+
+    // ✅ DB에 저장된 토큰 복구, 없거나 만료(임박)면 새로 발급 후 저장
+    private static TokenInfo loadOrIssue(TokenType type, boolean refreshAhead) throws IOException {
         String dbKey = "";
         if(type == TokenType.MAIN) {
             dbKey = "1";
@@ -95,11 +168,10 @@ public class TokenManager {
         else if (type == TokenType.KIWOOM) {
             dbKey = "3";
         }
-        // 한국투자증권 API
-        if(dbKey.equals("1") || dbKey.equals("2")) {
-            try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-                PreparedStatement stmt = conn.prepareStatement(
-                        "SELECT access_token, approval_key, expire_time FROM token_store WHERE token_id = ?");
+
+        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT access_token, approval_key, expire_time FROM token_store WHERE token_id = ?")) {
                 stmt.setString(1, dbKey);
                 ResultSet rs = stmt.executeQuery();
 
@@ -108,106 +180,95 @@ public class TokenManager {
                     String approvalKey = rs.getString("approval_key");
                     long expireTime = rs.getLong("expire_time");
 
-                    if (System.currentTimeMillis() < expireTime) {
+                    // 사전 재발급 중이면 다른 인스턴스가 이미 갱신한 토큰인지 확인
+                    long threshold = System.currentTimeMillis() + (refreshAhead ? REFRESH_AHEAD_MS : 0);
+                    if (threshold < expireTime) {
                         // System.out.println("[TokenManager] 기존 토큰 사용 (" + type + ")");
-                        return new TokenInfo(token, approvalKey, expireTime);
+                        return new TokenInfo(token, type == TokenType.KIWOOM ? null : approvalKey, expireTime);
                     }
                 }
-
-                // 유효하지 않음 → 새 토큰 발급
-                return issueAndStoreNewToken(conn, type, dbKey);
-
-            } catch (SQLException e) {
-                throw new IOException("DB 오류", e);
             }
-        }
-        // 키움 API
-        else {
-            try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-                PreparedStatement stmt = conn.prepareStatement(
-                        "SELECT access_token, expire_time FROM token_store WHERE token_id = ?");
-                stmt.setString(1, dbKey);
-                ResultSet rs = stmt.executeQuery();
 
-                if (rs.next()) {
-                    String token = rs.getString("access_token");
-                    long expireTime = rs.getLong("expire_time");
-                    if (System.currentTimeMillis() < expireTime) {
-                        // 기존 토큰 사용
-                        return new TokenInfo(token, null, expireTime);
-                    }
-                }
+            // 유효하지 않음 → 새 토큰 발급
+            if (type == TokenType.KIWOOM) {
+                // 키움 API
+                return issueAndStoreKiwoomToken(conn, dbKey);
+            }
+            // 한국투자증권 API
+            return issueAndStoreNewToken(conn, type, dbKey);
 
-                // 유효하지 않음 → 새 토큰 발급
-                OkHttpClient client = new OkHttpClient();
-                ObjectMapper mapper = new ObjectMapper();
+        } catch (SQLException e) {
+            throw new IOException("DB 오류", e);
+        }
+    }
 
-                Map<String, String> bodyMap = new HashMap<>();
-                bodyMap.put("grant_type", "client_credentials");
-                bodyMap.put("appkey", APP_KEY3);      // 키움 appkey
-                bodyMap.put("secretkey", APP_SECRET3); // 키움 secretkey
+    // ✅ 키움 토큰 발급 및 저장 (approval_key 없음)
+    private static TokenInfo issueAndStoreKiwoomToken(Connection conn, String dbKey) throws IOException {
+        OkHttpClient client = ApiHttpClient.client();
+        ObjectMapper mapper = ApiHttpClient.mapper();
 
-                String jsonBody = mapper.writeValueAsString(bodyMap);
+        Map<String, String> bodyMap = new HashMap<>();
+        bodyMap.put("grant_type", "client_credentials");
+        bodyMap.put("appkey", APP_KEY3);      // 키움 appkey
+        bodyMap.put("secretkey", APP_SECRET3); // 키움 secretkey
 
-                Request tokenRequest = new Request.Builder()
-                        .url("https://api.kiwoom.com/oauth2/token")
-                        .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                        .addHeader("Content-Type", "application/json")
-                        .build();
+        String jsonBody = mapper.writeValueAsString(bodyMap);
 
-                String token;
-                long expireTime;
-                try (Response response = client.newCall(tokenRequest).execute()) {
-                    if (!response.isSuccessful()) {
-                        throw new IOException("키움 access_token 발급 실패: " + response.code());
-                    }
-                    String responseBody = response.body().string();
-                    System.out.println("[TokenManager] 키움 토큰 응답 원문: " + responseBody); // 응답 원문 출력
-                    Map<String, Object> responseMap = mapper.readValue(responseBody, Map.class);
-                    token = (String) responseMap.get("token");
-                    Object expiresDtObj = responseMap.get("expires_dt");
-                    if (expiresDtObj != null) {
-                        // "20250806163448" → Unix timestamp(ms)
-                        String expiresDtStr = expiresDtObj.toString();
-                        java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyyMMddHHmmss");
-                        sdf.setLenient(false);
-                        try {
-                            java.util.Date date = sdf.parse(expiresDtStr);
-                            expireTime = date.getTime();
-                        } catch (java.text.ParseException e) {
-                            throw new IOException("expires_dt 파싱 실패: " + expiresDtStr, e);
-                        }
-                    } else if (responseMap.get("expires_in") != null) {
-                        long expiresInSec = Long.parseLong(responseMap.get("expires_in").toString());
-                        expireTime = System.currentTimeMillis() + (expiresInSec - 300) * 1000L;
-                    } else {
-                        throw new IOException("만료 시간 정보가 응답에 없습니다.");
-                    }
-                }
+        Request tokenRequest = new Request.Builder()
+                .url("https://api.kiwoom.com/oauth2/token")
+                .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
+                .addHeader("Content-Type", "application/json")
+                .build();
 
-                // DB 저장 (approval_key는 null)
-                try (PreparedStatement update = conn.prepareStatement(
-                        "REPLACE INTO token_store (token_id, access_token, approval_key, expire_time) VALUES (?, ?, ?, ?)")) {
-                    update.setString(1, dbKey);
-                    update.setString(2, token);
-                    update.setNull(3, java.sql.Types.VARCHAR); // approval_key는 null
-                    update.setLong(4, expireTime);
-                    update.executeUpdate();
-                } catch (SQLException e) {
-                    throw new IOException("키움 토큰 DB 저장 실패", e);
+        String token;
+        long expireTime;
+        try (Response response = client.newCall(tokenRequest).execute()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("키움 access_token 발급 실패: " + response.code());
+            }
+            String responseBody = response.body().string();
+            System.out.println("[TokenManager] 키움 토큰 응답 원문: " + responseBody); // 응답 원문 출력
+            Map<String, Object> responseMap = mapper.readValue(responseBody, Map.class);
+            token = (String) responseMap.get("token");
+            Object expiresDtObj = responseMap.get("expires_dt");
+            if (expiresDtObj != null) {
+                // "20250806163448" → Unix timestamp(ms)
+                String expiresDtStr = expiresDtObj.toString();
+                java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyyMMddHHmmss");
+                sdf.setLenient(false);
+                try {
+                    java.util.Date date = sdf.parse(expiresDtStr);
+                    expireTime = date.getTime();
+                } catch (java.text.ParseException e) {
+                    throw new IOException("expires_dt 파싱 실패: " + expiresDtStr, e);
                 }
-
-                return new TokenInfo(token, null, expireTime);
-            } catch (SQLException e) {
-                throw new IOException("키움 DB 오류", e);
+            } else if (responseMap.get("expires_in") != null) {
+                long expiresInSec = Long.parseLong(responseMap.get("expires_in").toString());
+                expireTime = System.currentTimeMillis() + (expiresInSec - 300) * 1000L;
+            } else {
+                throw new IOException("만료 시간 정보가 응답에 없습니다.");
             }
         }
+
+        // DB 저장 (approval_key는 null)
+        try (PreparedStatement update = conn.prepareStatement(
+                "REPLACE INTO token_store (token_id, access_token, approval_key, expire_time) VALUES (?, ?, ?, ?)")) {
+            update.setString(1, dbKey);
+            update.setString(2, token);
+            update.setNull(3, java.sql.Types.VARCHAR); // approval_key는 null
+            update.setLong(4, expireTime);
+            update.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("키움 토큰 DB 저장 실패", e);
+        }
+
+        return new TokenInfo(token, null, expireTime);
     }
 
     // ✅ 토큰 발급 및 저장 (토큰 종류별)
     private static TokenInfo issueAndStoreNewToken(Connection conn, TokenType type, String dbKey) throws IOException {
-        OkHttpClient client = new OkHttpClient();
-        ObjectMapper mapper = new ObjectMapper();
+        OkHttpClient client = ApiHttpClient.client();
+        ObjectMapper mapper = ApiHttpClient.mapper();
 
         // 1. Access Token 요청
         Map<String, String> bodyMap = new HashMap<>();
@@ -268,7 +329,7 @@ public class TokenManager {
         bodyMap.put("appkey", appKey);
         bodyMap.put("secretkey", appSecret);
 
-        ObjectMapper mapper = new ObjectMapper();
+        ObjectMapper mapper = ApiHttpClient.mapper();
         String jsonBody = mapper.writeValueAsString(bodyMap);
 
         Request request = new Request.Builder()
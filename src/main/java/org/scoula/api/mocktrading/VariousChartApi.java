@@ -13,8 +13,8 @@ import org.springframework.stereotype.Service;
 @Service
 public class VariousChartApi {
 
-    private final OkHttpClient client = new OkHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OkHttpClient client = ApiHttpClient.client();
+    private final ObjectMapper objectMapper = ApiHttpClient.mapper();
 
     /**
      * 일/주/월/년별 차트 데이터 조회
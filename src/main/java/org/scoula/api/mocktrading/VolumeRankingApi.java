@@ -75,12 +75,12 @@ public class VolumeRankingApi {
                 .addHeader("custtype", "P")
                 .build();
 
-        OkHttpClient client = new OkHttpClient();
+        OkHttpClient client = ApiHttpClient.client();
         Response response = client.newCall(request).execute();
 
         if (response.isSuccessful()) {
             String responseBody = response.body().string();
-            ObjectMapper mapper = new ObjectMapper();
+            ObjectMapper mapper = ApiHttpClient.mapper();
             JsonNode json = mapper.readTree(responseBody);
 
             String rtCd = json.path("rt_cd").asText();
@@ -110,14 +110,9 @@ public class VolumeRankingApi {
     public Map<String, List<Map<String, Object>>> getAllMarketVolumeRanking(int limit, String blngClsCode) throws IOException {
         Map<String, List<Map<String, Object>>> result = new HashMap<>();
 
-        try {
-            result.put("kospi", getVolumeRanking("J", limit, blngClsCode));
-            Thread.sleep(1000);  // API 호출 간격
-            result.put("kosdaq", getVolumeRanking("J", limit, blngClsCode));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new IOException("API 호출 중 인터럽트 발생", e);
-        }
+        // 호출 간격은 ApiRateLimiter가 조절
+        result.put("kospi", getVolumeRanking("J", limit, blngClsCode));
+        result.put("kosdaq", getVolumeRanking("J", limit, blngClsCode));
 
         return result;
     }
@@ -13,10 +13,12 @@ import org.springframework.context.annotation.*;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
 
 @EnableScheduling
+@EnableTransactionManagement(proxyTargetClass = true)  // 서비스 @Transactional 적용 (구현 클래스 직접 주입 유지)
 @Configuration
 @PropertySource({"classpath:/application.properties"})
 @MapperScan(basePackages = {"org.scoula.mapper"})
@@ -38,6 +40,10 @@ public class RootConfig {
     @Value("${jdbc.password}")
     String password;
 
+    // 커넥션 풀 크기 (DB 최대 접속 수에 맞춰 조정, 비동기 주문 레인 수도 이 값으로 정해짐)
+    @Value("${jdbc.maximum-pool-size:3}")
+    int maximumPoolSize;
+
     @Autowired
     ApplicationContext applicationContext;
 
@@ -61,7 +67,7 @@ public class RootConfig {
         config.setPassword(password);
 
         // 👉 커넥션 풀 제한 설정 추가!
-        config.setMaximumPoolSize(3);
+        config.setMaximumPoolSize(maximumPoolSize);
         config.setMinimumIdle(1);
         config.setIdleTimeout(300000);
         config.setMaxLifetime(600000);
@@ -1,5 +1,6 @@
 package org.scoula.config;
 
+import org.scoula.controller.mocktrading.TradingSessionListener;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.filter.CharacterEncodingFilter;
 import org.springframework.web.filter.CorsFilter;
@@ -37,6 +38,13 @@ public class WebConfig extends AbstractAnnotationConfigDispatcherServletInitiali
         return new String[] {"/"};  // 모든 요청 매핑
     }
 
+    @Override
+    public void onStartup(ServletContext servletContext) throws ServletException {
+        super.onStartup(servletContext);
+        // 세션 만료 시 실시간 구독 반납 (페이지 이탈 API를 호출하지 못한 시청자)
+        servletContext.addListener(new TradingSessionListener());
+    }
+
     // POST body 문자 인코딩 필터 설정 - UTF-8 설정
     @Override
     protected Filter[] getServletFilters() {
@@ -9,18 +9,13 @@ import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.scoula.api.mocktrading.MinuteChartApiKiwoom;
-import org.scoula.api.mocktrading.VariousChartApi;
+import org.scoula.service.mocktrading.ChartHistoryService;
+import org.scoula.service.mocktrading.MinuteCandleStore;
+import org.scoula.util.mocktrading.MinuteCandleRing;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -30,13 +25,13 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:8080"})
 public class ChartController {
 
-    private final MinuteChartApiKiwoom minuteChartApiKiwoom;
-    private final VariousChartApi variousChartApi;
+    private final MinuteCandleStore minuteCandleStore;
+    private final ChartHistoryService chartHistoryService;
 
     @GetMapping("/minute/{stockCode}")
     @ApiOperation(
             value = "키움 분봉 차트 데이터 조회",
-            notes = "키움증권 API에서 제공하는 원본 분봉 차트 데이터를 그대로 반환합니다."
+            notes = "실시간 체결로 누적한 당일 분봉을 키움 분봉과 같은 형식으로 반환합니다. since(HHmm)를 주면 그 시각 이후 분봉만, interval을 주면 해당 단위(3/5/10/30/60분)로 미리 집계된 분봉을 반환합니다."
     )
     @ApiResponses({
             @ApiResponse(code = 200, message = "성공"),
@@ -46,9 +41,13 @@ public class ChartController {
     })
     public ResponseEntity<JsonNode> getMinuteChartKiwoom(
             @ApiParam(value = "종목코드 (예: 005930)", required = true)
-            @PathVariable String stockCode
+            @PathVariable String stockCode,
+            @ApiParam(value = "이 시각(HHmm) 이후 분봉만 조회 (증분 폴링용, 예: 1305)")
+            @RequestParam(required = false) String since,
+            @ApiParam(value = "분봉 단위 (1, 3, 5, 10, 30, 60분)", example = "1")
+            @RequestParam(defaultValue = "1") int interval
     ) {
-        log.info("Received Kiwoom minute chart request - Stock: {}", stockCode);
+        log.info("Received Kiwoom minute chart request - Stock: {}, since: {}, interval: {}", stockCode, since, interval);
 
         try {
             // 입력값 검증
@@ -56,8 +55,18 @@ public class ChartController {
                 log.warn("Invalid stock code provided: {}", stockCode);
                 return ResponseEntity.badRequest().build();
             }
+            int sinceMinute = since != null ? MinuteCandleRing.parseMinuteOfDay(since) : -1;
+            if (since != null && sinceMinute < 0) {
+                log.warn("Invalid since provided: {}", since);
+                return ResponseEntity.badRequest().build();
+            }
+
+            if (!MinuteCandleRing.supportsResolution(interval)) {
+                log.warn("Unsupported interval provided: {}", interval);
+                return ResponseEntity.badRequest().build();
+            }
 
-            JsonNode result = minuteChartApiKiwoom.getKiwoomMinuteChartData(stockCode);
+            JsonNode result = minuteCandleStore.getChart(stockCode, sinceMinute, interval, false);
 
             if (result == null) {
                 log.info("No chart data found for stock: {}", stockCode);
@@ -75,7 +84,7 @@ public class ChartController {
     @PostMapping("/minute/batch")
     @ApiOperation(
             value = "여러 종목의 키움 분봉 차트 데이터 동시 조회",
-            notes = "종목코드 배열을 받아 각 종목의 키움 분봉 차트 데이터를 동시에 조회합니다."
+            notes = "종목코드 배열을 받아 각 종목의 키움 분봉 차트 데이터를 동시에 조회합니다. 제한 시간(5초) 안에 조회하지 못한 종목은 결과에서 빠집니다."
     )
     @ApiResponses({
             @ApiResponse(code = 200, message = "성공"),
@@ -93,38 +102,18 @@ public class ChartController {
             return ResponseEntity.badRequest().build();
         }
 
-        // 동시성 처리를 위한 ExecutorService
-        ExecutorService executor = Executors.newFixedThreadPool(Math.min(stockCodes.size(), 10));
-        List<CompletableFuture<JsonNode>> futures = new ArrayList<>();
-
-        for (String stockCode : stockCodes) {
-            CompletableFuture<JsonNode> future = CompletableFuture.supplyAsync(() -> {
-                try {
-                    JsonNode result = minuteChartApiKiwoom.getKiwoomMinuteChartData(stockCode, true);
-                    return result;
-                } catch (Exception e) {
-                    log.error("Error processing Kiwoom minute chart for stock: {}", stockCode, e);
-                    return null;
-                }
-            }, executor);
-            futures.add(future);
+        List<JsonNode> results = minuteCandleStore.getCharts(stockCodes);
+        if (results.size() < stockCodes.size()) {
+            log.info("Kiwoom minute chart batch partially served - {}/{}", results.size(), stockCodes.size());
         }
 
-        // 모든 작업 완료까지 대기
-        List<JsonNode> results = futures.stream()
-                .map(CompletableFuture::join)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-
-        executor.shutdown();
-
         return ResponseEntity.ok(results);
     }
 
     @GetMapping("/various/{stockCode}")
     @ApiOperation(
             value = "일/주/월/년별 차트 데이터 조회",
-            notes = "한국투자증권 API에서 제공하는 일/주/월/년별 차트 데이터를 반환합니다."
+            notes = "한국투자증권 API에서 제공하는 일/주/월/년별 차트 데이터를 반환합니다. 지난 기간의 봉은 저장소에서, 진행 중인 기간의 봉만 한국투자증권에서 받아 반환합니다."
     )
     @ApiResponses({
             @ApiResponse(code = 200, message = "성공"),
@@ -153,7 +142,7 @@ public class ChartController {
                 return ResponseEntity.badRequest().build();
             }
 
-            JsonNode chartData = variousChartApi.getChartData(stockCode, periodCode, startDate, endDate);
+            JsonNode chartData = chartHistoryService.getChartData(stockCode, periodCode, startDate, endDate);
 
             if (chartData == null) {
                 log.info("No various chart data found for stock: {}", stockCode);
@@ -0,0 +1,134 @@
+package org.scoula.controller.mocktrading;
+
+import org.scoula.domain.mocktrading.RealtimeBidsAndAsksDto;
+import org.scoula.util.mocktrading.RealtimeFrameParser;
+
+/**
+ * compact 프로토콜용 숫자 호가 (10단계)
+ * - 스냅샷: {"type":"book","s":종목,"t":시각,"a":[가격1,잔량1,...,가격10,잔량10],"b":[...],"ta":총매도잔량,"tb":총매수잔량}
+ * - 델타:   {"type":"bookDelta","s":종목,"t":시각,"a":[단계,가격,잔량,...],"b":[...],"ta":..,"tb":..}
+ *   변경된 단계(1~10)만 포함하며, 총잔량은 바뀐 경우에만 포함
+ */
+final class CompactOrderBook {
+
+    static final int LEVELS = 10;
+
+    private final int time;
+    private final long[] askPrices = new long[LEVELS];
+    private final long[] askQtys = new long[LEVELS];
+    private final long[] bidPrices = new long[LEVELS];
+    private final long[] bidQtys = new long[LEVELS];
+    private final long totalAskQty;
+    private final long totalBidQty;
+
+    private CompactOrderBook(RealtimeBidsAndAsksDto dto) {
+        RealtimeFrameParser.Fields frame = dto.frame();
+        if (frame != null) {
+            // 실시간 프레임에서 만든 호가는 문자열을 거치지 않고 필드에서 바로 숫자로 읽음
+            this.time = frame.getInt(RealtimeBidsAndAsksDto.BUSINESS_HOUR_FIELD);
+            for (int i = 0; i < LEVELS; i++) {
+                askPrices[i] = frame.getLong(RealtimeBidsAndAsksDto.ASK_PRICE_FIELD + i);
+                askQtys[i] = frame.getLong(RealtimeBidsAndAsksDto.ASK_QTY_FIELD + i);
+                bidPrices[i] = frame.getLong(RealtimeBidsAndAsksDto.BID_PRICE_FIELD + i);
+                bidQtys[i] = frame.getLong(RealtimeBidsAndAsksDto.BID_QTY_FIELD + i);
+            }
+            this.totalAskQty = frame.getLong(RealtimeBidsAndAsksDto.TOTAL_ASK_QTY_FIELD);
+            this.totalBidQty = frame.getLong(RealtimeBidsAndAsksDto.TOTAL_BID_QTY_FIELD);
+            return;
+        }
+
+        this.time = (int) toLong(dto.getBusinessHour());
+
+        String[] askPriceFields = {dto.getAskPrice1(), dto.getAskPrice2(), dto.getAskPrice3(), dto.getAskPrice4(), dto.getAskPrice5(),
+                dto.getAskPrice6(), dto.getAskPrice7(), dto.getAskPrice8(), dto.getAskPrice9(), dto.getAskPrice10()};
+        String[] askQtyFields = {dto.getAskQty1(), dto.getAskQty2(), dto.getAskQty3(), dto.getAskQty4(), dto.getAskQty5(),
+                dto.getAskQty6(), dto.getAskQty7(), dto.getAskQty8(), dto.getAskQty9(), dto.getAskQty10()};
+        String[] bidPriceFields = {dto.getBidPrice1(), dto.getBidPrice2(), dto.getBidPrice3(), dto.getBidPrice4(), dto.getBidPrice5(),
+                dto.getBidPrice6(), dto.getBidPrice7(), dto.getBidPrice8(), dto.getBidPrice9(), dto.getBidPrice10()};
+        String[] bidQtyFields = {dto.getBidQty1(), dto.getBidQty2(), dto.getBidQty3(), dto.getBidQty4(), dto.getBidQty5(),
+                dto.getBidQty6(), dto.getBidQty7(), dto.getBidQty8(), dto.getBidQty9(), dto.getBidQty10()};
+
+        for (int i = 0; i < LEVELS; i++) {
+            askPrices[i] = toLong(askPriceFields[i]);
+            askQtys[i] = toLong(askQtyFields[i]);
+            bidPrices[i] = toLong(bidPriceFields[i]);
+            bidQtys[i] = toLong(bidQtyFields[i]);
+        }
+        this.totalAskQty = toLong(dto.getTotalAskQty());
+        this.totalBidQty = toLong(dto.getTotalBidQty());
+    }
+
+    static CompactOrderBook from(RealtimeBidsAndAsksDto dto) {
+        return new CompactOrderBook(dto);
+    }
+
+    String snapshotJson(String stockCode) {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"type\":\"book\",\"s\":\"").append(stockCode).append("\",\"t\":").append(time);
+
+        json.append(",\"a\":[");
+        appendLevels(json, askPrices, askQtys);
+        json.append("],\"b\":[");
+        appendLevels(json, bidPrices, bidQtys);
+        json.append("],\"ta\":").append(totalAskQty).append(",\"tb\":").append(totalBidQty).append('}');
+        return json.toString();
+    }
+
+    /**
+     * 이전에 보낸 호가 대비 변경분 - 바뀐 것이 없으면 null
+     */
+    String deltaJson(String stockCode, CompactOrderBook previous) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"type\":\"bookDelta\",\"s\":\"").append(stockCode).append("\",\"t\":").append(time);
+
+        json.append(",\"a\":[");
+        boolean askChanged = appendChangedLevels(json, askPrices, askQtys, previous.askPrices, previous.askQtys);
+        json.append("],\"b\":[");
+        boolean bidChanged = appendChangedLevels(json, bidPrices, bidQtys, previous.bidPrices, previous.bidQtys);
+        json.append(']');
+
+        boolean totalChanged = false;
+        if (totalAskQty != previous.totalAskQty) {
+            json.append(",\"ta\":").append(totalAskQty);
+            totalChanged = true;
+        }
+        if (totalBidQty != previous.totalBidQty) {
+            json.append(",\"tb\":").append(totalBidQty);
+            totalChanged = true;
+        }
+
+        if (!askChanged && !bidChanged && !totalChanged) {
+            return null;
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendLevels(StringBuilder json, long[] prices, long[] qtys) {
+        for (int i = 0; i < LEVELS; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(prices[i]).append(',').append(qtys[i]);
+        }
+    }
+
+    private static boolean appendChangedLevels(StringBuilder json, long[] prices, long[] qtys,
+                                               long[] previousPrices, long[] previousQtys) {
+        boolean changed = false;
+        for (int i = 0; i < LEVELS; i++) {
+            if (prices[i] == previousPrices[i] && qtys[i] == previousQtys[i]) {
+                continue;
+            }
+            if (changed) {
+                json.append(',');
+            }
+            json.append(i + 1).append(',').append(prices[i]).append(',').append(qtys[i]);
+            changed = true;
+        }
+        return changed;
+    }
+
+    private static long toLong(String value) {
+        return value == null ? 0L : RealtimeFrameParser.parseLong(value, 0, value.length());
+    }
+}
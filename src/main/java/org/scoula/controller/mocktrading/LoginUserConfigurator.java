@@ -0,0 +1,33 @@
+package org.scoula.controller.mocktrading;
+
+import org.scoula.domain.Auth.vo.UserVo;
+
+import javax.servlet.http.HttpSession;
+import javax.websocket.HandshakeResponse;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpointConfig;
+
+/**
+ * WebSocket 핸드셰이크 시 HTTP 세션의 로그인 사용자 ID와 세션 ID를 세션 속성으로 전달
+ * - 로그인한 프론트는 본인 주문 처리 결과(orderStatus)를 받을 수 있음
+ * - 종목 구독 메시지를 보내지 않는 기존 프론트는 HTTP 세션이 시청 중인 종목만 받음
+ */
+public class LoginUserConfigurator extends ServerEndpointConfig.Configurator {
+
+    static final String USER_ID = "loginUserId";
+    static final String HTTP_SESSION_ID = "httpSessionId";
+
+    @Override
+    public void modifyHandshake(ServerEndpointConfig config, HandshakeRequest request, HandshakeResponse response) {
+        config.getUserProperties().remove(USER_ID);
+        config.getUserProperties().remove(HTTP_SESSION_ID);
+        Object httpSession = request.getHttpSession();
+        if (httpSession instanceof HttpSession) {
+            config.getUserProperties().put(HTTP_SESSION_ID, ((HttpSession) httpSession).getId());
+            Object loginUser = ((HttpSession) httpSession).getAttribute("loginUser");
+            if (loginUser instanceof UserVo) {
+                config.getUserProperties().put(USER_ID, ((UserVo) loginUser).getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.scoula.controller.mocktrading;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.scoula.domain.mocktrading.RealtimeBidsAndAsksDto;
+
+/**
+ * 중계용 메시지 - 모든 구독 세션이 같은 인스턴스를 공유
+ * - data의 JSON 직렬화는 처음 필요할 때 한 번만 수행
+ */
+final class RelayMessage {
+
+    static final String EXECUTION = "execution";
+    static final String BIDS_AND_ASKS = "bidsAndAsks";
+
+    private final String type;
+    private final String stockCode;
+    private final Object data;
+    private final ObjectMapper mapper;
+
+    private volatile String dataJson;
+    private volatile String json;
+    private volatile CompactOrderBook compactBook;
+
+    RelayMessage(String type, String stockCode, Object data, ObjectMapper mapper) {
+        this.type = type;
+        this.stockCode = stockCode;
+        this.data = data;
+        this.mapper = mapper;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getStockCode() {
+        return stockCode;
+    }
+
+    Object getData() {
+        return data;
+    }
+
+    /**
+     * data 부분만의 JSON (배치 전송 시 배열 원소로 사용)
+     */
+    String dataJson() {
+        String result = dataJson;
+        if (result == null) {
+            try {
+                result = mapper.writeValueAsString(data);
+            } catch (Exception e) {
+                throw new IllegalStateException("중계 메시지 직렬화 실패: " + type + " " + stockCode, e);
+            }
+            dataJson = result;
+        }
+        return result;
+    }
+
+    /**
+     * {"type":..., "data":...} 형태의 전체 JSON
+     */
+    String toJson() {
+        String result = json;
+        if (result == null) {
+            result = "{\"type\":\"" + type + "\",\"data\":" + dataJson() + "}";
+            json = result;
+        }
+        return result;
+    }
+
+    /**
+     * compact 프로토콜용 숫자 호가 (호가 메시지만 해당)
+     */
+    CompactOrderBook compactBook() {
+        CompactOrderBook result = compactBook;
+        if (result == null) {
+            result = CompactOrderBook.from((RealtimeBidsAndAsksDto) data);
+            compactBook = result;
+        }
+        return result;
+    }
+}
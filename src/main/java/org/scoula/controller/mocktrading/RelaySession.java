@@ -0,0 +1,272 @@
+package org.scoula.controller.mocktrading;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 프론트 WebSocket 세션별 우편함 (conflation + backpressure)
+ * - getAsyncRemote로 한 번에 하나씩 보내고, 전송 완료 콜백에서 다음 메시지를 보냄
+ * - 호가: 종목별 최신 스냅샷 1건만 유지 (밀린 스냅샷은 덮어씀)
+ * - 체결: 배치 세션은 flush 주기마다 배열로 묶어 전송, 그 외에는 최대 건수를 넘으면 오래된 것부터 버림
+ * 따라서 클라이언트가 아무리 느려도 세션당 메모리는 (구독 종목 수 + MAX_PENDING_EXECUTIONS)로 제한됨
+ * - compact 세션은 호가를 종목별 최초 1회 스냅샷, 이후에는 마지막으로 보낸 호가 대비 델타로만 받음
+ */
+class RelaySession implements SendHandler {
+
+    // 세션당 대기 가능한 최대 체결 메시지 수
+    private static final int MAX_PENDING_EXECUTIONS = 256;
+
+    private final Session session;
+    private final boolean batchExecutions;
+    private final boolean compact;
+
+    // 로그인 사용자 ID (비로그인 접속이면 null)
+    private final Integer userId;
+
+    // 접속한 HTTP 세션 ID (종목 구독 메시지 없는 기존 프론트의 시청 종목 확인용, 없으면 null)
+    private final String httpSessionId;
+
+    // 구독 중인 종목코드
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+
+    // 종목코드 -> 아직 보내지 못한 최신 호가
+    private final LinkedHashMap<String, RelayMessage> orderBooks = new LinkedHashMap<>();
+    private final ArrayDeque<RelayMessage> executions = new ArrayDeque<>();
+    private final ArrayDeque<String> controls = new ArrayDeque<>();
+
+    // compact 세션: 종목코드 -> 마지막으로 보낸 호가 (델타 기준점)
+    private final Map<String, CompactOrderBook> lastSentBooks = new HashMap<>();
+    private boolean sending = false;
+    private boolean batchDue = false;
+
+    // 종목 구독 메시지를 한 번도 보내지 않은 세션은 HTTP 세션이 시청 중인 종목 수신 (기존 프론트 호환)
+    private volatile boolean legacy = true;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+
+    RelaySession(Session session, boolean batchExecutions, boolean compact, Integer userId, String httpSessionId) {
+        this.session = session;
+        this.batchExecutions = batchExecutions;
+        this.compact = compact;
+        this.userId = userId;
+        this.httpSessionId = httpSessionId;
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    Set<String> getTopics() {
+        return topics;
+    }
+
+    Integer getUserId() {
+        return userId;
+    }
+
+    String getHttpSessionId() {
+        return httpSessionId;
+    }
+
+    boolean isLegacy() {
+        return legacy;
+    }
+
+    boolean isBatchExecutions() {
+        return batchExecutions;
+    }
+
+    boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * 다음 호가를 델타가 아닌 전체 스냅샷으로 보내도록 기준점 초기화
+     */
+    synchronized void resetBook(String stockCode) {
+        lastSentBooks.remove(stockCode);
+    }
+
+    void markSubscribed() {
+        legacy = false;
+    }
+
+    long getSentCount() {
+        return sent.get();
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getConflatedCount() {
+        return conflated.get();
+    }
+
+    /**
+     * 호가 스냅샷 - 아직 안 보낸 같은 종목 호가가 있으면 덮어씀
+     */
+    void offerOrderBook(RelayMessage message) {
+        synchronized (this) {
+            if (orderBooks.put(message.getStockCode(), message) != null) {
+                conflated.incrementAndGet();
+            }
+        }
+        pump();
+    }
+
+    /**
+     * 체결 틱 - 배치 세션은 다음 flush까지 모아둠
+     */
+    void offerExecution(RelayMessage message) {
+        synchronized (this) {
+            if (executions.size() >= MAX_PENDING_EXECUTIONS) {
+                executions.pollFirst();
+                dropped.incrementAndGet();
+            }
+            executions.addLast(message);
+        }
+        if (!batchExecutions) {
+            pump();
+        }
+    }
+
+    /**
+     * 즉시 전송 (구독 응답 등 제어 메시지)
+     */
+    void offerControl(String text) {
+        synchronized (this) {
+            controls.addLast(text);
+        }
+        pump();
+    }
+
+    /**
+     * 배치 주기 도달 - 모아둔 체결을 묶어서 전송
+     */
+    void flush() {
+        synchronized (this) {
+            if (executions.isEmpty()) {
+                return;
+            }
+            batchDue = true;
+        }
+        pump();
+    }
+
+    @Override
+    public void onResult(SendResult result) {
+        if (result.isOK()) {
+            sent.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+
+        synchronized (this) {
+            sending = false;
+        }
+        pump();
+    }
+
+    private void pump() {
+        String text;
+        synchronized (this) {
+            if (sending) {
+                return;
+            }
+            if (!session.isOpen()) {
+                orderBooks.clear();
+                executions.clear();
+                controls.clear();
+                lastSentBooks.clear();
+                return;
+            }
+            text = nextMessage();
+            if (text == null) {
+                return;
+            }
+            sending = true;
+        }
+        write(text);
+    }
+
+    // 호출자가 락을 잡고 있어야 함
+    private String nextMessage() {
+        if (!controls.isEmpty()) {
+            return controls.pollFirst();
+        }
+
+        if (!executions.isEmpty()) {
+            if (!batchExecutions) {
+                return executions.pollFirst().toJson();
+            }
+            if (batchDue) {
+                batchDue = false;
+                StringBuilder batch = new StringBuilder(executions.size() * 512);
+                batch.append("{\"type\":\"executions\",\"data\":[");
+                boolean first = true;
+                for (RelayMessage message : executions) {
+                    if (!first) {
+                        batch.append(',');
+                    }
+                    batch.append(message.dataJson());
+                    first = false;
+                }
+                batch.append("]}");
+                executions.clear();
+                return batch.toString();
+            }
+        }
+
+        Iterator<RelayMessage> iterator = orderBooks.values().iterator();
+        while (iterator.hasNext()) {
+            RelayMessage message = iterator.next();
+            iterator.remove();
+            if (!compact) {
+                return message.toJson();
+            }
+
+            String text = encodeCompact(message);
+            if (text != null) {
+                return text;
+            }
+            // 마지막으로 보낸 호가와 같으면 건너뜀
+        }
+        return null;
+    }
+
+    private String encodeCompact(RelayMessage message) {
+        CompactOrderBook book = message.compactBook();
+        CompactOrderBook previous = lastSentBooks.put(message.getStockCode(), book);
+        return previous == null
+                ? book.snapshotJson(message.getStockCode())
+                : book.deltaJson(message.getStockCode(), previous);
+    }
+
+    private void write(String text) {
+        try {
+            session.getAsyncRemote().sendText(text, this);
+        } catch (Exception e) {
+            // 세션이 이미 닫힌 경우 등 - 다음 전송을 허용
+            synchronized (this) {
+                sending = false;
+            }
+            dropped.incrementAndGet();
+        }
+    }
+}
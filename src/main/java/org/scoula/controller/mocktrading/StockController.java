@@ -1,17 +1,24 @@
 package org.scoula.controller.mocktrading;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.annotations.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.scoula.api.mocktrading.ApiRateLimiter;
 import org.scoula.api.mocktrading.MultiPriceApi;
 import org.scoula.api.mocktrading.PriceApi;
-import org.scoula.api.mocktrading.RealtimeBidsAndAsksClient;
 import org.scoula.api.mocktrading.RealtimeExecutionClient;
+import org.scoula.api.mocktrading.RealtimeFeedHub;
 import org.scoula.domain.mocktrading.MarketOrderRequestDto;
 import org.scoula.domain.mocktrading.OrderRequestDto;
-import org.scoula.util.mocktrading.ConfigManager;
+import org.scoula.exception.OrderException;
+import org.scoula.service.mocktrading.AccountLedger;
+import org.scoula.service.mocktrading.AsyncOrderProcessor;
+import org.scoula.service.mocktrading.LimitOrderMatchingEngine;
+import org.scoula.service.mocktrading.MinuteCandleStore;
+import org.scoula.service.mocktrading.OrderService;
+import org.scoula.service.mocktrading.OrderSettlementService;
+import org.scoula.service.mocktrading.RealtimeSubscriptionService;
 import org.scoula.service.mocktrading.StockIndustryUpdaterService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,12 +27,7 @@ import springfox.documentation.annotations.ApiIgnore;
 
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
@@ -39,6 +41,27 @@ public class StockController {
     // 주식 기본정보api -> stocks 업종 업데이트
     private final StockIndustryUpdaterService stockIndustryUpdaterService;
 
+    // 세션별 실시간 구독 관리
+    private final RealtimeSubscriptionService realtimeSubscriptionService;
+
+    // 모의투자 주문 처리 (커넥션 풀 + 트랜잭션)
+    private final OrderService orderService;
+
+    // 지정가 대기 주문 실시간 매칭
+    private final LimitOrderMatchingEngine limitOrderMatchingEngine;
+
+    // 지정가 대기 주문 수동 체결 (분봉 기준)
+    private final OrderSettlementService orderSettlementService;
+
+    // 메모리 계좌 원장 (write-behind)
+    private final AccountLedger accountLedger;
+
+    // 비동기 주문 접수 큐
+    private final AsyncOrderProcessor asyncOrderProcessor;
+
+    // 실시간 틱 누적 분봉
+    private final MinuteCandleStore minuteCandleStore;
+
     @PostMapping("/update-industries")
     @ApiOperation(
             value = "모든 종목의 업종 정보 업데이트",
@@ -186,12 +209,13 @@ public class StockController {
 
     @GetMapping("/trading")
     @ApiOperation(
-            value = "트레이딩 페이지 접근 시 실시간 웹소켓(호가+체결) 시작",
-            notes = "stockCode 파라미터를 받아 해당 종목의 실시간 호가 및 체결 웹소켓을 모두 시작합니다. 기존 연결이 있으면 자동으로 종료 후 새로운 연결을 생성합니다."
+            value = "트레이딩 페이지 접근 시 실시간 웹소켓(호가+체결) 구독",
+            notes = "stockCode 파라미터를 받아 해당 종목의 실시간 호가 및 체결을 구독합니다. 같은 세션이 이전에 보던 종목의 구독은 반납되며, 업스트림 연결은 모든 시청자가 공유합니다."
     )
     public ResponseEntity<String> startTradingWebSocket(
             @ApiParam(value = "종목코드 (예: 005930)", required = true)
-            @RequestParam String stockCode) {
+            @RequestParam String stockCode,
+            @ApiIgnore HttpSession session) {
 
         log.info("Trading page accessed - Stock: {}", stockCode);
 
@@ -201,46 +225,9 @@ public class StockController {
                 return ResponseEntity.badRequest().body("유효하지 않은 종목코드입니다.");
             }
 
-            // ✅ 먼저 기존 연결들을 모두 종료 (중요!)
-            log.info("Stopping existing WebSocket connections before starting new ones...");
-            try {
-                RealtimeBidsAndAsksClient.stopWebSocket();
-            } catch (Exception e) {
-                log.warn("Error stopping existing bids/asks WebSocket: {}", e.getMessage());
-            }
-
-            try {
-                org.scoula.api.mocktrading.RealtimeNxtBidsAndAsksClient.stopWebSocket();
-            } catch (Exception e) {
-                log.warn("Error stopping existing NXT bids/asks WebSocket: {}", e.getMessage());
-            }
-
-            try {
-                RealtimeExecutionClient.stopWebSocket();
-                // ✅ 체결 데이터 초기화도 함께
-                RealtimeExecutionClient.clearStartedStocks();
-            } catch (Exception e) {
-                log.warn("Error stopping existing execution WebSocket: {}", e.getMessage());
-            }
-
-            // 짧은 대기 시간 (연결 정리 완료 대기)
-            Thread.sleep(500);
-
-            // ✅ 새로운 연결 시작
-            // 호가 웹소켓
-            java.time.LocalTime now = java.time.LocalTime.now();
-            java.time.LocalTime krxClose = java.time.LocalTime.of(15, 30);
-            if (now.isBefore(krxClose)) {
-                RealtimeBidsAndAsksClient.startWebSocket(stockCode);
-                log.info("Successfully started realtime WebSocket for stock: {} (KRX)", stockCode);
-            } else {
-                org.scoula.api.mocktrading.RealtimeNxtBidsAndAsksClient.startWebSocket(stockCode);
-                log.info("Successfully started realtime WebSocket for stock: {} (NXT)", stockCode);
-            }
-
-            // 체결 웹소켓
-            RealtimeExecutionClient.startWebSocket(stockCode);
-            log.info("Successfully started execution WebSocket for stock: {}", stockCode);
+            // ✅ 세션 단위로 구독 - 다른 사용자의 연결은 건드리지 않음
+            String exchange = realtimeSubscriptionService.watch(session.getId(), stockCode);
+            log.info("Successfully subscribed realtime feed for stock: {} ({})", stockCode, exchange);
 
             return ResponseEntity.ok("실시간 호가 및 체결 웹소켓이 시작되었습니다: " + stockCode);
 
@@ -253,47 +240,16 @@ public class StockController {
     // ✅ 새로 추가: WebSocket 종료 API
     @DeleteMapping("/trading")
     @ApiOperation(
-            value = "실시간 웹소켓(호가+체결) 종료",
-            notes = "현재 실행 중인 모든 실시간 웹소켓 연결을 종료합니다. 페이지 이동이나 애플리케이션 종료 시 호출됩니다."
+            value = "실시간 웹소켓(호가+체결) 구독 해제",
+            notes = "현재 세션의 실시간 구독을 해제합니다. 마지막 시청자가 떠나면 업스트림 구독도 해지됩니다. 페이지 이동이나 애플리케이션 종료 시 호출됩니다."
     )
-    public ResponseEntity<String> stopTradingWebSocket() {
-        log.info("Stopping all trading WebSocket connections...");
-
-        int successCount = 0;
-        int totalCount = 3; // 호가(KRX) + 호가(NXT) + 체결
-
-        // 호가 웹소켓 종료 (KRX)
-        try {
-            RealtimeBidsAndAsksClient.stopWebSocket();
-            successCount++;
-            log.info("Successfully stopped KRX bids/asks WebSocket");
-        } catch (Exception e) {
-            log.error("Error stopping KRX bids/asks WebSocket: {}", e.getMessage());
-        }
-
-        // 호가 웹소켓 종료 (NXT)
-        try {
-            org.scoula.api.mocktrading.RealtimeNxtBidsAndAsksClient.stopWebSocket();
-            successCount++;
-            log.info("Successfully stopped NXT bids/asks WebSocket");
-        } catch (Exception e) {
-            log.error("Error stopping NXT bids/asks WebSocket: {}", e.getMessage());
-        }
-
-        // 체결 웹소켓 종료
-        try {
-            RealtimeExecutionClient.stopWebSocket();
-            RealtimeExecutionClient.clearStartedStocks(); // 데이터 초기화도 함께
-            successCount++;
-            log.info("Successfully stopped execution WebSocket");
-        } catch (Exception e) {
-            log.error("Error stopping execution WebSocket: {}", e.getMessage());
-        }
+    public ResponseEntity<String> stopTradingWebSocket(@ApiIgnore HttpSession session) {
+        log.info("Releasing trading WebSocket subscription for session...");
 
-        if (successCount == totalCount) {
+        if (realtimeSubscriptionService.unwatch(session.getId())) {
             return ResponseEntity.ok("모든 실시간 웹소켓 연결이 성공적으로 종료되었습니다");
         } else {
-            return ResponseEntity.ok(String.format("웹소켓 종료 완료: %d/%d 성공", successCount, totalCount));
+            return ResponseEntity.ok("구독 중인 실시간 웹소켓이 없습니다");
         }
     }
 
@@ -308,11 +264,17 @@ public class StockController {
             // 연결 상태 정보 수집
             java.util.Map<String, Object> status = new java.util.HashMap<>();
 
-            // 체결 WebSocket 상태
+            // 체결/호가 WebSocket 상태
             status.put("executionConnected", RealtimeExecutionClient.isConnected());
-
-            // 호가 WebSocket 상태는 클라이언트에 isConnected() 메서드가 있다면 추가
-            // status.put("bidsAsksConnected", RealtimeBidsAndAsksClient.isConnected());
+            status.put("bidsAsksConnected", RealtimeFeedHub.isConnected("H0STASP0") || RealtimeFeedHub.isConnected("H0NXASP0"));
+            status.put("subscriptions", RealtimeFeedHub.getSubscriptionCounts());
+            status.put("viewers", realtimeSubscriptionService.getViewerCount());
+            status.put("relaySessions", StockRelaySocket.getSessionStats());
+            status.put("rateLimiter", ApiRateLimiter.getStats());
+            status.put("matchingEngine", limitOrderMatchingEngine.getStats());
+            status.put("accountLedger", accountLedger.getStats());
+            status.put("asyncOrders", asyncOrderProcessor.getStats());
+            status.put("minuteCandles", minuteCandleStore.getStats());
 
             status.put("timestamp", java.time.LocalDateTime.now().toString());
             status.put("marketTime", java.time.LocalTime.now().isBefore(java.time.LocalTime.of(15, 30)) ? "KRX" : "NXT");
@@ -326,15 +288,19 @@ public class StockController {
     }
 
     @PostMapping("/order")
-    @ApiOperation(value = "모의 주문(매수/매도)", notes = "가상의 주식 매수/매도 주문을 접수합니다")
+    @ApiOperation(value = "모의 주문(매수/매도)", notes = "가상의 주식 매수/매도 주문을 접수합니다. async=true 이면 큐에 넣고 요청 ID를 바로 반환하며, 처리 결과는 /ws/stock 의 orderStatus 메시지로 전송합니다")
     @ApiResponses({
             @ApiResponse(code = 200, message = "주문이 성공적으로 접수되었습니다"),
+            @ApiResponse(code = 202, message = "비동기 주문이 큐에 등록되었습니다"),
             @ApiResponse(code = 400, message = "잘못된 요청 데이터입니다"),
-            @ApiResponse(code = 401, message = "로그인이 필요합니다")
+            @ApiResponse(code = 401, message = "로그인이 필요합니다"),
+            @ApiResponse(code = 503, message = "주문 큐가 가득 찼습니다")
     })
-    public ResponseEntity<String> orderStock(
+    public ResponseEntity<?> orderStock(
             @ApiParam(value = "주문 요청 정보", required = true)
             @RequestBody OrderRequestDto orderRequest,
+            @ApiParam(value = "비동기 접수 여부", example = "false")
+            @RequestParam(value = "async", defaultValue = "false") boolean async,
             @ApiIgnore javax.servlet.http.HttpSession session
     ) {
         // 1. 세션에서 로그인 사용자 정보 조회
@@ -342,183 +308,24 @@ public class StockController {
         if (loginUser == null) {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
-        Integer userId = loginUser.getId();
-
-        // 2. userId로 accountId 조회 (user_accounts 테이블에서)
-        Integer accountId = null;
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
 
-            String findAccountSql = "SELECT account_id FROM user_accounts WHERE user_id = ?";
-            try (PreparedStatement findStmt = conn.prepareStatement(findAccountSql)) {
-                findStmt.setInt(1, userId);
-                try (ResultSet rs = findStmt.executeQuery()) {
-                    if (rs.next()) {
-                        accountId = rs.getInt("account_id");
-                    }
-                }
+        // 2. 계좌 조회 후 주문 접수 (잔고/보유 주식 차감 + 대기 주문 저장을 한 트랜잭션으로)
+        try {
+            Integer accountId = orderService.findAccountId(loginUser.getId());
+            if (async) {
+                // 검증 후 계좌별 순서가 유지되는 큐에 넣고 바로 응답
+                Map<String, Object> queued = new LinkedHashMap<>();
+                queued.put("requestId", asyncOrderProcessor.submit(loginUser.getId(), accountId, orderRequest));
+                queued.put("status", "QUEUED");
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(queued);
             }
+            return ResponseEntity.ok(orderService.placeLimitOrder(accountId, orderRequest));
+        } catch (OrderException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         } catch (Exception e) {
-            log.error("계좌 ID 조회 오류: {}", e.getMessage());
+            log.error("DB 주문 저장/보유 주식 차감 오류: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("계좌 ID 조회 중 오류가 발생했습니다: " + e.getMessage());
-        }
-
-        if (accountId == null || accountId <= 0) {
-            return ResponseEntity.badRequest().body("계좌 정보가 존재하지 않습니다.");
-        }
-
-        // 3. 입력값 검증
-        if (orderRequest.getQuantity() <= 0 ||
-                orderRequest.getTargetPrice() <= 0 ||
-                orderRequest.getStockCode() == null ||
-                (!"BUY".equalsIgnoreCase(orderRequest.getOrderType()) && !"SELL".equalsIgnoreCase(orderRequest.getOrderType()))) {
-            return ResponseEntity.badRequest().body("잘못된 주문 정보입니다.");
-        }
-
-        long requiredAmount = (long) orderRequest.getQuantity() * orderRequest.getTargetPrice();
-
-        // 4. 매수 주문일 경우 보유 현금(current_balance) 차감
-        if ("BUY".equalsIgnoreCase(orderRequest.getOrderType())) {
-            try (Connection conn = DriverManager.getConnection(
-                    ConfigManager.get("jdbc.url"),
-                    ConfigManager.get("jdbc.username"),
-                    ConfigManager.get("jdbc.password"))) {
-
-                // 4-1. 현재 잔고 조회
-                String balanceSql = "SELECT current_balance FROM user_accounts WHERE account_id = ?";
-                try (PreparedStatement balanceStmt = conn.prepareStatement(balanceSql)) {
-                    balanceStmt.setInt(1, accountId);
-                    try (ResultSet rs = balanceStmt.executeQuery()) {
-                        if (rs.next()) {
-                            long balance = rs.getLong("current_balance");
-                            if (balance < requiredAmount) {
-                                return ResponseEntity.badRequest().body("잔고가 부족합니다.");
-                            }
-                        } else {
-                            return ResponseEntity.badRequest().body("계좌 정보를 찾을 수 없습니다.");
-                        }
-                    }
-                }
-
-                // 4-2. 잔고 차감
-                String updateSql = "UPDATE user_accounts SET current_balance = current_balance - ? WHERE account_id = ?";
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                    updateStmt.setLong(1, requiredAmount);
-                    updateStmt.setInt(2, accountId);
-                    int updateResult = updateStmt.executeUpdate();
-                    if (updateResult != 1) {
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("잔고 차감에 실패했습니다.");
-                    }
-                }
-
-                // 5. 주문 저장
-                String sql = "INSERT INTO pending_orders " +
-                        "(account_id, stock_code, stock_name, order_type, quantity, target_price, created_at) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
-
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setInt(1, accountId);
-                    pstmt.setString(2, orderRequest.getStockCode());
-                    pstmt.setString(3, orderRequest.getStockName());
-                    pstmt.setString(4, orderRequest.getOrderType());
-                    pstmt.setInt(5, orderRequest.getQuantity());
-                    pstmt.setInt(6, orderRequest.getTargetPrice());
-
-                    int result = pstmt.executeUpdate();
-                    if (result == 1) {
-                        return ResponseEntity.ok(
-                                String.format("주문이 성공적으로 접수되었습니다. [%s] %s %d주 @ %d원",
-                                        orderRequest.getOrderType(),
-                                        orderRequest.getStockCode(),
-                                        orderRequest.getQuantity(),
-                                        orderRequest.getTargetPrice())
-                        );
-                    } else {
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("주문 저장에 실패했습니다.");
-                    }
-                }
-            } catch (Exception e) {
-                log.error("DB 주문 저장/잔고 차감 오류: {}", e.getMessage());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("주문 저장 또는 잔고 차감 중 오류가 발생했습니다: " + e.getMessage());
-            }
-        } else {
-            // 매도 주문일 경우 보유 주식 차감
-            try (Connection conn = DriverManager.getConnection(
-                    ConfigManager.get("jdbc.url"),
-                    ConfigManager.get("jdbc.username"),
-                    ConfigManager.get("jdbc.password"))) {
-
-                // 1. 보유 주식 수량 조회
-                String selectHoldingSql = "SELECT quantity FROM holdings WHERE account_id = ? AND stock_code = ?";
-                int holdingQuantity = 0;
-                try (PreparedStatement selectStmt = conn.prepareStatement(selectHoldingSql)) {
-                    selectStmt.setInt(1, accountId);
-                    selectStmt.setString(2, orderRequest.getStockCode());
-                    try (ResultSet rs = selectStmt.executeQuery()) {
-                        if (rs.next()) {
-                            holdingQuantity = rs.getInt("quantity");
-                        } else {
-                            return ResponseEntity.badRequest().body("해당 종목의 보유 주식이 없습니다.");
-                        }
-                    }
-                }
-
-                // 2. 보유 주식 수량 부족 시 에러 반환
-                if (holdingQuantity < orderRequest.getQuantity()) {
-                    return ResponseEntity.badRequest().body("보유 주식 수량이 부족합니다.");
-                }
-
-                // 3. 보유 주식 수량 차감
-                String updateHoldingSql = "UPDATE holdings SET quantity = quantity - ? WHERE account_id = ? AND stock_code = ?";
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateHoldingSql)) {
-                    updateStmt.setInt(1, orderRequest.getQuantity());
-                    updateStmt.setInt(2, accountId);
-                    updateStmt.setString(3, orderRequest.getStockCode());
-                    int updateResult = updateStmt.executeUpdate();
-                    if (updateResult != 1) {
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("보유 주식 차감에 실패했습니다.");
-                    }
-                }
-
-                // 4. 주문 저장
-                String sql = "INSERT INTO pending_orders " +
-                        "(account_id, stock_code, stock_name, order_type, quantity, target_price, created_at) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)";
-
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setInt(1, accountId);
-                    pstmt.setString(2, orderRequest.getStockCode());
-                    pstmt.setString(3, orderRequest.getStockName());
-                    pstmt.setString(4, orderRequest.getOrderType());
-                    pstmt.setInt(5, orderRequest.getQuantity());
-                    pstmt.setInt(6, orderRequest.getTargetPrice());
-
-                    int result = pstmt.executeUpdate();
-                    if (result == 1) {
-                        return ResponseEntity.ok(
-                                String.format("주문이 성공적으로 접수되었습니다. [%s] %s %d주 @ %d원",
-                                        orderRequest.getOrderType(),
-                                        orderRequest.getStockCode(),
-                                        orderRequest.getQuantity(),
-                                        orderRequest.getTargetPrice())
-                        );
-                    } else {
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("주문 저장에 실패했습니다.");
-                    }
-                }
-            } catch (Exception e) {
-                log.error("DB 주문 저장/보유 주식 차감 오류: {}", e.getMessage());
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body("주문 저장 또는 보유 주식 차감 중 오류가 발생했습니다: " + e.getMessage());
-            }
+                    .body("주문 저장 또는 보유 주식 차감 중 오류가 발생했습니다: " + e.getMessage());
         }
     }
 
@@ -536,62 +343,13 @@ public class StockController {
         if (loginUser == null) {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
-        Integer userId = loginUser.getId();
-
-        // 2. userId로 accountId 조회 (user_accounts 테이블에서)
-        Integer accountId = null;
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-
-            String findAccountSql = "SELECT account_id FROM user_accounts WHERE user_id = ?";
-            try (PreparedStatement findStmt = conn.prepareStatement(findAccountSql)) {
-                findStmt.setInt(1, userId);
-                try (ResultSet rs = findStmt.executeQuery()) {
-                    if (rs.next()) {
-                        accountId = rs.getInt("account_id");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("계좌 ID 조회 오류: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("계좌 ID 조회 중 오류가 발생했습니다: " + e.getMessage());
-        }
-
-        if (accountId == null || accountId <= 0) {
-            return ResponseEntity.badRequest().body("계좌 정보가 존재하지 않습니다.");
-        }
 
-        // 3. 주문 내역 조회
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-
-            String sql = "SELECT order_id, account_id, stock_code, stock_name, order_type, quantity, target_price, created_at " +
-                    "FROM pending_orders WHERE account_id = ? ORDER BY created_at DESC";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, accountId);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    java.util.List<org.scoula.domain.mocktrading.PendingOrderDto> orders = new java.util.ArrayList<>();
-                    while (rs.next()) {
-                        org.scoula.domain.mocktrading.PendingOrderDto dto = new org.scoula.domain.mocktrading.PendingOrderDto();
-                        dto.setOrderId(rs.getInt("order_id"));
-                        dto.setAccountId(rs.getInt("account_id"));
-                        dto.setStockCode(rs.getString("stock_code"));
-                        dto.setStockName(rs.getString("stock_name"));
-                        dto.setOrderType(rs.getString("order_type"));
-                        dto.setQuantity(rs.getInt("quantity"));
-                        dto.setTargetPrice(rs.getInt("target_price"));
-                        dto.setCreatedAt(rs.getTimestamp("created_at"));
-                        orders.add(dto);
-                    }
-                    return ResponseEntity.ok(orders);
-                }
-            }
+        // 2. 계좌 조회 후 주문 내역 조회
+        try {
+            Integer accountId = orderService.findAccountId(loginUser.getId());
+            return ResponseEntity.ok(orderService.getPendingOrders(accountId));
+        } catch (OrderException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         } catch (Exception e) {
             log.error("주문 내역 조회 오류: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -611,100 +369,17 @@ public class StockController {
         if (loginUser == null) {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
-        Integer userId = loginUser.getId();
 
         if (orderIds == null || orderIds.isEmpty()) {
             return ResponseEntity.badRequest().body("주문 ID 목록이 비어 있습니다.");
         }
 
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-
-            // 2. 주문 정보 조회 및 본인 계좌 확인
-            String selectSql = "SELECT order_id, account_id, quantity, target_price, order_type, stock_code FROM pending_orders WHERE order_id IN (" +
-                    orderIds.stream().map(id -> "?").collect(java.util.stream.Collectors.joining(",")) + ")";
-            java.util.Map<Integer, java.util.Map<String, Object>> orderInfoMap = new java.util.HashMap<>();
-            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
-                for (int i = 0; i < orderIds.size(); i++) {
-                    selectStmt.setInt(i + 1, orderIds.get(i));
-                }
-                try (ResultSet rs = selectStmt.executeQuery()) {
-                    while (rs.next()) {
-                        int orderId = rs.getInt("order_id");
-                        java.util.Map<String, Object> info = new java.util.HashMap<>();
-                        info.put("account_id", rs.getInt("account_id"));
-                        info.put("quantity", rs.getInt("quantity"));
-                        info.put("target_price", rs.getInt("target_price"));
-                        info.put("order_type", rs.getString("order_type"));
-                        info.put("stock_code", rs.getString("stock_code"));
-                        orderInfoMap.put(orderId, info);
-                    }
-                }
-            }
-
-            if (orderInfoMap.size() != orderIds.size()) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("일부 주문을 찾을 수 없습니다.");
-            }
-
-            // 3. 본인 계좌의 주문만 취소 가능
-            for (java.util.Map.Entry<Integer, java.util.Map<String, Object>> entry : orderInfoMap.entrySet()) {
-                int accountId = (int) entry.getValue().get("account_id");
-                String checkAccountSql = "SELECT user_id FROM user_accounts WHERE account_id = ?";
-                try (PreparedStatement checkStmt = conn.prepareStatement(checkAccountSql)) {
-                    checkStmt.setInt(1, accountId);
-                    try (ResultSet rs = checkStmt.executeQuery()) {
-                        if (!rs.next() || rs.getInt("user_id") != userId) {
-                            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                                    .body("본인 계좌의 주문만 취소할 수 있습니다. (orderId: " + entry.getKey() + ")");
-                        }
-                    }
-                }
-            }
-
-            // 4. 주문 삭제
-            String deleteSql = "DELETE FROM pending_orders WHERE order_id IN (" +
-                    orderIds.stream().map(id -> "?").collect(java.util.stream.Collectors.joining(",")) + ")";
-            try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                for (int i = 0; i < orderIds.size(); i++) {
-                    deleteStmt.setInt(i + 1, orderIds.get(i));
-                }
-                int deleted = deleteStmt.executeUpdate();
-                if (deleted != orderIds.size()) {
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body("일부 주문 삭제에 실패했습니다.");
-                }
-            }
-
-            // 5. 주문 복구 처리 (매수: 잔고, 매도: 보유주식)
-            for (java.util.Map<String, Object> info : orderInfoMap.values()) {
-                int accountId = (int) info.get("account_id");
-                int quantity = (int) info.get("quantity");
-                int targetPrice = (int) info.get("target_price");
-                String orderType = (String) info.get("order_type");
-                String stockCode = (String) info.get("stock_code");
-
-                if ("BUY".equalsIgnoreCase(orderType)) {
-                    long refundAmount = (long) quantity * targetPrice;
-                    String updateBalanceSql = "UPDATE user_accounts SET current_balance = current_balance + ? WHERE account_id = ?";
-                    try (PreparedStatement updateStmt = conn.prepareStatement(updateBalanceSql)) {
-                        updateStmt.setLong(1, refundAmount);
-                        updateStmt.setInt(2, accountId);
-                        updateStmt.executeUpdate();
-                    }
-                } else if ("SELL".equalsIgnoreCase(orderType)) {
-                    String updateHoldingSql = "UPDATE holdings SET quantity = quantity + ? WHERE account_id = ? AND stock_code = ?";
-                    try (PreparedStatement updateStmt = conn.prepareStatement(updateHoldingSql)) {
-                        updateStmt.setInt(1, quantity);
-                        updateStmt.setInt(2, accountId);
-                        updateStmt.setString(3, stockCode);
-                        updateStmt.executeUpdate();
-                    }
-                }
-            }
-
+        // 2. 본인 주문 확인 + 삭제 + 잔고/보유 주식 복구 (한 트랜잭션)
+        try {
+            orderService.cancelOrders(loginUser.getId(), orderIds);
             return ResponseEntity.ok("주문이 성공적으로 일괄 취소되었습니다.");
+        } catch (OrderException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         } catch (Exception e) {
             log.error("일괄 주문 취소/복구 오류: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -720,56 +395,14 @@ public class StockController {
         if (loginUser == null) {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
-        Integer userId = loginUser.getId();
 
-        // 2. userId로 accountId 조회
-        Integer accountId = null;
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-            String findAccountSql = "SELECT account_id FROM user_accounts WHERE user_id = ?";
-            try (PreparedStatement findStmt = conn.prepareStatement(findAccountSql)) {
-                findStmt.setInt(1, userId);
-                try (ResultSet rs = findStmt.executeQuery()) {
-                    if (rs.next()) {
-                        accountId = rs.getInt("account_id");
-                    }
-                }
-            }
-        } catch (Exception e) {
-            log.error("계좌 ID 조회 오류: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("계좌 ID 조회 중 오류가 발생했습니다: " + e.getMessage());
-        }
-        if (accountId == null) {
-            return ResponseEntity.badRequest().body("계좌 정보가 존재하지 않습니다.");
-        }
-
-        // 3. 거래 대기 목록 조회
-        List<org.scoula.domain.mocktrading.PendingOrderDto> pendingOrders = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-            String sql = "SELECT order_id, account_id, stock_code, stock_name, order_type, quantity, target_price, created_at FROM pending_orders WHERE account_id = ? ORDER BY created_at DESC";
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, accountId);
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        org.scoula.domain.mocktrading.PendingOrderDto dto = new org.scoula.domain.mocktrading.PendingOrderDto();
-                        dto.setOrderId(rs.getInt("order_id"));
-                        dto.setAccountId(rs.getInt("account_id"));
-                        dto.setStockCode(rs.getString("stock_code"));
-                        dto.setStockName(rs.getString("stock_name"));
-                        dto.setOrderType(rs.getString("order_type"));
-                        dto.setQuantity(rs.getInt("quantity"));
-                        dto.setTargetPrice(rs.getInt("target_price"));
-                        dto.setCreatedAt(rs.getTimestamp("created_at"));
-                        pendingOrders.add(dto);
-                    }
-                }
-            }
+        // 2. 계좌 조회 + 거래 대기 목록 조회
+        List<org.scoula.domain.mocktrading.PendingOrderDto> pendingOrders;
+        try {
+            Integer accountId = orderService.findAccountId(loginUser.getId());
+            pendingOrders = orderService.getPendingOrders(accountId);
+        } catch (OrderException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         } catch (Exception e) {
             log.error("거래 대기 목록 조회 오류: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -779,238 +412,10 @@ public class StockController {
             return ResponseEntity.ok("체결 가능한 대기 주문이 없습니다.");
         }
 
-        // 4. 종목코드 추출 및 분봉 데이터 조회
-        Set<String> stockCodes = pendingOrders.stream()
-                .map(org.scoula.domain.mocktrading.PendingOrderDto::getStockCode)
-                .collect(Collectors.toSet());
-
-        System.out.println("추출된 종목코드: " + stockCodes);
-
-        // 분봉 데이터 batch 조회 (RestTemplate 직접 생성)
-        String chartApiUrl = "http://localhost:8080/api/chart/minute/batch";
-        ObjectMapper mapper = new ObjectMapper();
-        List<String> codeList = new ArrayList<>(stockCodes);
-        JsonNode chartResponse;
+        // 3. 종목별 분봉 조회 후 주문별 체결 여부 판별 및 처리 (체결 반영은 한 트랜잭션)
+        List<Map<String, Object>> executedTransactions;
         try {
-            org.springframework.web.client.RestTemplate restTemplate = new org.springframework.web.client.RestTemplate();
-            chartResponse = restTemplate.postForObject(chartApiUrl, codeList, JsonNode.class);
-        } catch (Exception e) {
-            log.error("분봉 데이터 조회 오류: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("분봉 데이터 조회 중 오류가 발생했습니다: " + e.getMessage());
-        }
-
-        // 종목별 분봉 데이터 매핑
-        Map<String, JsonNode> stockChartMap = new HashMap<>();
-        if (chartResponse != null && chartResponse.isArray()) {
-            for (JsonNode stockNode : chartResponse) {
-                String code = stockNode.get("stock_code").asText();
-                stockChartMap.put(code, stockNode.get("data"));
-            }
-        }
-        
-        // stockChartMap까지 생성 확인 완료
-
-        // 5. 각 주문별 체결 여부 판별 및 처리
-
-        // 체결된 거래내역을 담을 리스트
-        List<Map<String, Object>> executedTransactions = new ArrayList<>();
-
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-            conn.setAutoCommit(false); // 트랜잭션
-
-            for (org.scoula.domain.mocktrading.PendingOrderDto order : pendingOrders) {
-                JsonNode minuteData = stockChartMap.get(order.getStockCode());
-                if (minuteData == null || !minuteData.isArray()) continue;
-
-                long createdAt = order.getCreatedAt() != null ? order.getCreatedAt().getTime() : 0L;
-                long now = System.currentTimeMillis();
-
-                boolean isBuy = "BUY".equalsIgnoreCase(order.getOrderType());
-                boolean isSell = "SELL".equalsIgnoreCase(order.getOrderType());
-                boolean executed = false;
-
-                // 최고가/최저가 및 해당 분봉 시간 저장용
-                Integer maxHigh = null, minLow = null;
-                String maxHighTime = null, minLowTime = null;
-
-                for (JsonNode candle : minuteData) {
-                    String today = new java.text.SimpleDateFormat("yyyyMMdd").format(new java.util.Date());
-                    String stckCntgHour = candle.get("stck_cntg_hour").asText(); // "093000"
-                    String dateTimeStr = today + stckCntgHour; // "20250806093000"
-                    java.text.SimpleDateFormat sdf = new java.text.SimpleDateFormat("yyyyMMddHHmmss");
-                    long candleTime = sdf.parse(dateTimeStr).getTime();
-
-                    if (candleTime < createdAt || candleTime > now) continue;
-
-                    int high = candle.get("stck_hgpr").asInt();
-                    int low = candle.get("stck_lwpr").asInt();
-
-                    // 최고가/최저가 및 시간 갱신
-                    if (maxHigh == null || high > maxHigh) {
-                        maxHigh = high;
-                        maxHighTime = stckCntgHour;
-                    }
-                    if (minLow == null || low < minLow) {
-                        minLow = low;
-                        minLowTime = stckCntgHour;
-                    }
-
-                    if (isBuy && order.getTargetPrice() >= low) {
-                        executed = true;
-                        break;
-                    }
-                    if (isSell && order.getTargetPrice() <= high) {
-                        executed = true;
-                        break;
-                    }
-                }
-
-                // 구간 최고가/최저가 결과 출력
-                System.out.println(
-                        String.format(
-                                "[%s] 주문ID: %d, createdAt~now 구간 최고가: %s (%s), 최저가: %s (%s)",
-                                order.getStockCode(),
-                                order.getOrderId(),
-                                maxHigh != null ? maxHigh : "N/A",
-                                maxHighTime != null ? maxHighTime : "N/A",
-                                minLow != null ? minLow : "N/A",
-                                minLowTime != null ? minLowTime : "N/A"
-                        )
-                );
-
-                if (!executed) continue;
-
-                // 6. 체결 처리 (holdings/transactions/pending_orders)
-                if (isBuy) {
-                    // holdings upsert
-                    String selectHoldingSql = "SELECT holding_id, quantity, average_price, total_cost FROM holdings WHERE account_id = ? AND stock_code = ?";
-                    Integer holdingId = null;
-                    int prevQuantity = 0;
-                    long prevTotalCost = 0;
-                    int prevAveragePrice = 0;
-                    try (PreparedStatement selectStmt = conn.prepareStatement(selectHoldingSql)) {
-                        selectStmt.setInt(1, order.getAccountId());
-                        selectStmt.setString(2, order.getStockCode());
-                        try (ResultSet rs = selectStmt.executeQuery()) {
-                            if (rs.next()) {
-                                holdingId = rs.getInt("holding_id");
-                                prevQuantity = rs.getInt("quantity");
-                                prevTotalCost = rs.getLong("total_cost");
-                                prevAveragePrice = rs.getInt("average_price");
-                            }
-                        }
-                    }
-                    int newQuantity = prevQuantity + order.getQuantity();
-                    long newTotalCost = prevTotalCost + (long) order.getQuantity() * order.getTargetPrice();
-                    int newAveragePrice = (int) (newTotalCost / newQuantity);
-
-                    if (holdingId != null) {
-                        // update
-                        String updateSql = "UPDATE holdings SET quantity = ?, average_price = ?, total_cost = ?, updated_at = CURRENT_TIMESTAMP WHERE holding_id = ?";
-                        try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                            updateStmt.setInt(1, newQuantity);
-                            updateStmt.setInt(2, newAveragePrice);
-                            updateStmt.setLong(3, newTotalCost);
-                            updateStmt.setInt(4, holdingId);
-                            updateStmt.executeUpdate();
-                        }
-                    } else {
-                        // insert
-                        String insertSql = "INSERT INTO holdings (account_id, stock_code, stock_name, quantity, average_price, total_cost, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
-                        try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
-                            insertStmt.setInt(1, order.getAccountId());
-                            insertStmt.setString(2, order.getStockCode());
-                            insertStmt.setString(3, order.getStockName());
-                            insertStmt.setInt(4, order.getQuantity());
-                            insertStmt.setInt(5, order.getTargetPrice());
-                            insertStmt.setLong(6, (long) order.getQuantity() * order.getTargetPrice());
-                            insertStmt.executeUpdate();
-                        }
-                    }
-                } else if (isSell) {
-                    // holdings update or delete
-                    String selectHoldingSql = "SELECT holding_id, quantity FROM holdings WHERE account_id = ? AND stock_code = ?";
-                    Integer holdingId = null;
-                    int prevQuantity = 0;
-                    try (PreparedStatement selectStmt = conn.prepareStatement(selectHoldingSql)) {
-                        selectStmt.setInt(1, order.getAccountId());
-                        selectStmt.setString(2, order.getStockCode());
-                        try (ResultSet rs = selectStmt.executeQuery()) {
-                            if (rs.next()) {
-                                holdingId = rs.getInt("holding_id");
-                                prevQuantity = rs.getInt("quantity");
-                            }
-                        }
-                    }
-                    int newQuantity = prevQuantity - order.getQuantity();
-                    if (newQuantity > 0) {
-                        String updateSql = "UPDATE holdings SET quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE holding_id = ?";
-                        try (PreparedStatement updateStmt = conn.prepareStatement(updateSql)) {
-                            updateStmt.setInt(1, newQuantity);
-                            updateStmt.setInt(2, holdingId);
-                            updateStmt.executeUpdate();
-                        }
-                    } else {
-                        String deleteSql = "DELETE FROM holdings WHERE holding_id = ?";
-                        try (PreparedStatement deleteStmt = conn.prepareStatement(deleteSql)) {
-                            deleteStmt.setInt(1, holdingId);
-                            deleteStmt.executeUpdate();
-                        }
-                    }
-                }
-
-                if (!executed) continue;
-
-                // 거래내역 정보 객체 생성 (insert 전에 만들어둠)
-                Map<String, Object> transInfo = new LinkedHashMap<>();
-                transInfo.put("accountId", order.getAccountId());
-                transInfo.put("stockCode", order.getStockCode());
-                transInfo.put("stockName", order.getStockName());
-                transInfo.put("transactionType", order.getOrderType());
-                transInfo.put("orderType", "LIMIT");
-                transInfo.put("quantity", order.getQuantity());
-                transInfo.put("price", order.getTargetPrice());
-                transInfo.put("totalAmount", (long) order.getQuantity() * order.getTargetPrice());
-                transInfo.put("orderCreatedAt", order.getCreatedAt());
-                transInfo.put("orderPrice", order.getTargetPrice());
-
-                // transactions insert
-                String insertTransSql = "INSERT INTO transactions (account_id, stock_code, stock_name, transaction_type, order_type, quantity, price, total_amount, executed_at, order_created_at, order_price) VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, ?, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(insertTransSql, java.sql.Statement.RETURN_GENERATED_KEYS)) { // ← 여기!
-                    pstmt.setInt(1, order.getAccountId());
-                    pstmt.setString(2, order.getStockCode());
-                    pstmt.setString(3, order.getStockName());
-                    pstmt.setString(4, order.getOrderType());
-                    pstmt.setString(5, "LIMIT");
-                    pstmt.setInt(6, order.getQuantity());
-                    pstmt.setInt(7, order.getTargetPrice());
-                    pstmt.setLong(8, (long) order.getQuantity() * order.getTargetPrice());
-                    pstmt.setTimestamp(9, order.getCreatedAt());
-                    pstmt.setInt(10, order.getTargetPrice());
-                    pstmt.executeUpdate();
-
-                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                        if (generatedKeys.next()) {
-                            transInfo.put("transactionId", generatedKeys.getInt(1));
-                        }
-                    }
-                }
-
-                // pending_orders delete
-                String deleteOrderSql = "DELETE FROM pending_orders WHERE order_id = ?";
-                try (PreparedStatement deleteStmt = conn.prepareStatement(deleteOrderSql)) {
-                    deleteStmt.setInt(1, order.getOrderId());
-                    deleteStmt.executeUpdate();
-                }
-
-                // 리스트에 추가
-                executedTransactions.add(transInfo);
-            }
-            conn.commit();
+            executedTransactions = orderSettlementService.settle(pendingOrders);
         } catch (Exception e) {
             log.error("거래 체결 처리 오류: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1041,217 +446,17 @@ public class StockController {
         if (loginUser == null) {
             return ResponseEntity.status(401).body("로그인이 필요합니다.");
         }
-        Integer userId = loginUser.getId();
-
-        // 2. userId로 accountId 조회
-        Integer accountId = null;
-        try (Connection conn = DriverManager.getConnection(
-                ConfigManager.get("jdbc.url"),
-                ConfigManager.get("jdbc.username"),
-                ConfigManager.get("jdbc.password"))) {
-
-            String findAccountSql = "SELECT account_id FROM user_accounts WHERE user_id = ?";
-            try (PreparedStatement findStmt = conn.prepareStatement(findAccountSql)) {
-                findStmt.setInt(1, userId);
-                try (ResultSet rs = findStmt.executeQuery()) {
-                    if (rs.next()) {
-                        accountId = rs.getInt("account_id");
-                    }
-                }
-            }
-
-            if (accountId == null || accountId <= 0) {
-                return ResponseEntity.badRequest().body("계좌 정보가 존재하지 않습니다.");
-            }
-
-            // 3. 입력값 검증
-            if (marketOrderRequest.getQuantity() <= 0 ||
-                    marketOrderRequest.getMarketPrice() <= 0 ||
-                    marketOrderRequest.getStockCode() == null ||
-                    marketOrderRequest.getStockName() == null ||
-                    marketOrderRequest.getTransactionType() == null) {
-                return ResponseEntity.badRequest().body("잘못된 주문 정보입니다.");
-            }
-
-            long totalAmount = (long) marketOrderRequest.getQuantity() * marketOrderRequest.getMarketPrice();
 
-            // 4. 매수 주문일 경우 잔고 차감
-            if ("BUY".equalsIgnoreCase(marketOrderRequest.getTransactionType())) {
-                // 4-1. 현재 잔고 조회
-                String balanceSql = "SELECT current_balance FROM user_accounts WHERE account_id = ?";
-                try (PreparedStatement balanceStmt = conn.prepareStatement(balanceSql)) {
-                    balanceStmt.setInt(1, accountId);
-                    try (ResultSet rs = balanceStmt.executeQuery()) {
-                        if (rs.next()) {
-                            long balance = rs.getLong("current_balance");
-                            if (balance < totalAmount) {
-                                return ResponseEntity.badRequest().body("잔고가 부족합니다.");
-                            }
-                        } else {
-                            return ResponseEntity.badRequest().body("계좌 정보를 찾을 수 없습니다.");
-                        }
-                    }
-                }
-
-                // 4-2. 잔고 차감
-                String updateBalanceSql = "UPDATE user_accounts SET current_balance = current_balance - ? WHERE account_id = ?";
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateBalanceSql)) {
-                    updateStmt.setLong(1, totalAmount);
-                    updateStmt.setInt(2, accountId);
-                    int updateResult = updateStmt.executeUpdate();
-                    if (updateResult != 1) {
-                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                .body("잔고 차감에 실패했습니다.");
-                    }
-                }
-
-                // 5. 거래 정보 DB 저장
-                String sql = "INSERT INTO transactions " +
-                        "(account_id, stock_code, stock_name, transaction_type, order_type, quantity, price, total_amount, executed_at, order_created_at, order_price) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, ?)";
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setInt(1, accountId);
-                    pstmt.setString(2, marketOrderRequest.getStockCode());
-                    pstmt.setString(3, marketOrderRequest.getStockName());
-                    pstmt.setString(4, marketOrderRequest.getTransactionType());
-                    pstmt.setString(5, "MARKET"); // order_type 고정
-                    pstmt.setInt(6, marketOrderRequest.getQuantity());
-                    pstmt.setInt(7, marketOrderRequest.getMarketPrice());
-                    pstmt.setLong(8, totalAmount);
-                    pstmt.setNull(9, java.sql.Types.INTEGER); // order_price는 null
-                    pstmt.executeUpdate();
-                }
-
-                // 6. holdings 테이블 업데이트
-                String selectHoldingSql = "SELECT holding_id, quantity, average_price, total_cost FROM holdings WHERE account_id = ? AND stock_code = ?";
-                try (PreparedStatement selectStmt = conn.prepareStatement(selectHoldingSql)) {
-                    selectStmt.setInt(1, accountId);
-                    selectStmt.setString(2, marketOrderRequest.getStockCode());
-                    try (ResultSet rs = selectStmt.executeQuery()) {
-                        if (rs.next()) {
-                            // 기존 보유 종목: 수량, 총금액, 평균단가 업데이트
-                            int holdingId = rs.getInt("holding_id");
-                            int prevQuantity = rs.getInt("quantity");
-                            long prevTotalCost = rs.getLong("total_cost");
-                            int prevAveragePrice = rs.getInt("average_price");
-
-                            int newQuantity = prevQuantity + marketOrderRequest.getQuantity();
-                            long newTotalCost = prevTotalCost + totalAmount;
-                            int newAveragePrice = (int) (newTotalCost / newQuantity);
-
-                            String updateHoldingSql = "UPDATE holdings SET quantity = ?, average_price = ?, total_cost = ?, updated_at = CURRENT_TIMESTAMP, current_price = NULL, current_value = NULL, profit_loss = NULL, profit_rate = NULL WHERE holding_id = ?";
-                            try (PreparedStatement updateStmt = conn.prepareStatement(updateHoldingSql)) {
-                                updateStmt.setInt(1, newQuantity);
-                                updateStmt.setInt(2, newAveragePrice);
-                                updateStmt.setLong(3, newTotalCost);
-                                updateStmt.setInt(4, holdingId);
-                                updateStmt.executeUpdate();
-                            }
-                        } else {
-                            // 최초 구매: 새 row 추가
-                            String insertHoldingSql = "INSERT INTO holdings " +
-                                    "(account_id, stock_code, stock_name, quantity, average_price, total_cost, created_at, updated_at, current_price, current_value, profit_loss, profit_rate) " +
-                                    "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, NULL, NULL, NULL, NULL)";
-                            try (PreparedStatement insertStmt = conn.prepareStatement(insertHoldingSql)) {
-                                insertStmt.setInt(1, accountId);
-                                insertStmt.setString(2, marketOrderRequest.getStockCode());
-                                insertStmt.setString(3, marketOrderRequest.getStockName());
-                                insertStmt.setInt(4, marketOrderRequest.getQuantity());
-                                insertStmt.setInt(5, marketOrderRequest.getMarketPrice());
-                                insertStmt.setLong(6, totalAmount);
-                                insertStmt.executeUpdate();
-                            }
-                        }
-                    }
-                }
-
-                return ResponseEntity.ok("시장가 매수 주문이 성공적으로 체결되었습니다.");
-            } else if ("SELL".equalsIgnoreCase(marketOrderRequest.getTransactionType())) {
-                // 1. holdings에서 보유 주식 수량 조회
-                String selectHoldingSql = "SELECT holding_id, quantity, average_price, total_cost FROM holdings WHERE account_id = ? AND stock_code = ?";
-                try (PreparedStatement selectStmt = conn.prepareStatement(selectHoldingSql)) {
-                    selectStmt.setInt(1, accountId);
-                    selectStmt.setString(2, marketOrderRequest.getStockCode());
-                    try (ResultSet rs = selectStmt.executeQuery()) {
-                        if (rs.next()) {
-                            int holdingId = rs.getInt("holding_id");
-                            int prevQuantity = rs.getInt("quantity");
-                            long prevTotalCost = rs.getLong("total_cost");
-                            int prevAveragePrice = rs.getInt("average_price");
-
-                            // 2. 판매 수량이 보유 수량보다 많으면 에러
-                            if (prevQuantity < marketOrderRequest.getQuantity()) {
-                                return ResponseEntity.badRequest().body("보유 주식 수량이 부족합니다.");
-                            }
-
-                            int newQuantity = prevQuantity - marketOrderRequest.getQuantity();
-                            long sellAmount = totalAmount;
-                            long newTotalCost = prevTotalCost - (long) prevAveragePrice * marketOrderRequest.getQuantity();
-
-                            // 3. 잔고 증가
-                            String updateBalanceSql = "UPDATE user_accounts SET current_balance = current_balance + ? WHERE account_id = ?";
-                            try (PreparedStatement updateStmt = conn.prepareStatement(updateBalanceSql)) {
-                                updateStmt.setLong(1, sellAmount);
-                                updateStmt.setInt(2, accountId);
-                                int updateResult = updateStmt.executeUpdate();
-                                if (updateResult != 1) {
-                                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                                            .body("잔고 복구에 실패했습니다.");
-                                }
-                            }
-
-                            // 4. 거래 정보 DB 저장
-                            String sql = "INSERT INTO transactions " +
-                                    "(account_id, stock_code, stock_name, transaction_type, order_type, quantity, price, total_amount, executed_at, order_created_at, order_price) " +
-                                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, ?)";
-                            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                                pstmt.setInt(1, accountId);
-                                pstmt.setString(2, marketOrderRequest.getStockCode());
-                                pstmt.setString(3, marketOrderRequest.getStockName());
-                                pstmt.setString(4, marketOrderRequest.getTransactionType());
-                                pstmt.setString(5, "MARKET");
-                                pstmt.setInt(6, marketOrderRequest.getQuantity());
-                                pstmt.setInt(7, marketOrderRequest.getMarketPrice());
-                                pstmt.setLong(8, sellAmount);
-                                pstmt.setNull(9, java.sql.Types.INTEGER);
-                                pstmt.executeUpdate();
-                            }
-
-                            if (newQuantity > 0) {
-                                // 5. holdings 업데이트 (수량/총금액/평균단가)
-                                String updateHoldingSql = "UPDATE holdings SET quantity = ?, total_cost = ?, updated_at = CURRENT_TIMESTAMP, current_price = NULL, current_value = NULL, profit_loss = NULL, profit_rate = NULL WHERE holding_id = ?";
-                                try (PreparedStatement updateStmt = conn.prepareStatement(updateHoldingSql)) {
-                                    updateStmt.setInt(1, newQuantity);
-                                    updateStmt.setLong(2, newTotalCost);
-                                    updateStmt.setInt(3, holdingId);
-                                    updateStmt.executeUpdate();
-                                }
-                            } else {
-                                // 6. holdings에서 row 삭제 (수량 0)
-                                String deleteHoldingSql = "DELETE FROM holdings WHERE holding_id = ?";
-                                try (PreparedStatement deleteStmt = conn.prepareStatement(deleteHoldingSql)) {
-                                    deleteStmt.setInt(1, holdingId);
-                                    deleteStmt.executeUpdate();
-                                }
-                            }
-
-                            return ResponseEntity.ok("시장가 매도 주문이 성공적으로 체결되었습니다.");
-                        } else {
-                            return ResponseEntity.badRequest().body("해당 종목의 보유 주식이 없습니다.");
-                        }
-                    }
-                } catch (Exception e) {
-                    log.error("시장가 매도 주문 처리 오류: {}", e.getMessage());
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body("시장가 매도 주문 처리 중 오류가 발생했습니다: " + e.getMessage());
-                }
-            } else {
-                return ResponseEntity.badRequest().body("알 수 없는 거래 유형입니다.");
-            }
+        // 2. 계좌 조회 후 즉시 체결 (잔고/거래내역/보유 주식 반영을 한 트랜잭션으로)
+        try {
+            Integer accountId = orderService.findAccountId(loginUser.getId());
+            return ResponseEntity.ok(orderService.placeMarketOrder(accountId, marketOrderRequest));
+        } catch (OrderException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         } catch (Exception e) {
             log.error("시장가 주문 저장/잔고/보유주식 반영 오류: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("시장가 주문 처리 중 오류가 발생했습니다: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
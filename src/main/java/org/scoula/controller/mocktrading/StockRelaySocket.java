@@ -1,5 +1,6 @@
 package org.scoula.controller.mocktrading;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.scoula.domain.mocktrading.RealtimeBidsAndAsksDto;
@@ -7,49 +8,178 @@ import org.scoula.domain.mocktrading.RealtimeStockDto;
 
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
-import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 // 프론트엔드 중계 역할
-@ServerEndpoint("/ws/stock")
+// - 클라이언트 메시지: {"type":"subscribe","stockCode":"005930"} / {"type":"unsubscribe","stockCode":"005930"}
+// - 틱마다 JSON은 종목(topic)당 한 번만 만들고, 세션별 우편함(RelaySession)으로 전송
+// - /ws/stock?batch=true 로 접속하면 체결을 BATCH_INTERVAL_MS마다 {"type":"executions","data":[...]}로 묶어 받음
+// - /ws/stock?protocol=compact 로 접속하면 호가를 숫자 배열 스냅샷 + 단계별 델타로 받음 (CompactOrderBook 참고)
+//   {"type":"snapshot","stockCode":"005930"} 을 보내면 다음 호가를 전체 스냅샷으로 다시 받음
+// - 종목을 지정하지 않은 기존 프론트는 같은 HTTP 세션이 트레이딩 화면에서 시청 중인 종목만 받음
+// - 로그인한 세션으로 접속하면 비동기 주문 처리 결과를 {"type":"orderStatus",...}로 받음
+@ServerEndpoint(value = "/ws/stock", configurator = LoginUserConfigurator.class)
 public class StockRelaySocket {
 
-    private static final Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    // 세션 ID -> 세션별 전송 큐
+    private static final Map<String, RelaySession> sessions = new ConcurrentHashMap<>();
+
+    // 종목코드 -> 구독 세션
+    private static final Map<String, Set<RelaySession>> topics = new ConcurrentHashMap<>();
+
+    // HTTP 세션 ID -> 시청 중인 종목 (RealtimeSubscriptionService가 갱신, 기존 프론트 세션 전송 대상)
+    private static final Map<String, String> watchedStocks = new ConcurrentHashMap<>();
+
+    // 접속 시 구독할 종목코드 (쿼리 파라미터)
+    private static final String WATCH_KEY = "stockCode";
+
+    // 체결 배치 전송 여부 (쿼리 파라미터)
+    private static final String BATCH_KEY = "batch";
+
+    // 전송 프로토콜 (쿼리 파라미터, 기본 json)
+    private static final String PROTOCOL_KEY = "protocol";
+    private static final String COMPACT_PROTOCOL = "compact";
+
+    // 체결 배치 전송 주기
+    private static final long BATCH_INTERVAL_MS = 100;
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "ws-relay-flush");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static {
+        flusher.scheduleAtFixedRate(() -> {
+            for (RelaySession relay : sessions.values()) {
+                if (relay.isBatchExecutions()) {
+                    relay.flush();
+                }
+            }
+        }, BATCH_INTERVAL_MS, BATCH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
     @OnOpen
     public void onOpen(Session session) {
-        sessions.add(session);
+        List<String> batch = session.getRequestParameterMap().get(BATCH_KEY);
+        List<String> protocol = session.getRequestParameterMap().get(PROTOCOL_KEY);
+        RelaySession relay = new RelaySession(session,
+                batch != null && batch.contains("true"),
+                protocol != null && protocol.contains(COMPACT_PROTOCOL),
+                (Integer) session.getUserProperties().get(LoginUserConfigurator.USER_ID),
+                (String) session.getUserProperties().get(LoginUserConfigurator.HTTP_SESSION_ID));
+        sessions.put(session.getId(), relay);
+
+        // /ws/stock?stockCode=005930 으로 접속하면 해당 종목 데이터만 수신
+        List<String> codes = session.getRequestParameterMap().get(WATCH_KEY);
+        if (codes != null && !codes.isEmpty()) {
+            subscribe(relay, codes.get(0));
+        }
         System.out.println("📡 프론트 WebSocket 연결됨: " + session.getId());
     }
 
     @OnClose
     public void onClose(Session session) {
-        sessions.remove(session);
-        System.out.println("❌ 프론트 WebSocket 연결 종료됨: " + session.getId());
+        RelaySession relay = sessions.remove(session.getId());
+        if (relay != null) {
+            for (String stockCode : new ArrayList<>(relay.getTopics())) {
+                unsubscribe(relay, stockCode);
+            }
+            System.out.println("❌ 프론트 WebSocket 연결 종료됨: " + session.getId()
+                    + " (전송 " + relay.getSentCount() + "건, 유실 " + relay.getDroppedCount()
+                    + "건, 호가 병합 " + relay.getConflatedCount() + "건)");
+        }
+    }
+
+    @OnError
+    public void onError(Session session, Throwable error) {
+        System.err.println("⚠ 프론트 WebSocket 오류 (" + session.getId() + "): " + error.getMessage());
     }
 
     @OnMessage
     public void onMessage(String msg, Session session) {
-        System.out.println("📩 클라이언트 메시지 수신: " + msg);
+        RelaySession relay = sessions.get(session.getId());
+        if (relay == null) {
+            return;
+        }
+
+        try {
+            JsonNode request = mapper.readTree(msg);
+            String type = request.path("type").asText();
+
+            List<String> stockCodes = new ArrayList<>();
+            if (request.hasNonNull("stockCode")) {
+                stockCodes.add(request.get("stockCode").asText());
+            }
+            for (JsonNode code : request.path("stockCodes")) {
+                stockCodes.add(code.asText());
+            }
+
+            switch (type) {
+                case "subscribe":
+                    for (String stockCode : stockCodes) {
+                        subscribe(relay, stockCode);
+                    }
+                    break;
+                case "unsubscribe":
+                    for (String stockCode : stockCodes) {
+                        unsubscribe(relay, stockCode);
+                    }
+                    break;
+                case "snapshot":
+                    for (String stockCode : stockCodes) {
+                        relay.resetBook(stockCode);
+                    }
+                    return;
+                default:
+                    System.out.println("📩 클라이언트 메시지 수신: " + msg);
+                    return;
+            }
+
+            ObjectNode ack = mapper.createObjectNode();
+            ack.put("type", "subscriptions");
+            ack.putPOJO("data", relay.getTopics());
+            relay.offerControl(mapper.writeValueAsString(ack));
+
+        } catch (Exception e) {
+            System.out.println("📩 클라이언트 메시지 수신: " + msg);
+        }
+    }
+
+    private static void subscribe(RelaySession relay, String stockCode) {
+        if (stockCode == null || stockCode.isEmpty()) {
+            return;
+        }
+        relay.markSubscribed();
+        relay.getTopics().add(stockCode);
+        topics.computeIfAbsent(stockCode, k -> ConcurrentHashMap.newKeySet()).add(relay);
+    }
+
+    private static void unsubscribe(RelaySession relay, String stockCode) {
+        relay.getTopics().remove(stockCode);
+        relay.resetBook(stockCode);
+        topics.computeIfPresent(stockCode, (k, subscribers) -> {
+            subscribers.remove(relay);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
     }
 
     // 호가 데이터 브로드캐스트 메서드 추가
     public static void broadcastBidsAndAsks(RealtimeBidsAndAsksDto dto) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode response = mapper.createObjectNode();
-            response.put("type", "bidsAndAsks");  // 데이터 타입 구분
-            response.set("data", mapper.valueToTree(dto));
-
-            String jsonMessage = mapper.writeValueAsString(response);
-
-            for (Session session : sessions) {
-                if (session.isOpen()) {
-                    session.getBasicRemote().sendText(jsonMessage);
-                }
+            RelayMessage message = new RelayMessage(RelayMessage.BIDS_AND_ASKS, dto.getStockCode(), dto, mapper);
+            for (RelaySession relay : subscribersOf(dto.getStockCode())) {
+                relay.offerOrderBook(message);
             }
         } catch (Exception e) {
             System.err.println("❌ 호가 브로드캐스트 오류: " + e.getMessage());
@@ -59,20 +189,88 @@ public class StockRelaySocket {
     // 기존 체결 데이터도 타입 구분 추가
     public static void broadcast(RealtimeStockDto dto) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            ObjectNode response = mapper.createObjectNode();
-            response.put("type", "execution");  // 데이터 타입 구분
-            response.set("data", mapper.valueToTree(dto));
+            RelayMessage message = new RelayMessage(RelayMessage.EXECUTION, dto.getStockCode(), dto, mapper);
+            for (RelaySession relay : subscribersOf(dto.getStockCode())) {
+                relay.offerExecution(message);
+            }
+        } catch (Exception e) {
+            System.err.println("❌ 체결 브로드캐스트 오류: " + e.getMessage());
+        }
+    }
 
-            String jsonMessage = mapper.writeValueAsString(response);
+    // HTTP 세션의 시청 종목 변경 (null이면 시청 종료)
+    public static void setWatchedStock(String httpSessionId, String stockCode) {
+        if (httpSessionId == null) {
+            return;
+        }
+        if (stockCode == null) {
+            watchedStocks.remove(httpSessionId);
+        } else {
+            watchedStocks.put(httpSessionId, stockCode);
+        }
+    }
 
-            for (Session session : sessions) {
-                if (session.isOpen()) {
-                    session.getBasicRemote().sendText(jsonMessage);
+    // 주문 처리 결과를 해당 사용자의 세션에만 전송
+    public static void sendOrderStatus(Integer userId, Map<String, Object> status) {
+        if (userId == null) {
+            return;
+        }
+        try {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("type", "orderStatus");
+            message.putAll(status);
+            String text = mapper.writeValueAsString(message);
+            for (RelaySession relay : sessions.values()) {
+                if (userId.equals(relay.getUserId())) {
+                    relay.offerControl(text);
                 }
             }
         } catch (Exception e) {
-            System.err.println("❌ 체결 브로드캐스트 오류: " + e.getMessage());
+            System.err.println("❌ 주문 상태 전송 오류: " + e.getMessage());
         }
     }
+
+    /**
+     * 세션별 전송/유실/병합 카운터 (모니터링용)
+     */
+    public static List<Map<String, Object>> getSessionStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (RelaySession relay : sessions.values()) {
+            Map<String, Object> stat = new LinkedHashMap<>();
+            stat.put("sessionId", relay.getId());
+            stat.put("topics", relay.isLegacy() ? legacyTopic(relay) : relay.getTopics());
+            stat.put("batch", relay.isBatchExecutions());
+            stat.put("compact", relay.isCompact());
+            stat.put("login", relay.getUserId() != null);
+            stat.put("sent", relay.getSentCount());
+            stat.put("dropped", relay.getDroppedCount());
+            stat.put("conflated", relay.getConflatedCount());
+            stats.add(stat);
+        }
+        return stats;
+    }
+
+    // 종목 구독 세션 + 종목을 지정하지 않은 기존 클라이언트 중 HTTP 세션이 이 종목을 시청 중인 세션
+    private static List<RelaySession> subscribersOf(String stockCode) {
+        List<RelaySession> targets = new ArrayList<>();
+        Set<RelaySession> subscribers = topics.get(stockCode);
+        if (subscribers != null) {
+            targets.addAll(subscribers);
+        }
+        if (!watchedStocks.containsValue(stockCode)) {
+            return targets;
+        }
+        for (RelaySession relay : sessions.values()) {
+            if (relay.isLegacy() && stockCode.equals(legacyTopic(relay))) {
+                targets.add(relay);
+            }
+        }
+        return targets;
+    }
+
+    // 기존 프론트 세션이 받을 종목 (시청 중이 아니면 null)
+    private static String legacyTopic(RelaySession relay) {
+        String httpSessionId = relay.getHttpSessionId();
+        return httpSessionId != null ? watchedStocks.get(httpSessionId) : null;
+    }
 }
@@ -0,0 +1,34 @@
+package org.scoula.controller.mocktrading;
+
+import lombok.extern.log4j.Log4j2;
+import org.scoula.service.mocktrading.RealtimeSubscriptionService;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+
+/**
+ * HTTP 세션 만료 시 해당 시청자의 실시간 구독 반납
+ * - 탭을 닫는 등 DELETE /api/stock/trading 을 호출하지 못한 시청자의 구독이 남지 않도록
+ */
+@Log4j2
+public class TradingSessionListener implements HttpSessionListener {
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent event) {
+        WebApplicationContext context =
+                WebApplicationContextUtils.getWebApplicationContext(event.getSession().getServletContext());
+        if (context == null) {
+            return;
+        }
+        try {
+            if (context.getBean(RealtimeSubscriptionService.class).unwatch(event.getSession().getId())) {
+                log.debug("세션 만료로 실시간 구독 반납 - 세션: {}", event.getSession().getId());
+            }
+        } catch (Exception e) {
+            // 애플리케이션 종료 중이면 컨텍스트가 이미 닫혔을 수 있음
+            log.debug("세션 만료 구독 반납 생략: {}", e.getMessage());
+        }
+    }
+}
@@ -15,6 +15,8 @@ public class MarketOrderRequestDto {
     private String stockName;
     @ApiModelProperty(value = "시장가", example = "250000")
     private int marketPrice;
+    @ApiModelProperty(value = "클라이언트 주문 키 (재시도 시 같은 값이면 한 번만 처리, 최대 64자)", example = "7a2e4c1b-0d9f-4b36-8e57-3c6f1a2b9d04")
+    private String clientOrderId;
 
     // getters/setters
     public MarketOrderRequestDto() {}
@@ -53,4 +55,11 @@ public class MarketOrderRequestDto {
     public void setMarketPrice(int marketPrice) {
         this.marketPrice = marketPrice;
     }
+
+    public String getClientOrderId() {
+        return clientOrderId;
+    }
+    public void setClientOrderId(String clientOrderId) {
+        this.clientOrderId = clientOrderId;
+    }
 }
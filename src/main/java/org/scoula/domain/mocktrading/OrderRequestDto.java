@@ -24,6 +24,9 @@ public class OrderRequestDto {
     @ApiModelProperty(value = "목표 가격", example = "75000")
     private int targetPrice;
 
+    @ApiModelProperty(value = "클라이언트 주문 키 (재시도 시 같은 값이면 한 번만 처리, 최대 64자)", example = "c1f3a9e0-5b7d-4e2a-9c61-2f0d8b7e4a13")
+    private String clientOrderId;
+
     public OrderRequestDto() {}
 
     public String getStockCode() { return stockCode; }
@@ -40,4 +43,7 @@ public class OrderRequestDto {
 
     public int getTargetPrice() { return targetPrice; }
     public void setTargetPrice(int targetPrice) { this.targetPrice = targetPrice; }
+
+    public String getClientOrderId() { return clientOrderId; }
+    public void setClientOrderId(String clientOrderId) { this.clientOrderId = clientOrderId; }
 }
\ No newline at end of file
@@ -1,7 +1,18 @@
 package org.scoula.domain.mocktrading;
 
+import org.scoula.util.mocktrading.RealtimeFrameParser;
+
 public class RealtimeBidsAndAsksDto {
 
+    // 프레임 필드 번호 (호가 단계 n의 가격/잔량 = 시작 번호 + n - 1)
+    public static final int BUSINESS_HOUR_FIELD = 1;
+    public static final int ASK_PRICE_FIELD = 3;
+    public static final int BID_PRICE_FIELD = 13;
+    public static final int ASK_QTY_FIELD = 23;
+    public static final int BID_QTY_FIELD = 33;
+    public static final int TOTAL_ASK_QTY_FIELD = 43;
+    public static final int TOTAL_BID_QTY_FIELD = 44;
+
     // 기본 정보
     private String stockCode;           // MKSC_SHRN_ISCD - 유가증권 단축 종목코드
     private String businessHour;        // BSOP_HOUR - 영업 시간
@@ -76,12 +87,37 @@ public class RealtimeBidsAndAsksDto {
     private String overtimeAskChange;   // OVTM_TOTAL_ASKP_ICDC - 시간외 총 매도호가 증감
     private String overtimeBidChange;   // OVTM_TOTAL_BIDP_ICDC - 시간외 총 매수호가 증감
 
+    // 실시간 프레임 원본 (지연 변환용, 직렬화 대상 아님)
+    private RealtimeFrameParser.Fields frame;
+
     // ✅ 기본 생성자
     public RealtimeBidsAndAsksDto() {}
 
+    /**
+     * 실시간 프레임에서 DTO 생성 - 필드 문자열은 getter를 부를 때(직렬화 등) 만듦
+     * 구독자가 없으면 문자열을 만들지 않고, 숫자가 필요한 곳은 frame()에서 바로 읽음
+     */
+    public static RealtimeBidsAndAsksDto from(RealtimeFrameParser.Fields frame) {
+        RealtimeBidsAndAsksDto dto = new RealtimeBidsAndAsksDto();
+        dto.frame = frame;
+        return dto;
+    }
+
+    /**
+     * 원본 프레임 필드 (프레임에서 만들지 않았으면 null)
+     */
+    public RealtimeFrameParser.Fields frame() {
+        return frame;
+    }
+
+    // 직접 설정한 값이 우선, 없으면 프레임의 index번째 필드 (프레임에 없는 필드는 null)
+    private String field(String value, int index) {
+        return value != null || frame == null ? value : frame.getString(index);
+    }
+
     // ✅ 편의 메서드들
     public String getHourCodeDescription() {
-        switch (hourCode) {
+        switch (getHourCode()) {
             case "0": return "장중";
             case "A": return "장후예상";
             case "B": return "장전예상";
@@ -92,7 +128,7 @@ public class RealtimeBidsAndAsksDto {
     }
 
     public String getExpectedSignDescription() {
-        switch (expectedSign) {
+        switch (getExpectedSign()) {
             case "1": return "상한";
             case "2": return "상승";
             case "3": return "보합";
@@ -103,146 +139,146 @@ public class RealtimeBidsAndAsksDto {
     }
 
     // ✅ Getter/Setter 메서드들 (모든 필드)
-    public String getStockCode() { return stockCode; }
+    public String getStockCode() { return field(stockCode, 0); }
     public void setStockCode(String stockCode) { this.stockCode = stockCode; }
 
-    public String getBusinessHour() { return businessHour; }
+    public String getBusinessHour() { return field(businessHour, 1); }
     public void setBusinessHour(String businessHour) { this.businessHour = businessHour; }
 
-    public String getHourCode() { return hourCode; }
+    public String getHourCode() { return field(hourCode, 2); }
     public void setHourCode(String hourCode) { this.hourCode = hourCode; }
 
     // 매도호가 getter/setter
-    public String getAskPrice1() { return askPrice1; }
+    public String getAskPrice1() { return field(askPrice1, 3); }
     public void setAskPrice1(String askPrice1) { this.askPrice1 = askPrice1; }
-    public String getAskPrice2() { return askPrice2; }
+    public String getAskPrice2() { return field(askPrice2, 4); }
     public void setAskPrice2(String askPrice2) { this.askPrice2 = askPrice2; }
-    public String getAskPrice3() { return askPrice3; }
+    public String getAskPrice3() { return field(askPrice3, 5); }
     public void setAskPrice3(String askPrice3) { this.askPrice3 = askPrice3; }
-    public String getAskPrice4() { return askPrice4; }
+    public String getAskPrice4() { return field(askPrice4, 6); }
     public void setAskPrice4(String askPrice4) { this.askPrice4 = askPrice4; }
-    public String getAskPrice5() { return askPrice5; }
+    public String getAskPrice5() { return field(askPrice5, 7); }
     public void setAskPrice5(String askPrice5) { this.askPrice5 = askPrice5; }
-    public String getAskPrice6() { return askPrice6; }
+    public String getAskPrice6() { return field(askPrice6, 8); }
     public void setAskPrice6(String askPrice6) { this.askPrice6 = askPrice6; }
-    public String getAskPrice7() { return askPrice7; }
+    public String getAskPrice7() { return field(askPrice7, 9); }
     public void setAskPrice7(String askPrice7) { this.askPrice7 = askPrice7; }
-    public String getAskPrice8() { return askPrice8; }
+    public String getAskPrice8() { return field(askPrice8, 10); }
     public void setAskPrice8(String askPrice8) { this.askPrice8 = askPrice8; }
-    public String getAskPrice9() { return askPrice9; }
+    public String getAskPrice9() { return field(askPrice9, 11); }
     public void setAskPrice9(String askPrice9) { this.askPrice9 = askPrice9; }
-    public String getAskPrice10() { return askPrice10; }
+    public String getAskPrice10() { return field(askPrice10, 12); }
     public void setAskPrice10(String askPrice10) { this.askPrice10 = askPrice10; }
 
     // 매수호가 getter/setter
-    public String getBidPrice1() { return bidPrice1; }
+    public String getBidPrice1() { return field(bidPrice1, 13); }
     public void setBidPrice1(String bidPrice1) { this.bidPrice1 = bidPrice1; }
-    public String getBidPrice2() { return bidPrice2; }
+    public String getBidPrice2() { return field(bidPrice2, 14); }
     public void setBidPrice2(String bidPrice2) { this.bidPrice2 = bidPrice2; }
-    public String getBidPrice3() { return bidPrice3; }
+    public String getBidPrice3() { return field(bidPrice3, 15); }
     public void setBidPrice3(String bidPrice3) { this.bidPrice3 = bidPrice3; }
-    public String getBidPrice4() { return bidPrice4; }
+    public String getBidPrice4() { return field(bidPrice4, 16); }
     public void setBidPrice4(String bidPrice4) { this.bidPrice4 = bidPrice4; }
-    public String getBidPrice5() { return bidPrice5; }
+    public String getBidPrice5() { return field(bidPrice5, 17); }
     public void setBidPrice5(String bidPrice5) { this.bidPrice5 = bidPrice5; }
-    public String getBidPrice6() { return bidPrice6; }
+    public String getBidPrice6() { return field(bidPrice6, 18); }
     public void setBidPrice6(String bidPrice6) { this.bidPrice6 = bidPrice6; }
-    public String getBidPrice7() { return bidPrice7; }
+    public String getBidPrice7() { return field(bidPrice7, 19); }
     public void setBidPrice7(String bidPrice7) { this.bidPrice7 = bidPrice7; }
-    public String getBidPrice8() { return bidPrice8; }
+    public String getBidPrice8() { return field(bidPrice8, 20); }
     public void setBidPrice8(String bidPrice8) { this.bidPrice8 = bidPrice8; }
-    public String getBidPrice9() { return bidPrice9; }
+    public String getBidPrice9() { return field(bidPrice9, 21); }
     public void setBidPrice9(String bidPrice9) { this.bidPrice9 = bidPrice9; }
-    public String getBidPrice10() { return bidPrice10; }
+    public String getBidPrice10() { return field(bidPrice10, 22); }
     public void setBidPrice10(String bidPrice10) { this.bidPrice10 = bidPrice10; }
 
     // 매도잔량 getter/setter
-    public String getAskQty1() { return askQty1; }
+    public String getAskQty1() { return field(askQty1, 23); }
     public void setAskQty1(String askQty1) { this.askQty1 = askQty1; }
-    public String getAskQty2() { return askQty2; }
+    public String getAskQty2() { return field(askQty2, 24); }
     public void setAskQty2(String askQty2) { this.askQty2 = askQty2; }
-    public String getAskQty3() { return askQty3; }
+    public String getAskQty3() { return field(askQty3, 25); }
     public void setAskQty3(String askQty3) { this.askQty3 = askQty3; }
-    public String getAskQty4() { return askQty4; }
+    public String getAskQty4() { return field(askQty4, 26); }
     public void setAskQty4(String askQty4) { this.askQty4 = askQty4; }
-    public String getAskQty5() { return askQty5; }
+    public String getAskQty5() { return field(askQty5, 27); }
     public void setAskQty5(String askQty5) { this.askQty5 = askQty5; }
-    public String getAskQty6() { return askQty6; }
+    public String getAskQty6() { return field(askQty6, 28); }
     public void setAskQty6(String askQty6) { this.askQty6 = askQty6; }
-    public String getAskQty7() { return askQty7; }
+    public String getAskQty7() { return field(askQty7, 29); }
     public void setAskQty7(String askQty7) { this.askQty7 = askQty7; }
-    public String getAskQty8() { return askQty8; }
+    public String getAskQty8() { return field(askQty8, 30); }
     public void setAskQty8(String askQty8) { this.askQty8 = askQty8; }
-    public String getAskQty9() { return askQty9; }
+    public String getAskQty9() { return field(askQty9, 31); }
     public void setAskQty9(String askQty9) { this.askQty9 = askQty9; }
-    public String getAskQty10() { return askQty10; }
+    public String getAskQty10() { return field(askQty10, 32); }
     public void setAskQty10(String askQty10) { this.askQty10 = askQty10; }
 
     // 매수잔량 getter/setter
-    public String getBidQty1() { return bidQty1; }
+    public String getBidQty1() { return field(bidQty1, 33); }
     public void setBidQty1(String bidQty1) { this.bidQty1 = bidQty1; }
-    public String getBidQty2() { return bidQty2; }
+    public String getBidQty2() { return field(bidQty2, 34); }
     public void setBidQty2(String bidQty2) { this.bidQty2 = bidQty2; }
-    public String getBidQty3() { return bidQty3; }
+    public String getBidQty3() { return field(bidQty3, 35); }
     public void setBidQty3(String bidQty3) { this.bidQty3 = bidQty3; }
-    public String getBidQty4() { return bidQty4; }
+    public String getBidQty4() { return field(bidQty4, 36); }
     public void setBidQty4(String bidQty4) { this.bidQty4 = bidQty4; }
-    public String getBidQty5() { return bidQty5; }
+    public String getBidQty5() { return field(bidQty5, 37); }
     public void setBidQty5(String bidQty5) { this.bidQty5 = bidQty5; }
-    public String getBidQty6() { return bidQty6; }
+    public String getBidQty6() { return field(bidQty6, 38); }
     public void setBidQty6(String bidQty6) { this.bidQty6 = bidQty6; }
-    public String getBidQty7() { return bidQty7; }
+    public String getBidQty7() { return field(bidQty7, 39); }
     public void setBidQty7(String bidQty7) { this.bidQty7 = bidQty7; }
-    public String getBidQty8() { return bidQty8; }
+    public String getBidQty8() { return field(bidQty8, 40); }
     public void setBidQty8(String bidQty8) { this.bidQty8 = bidQty8; }
-    public String getBidQty9() { return bidQty9; }
+    public String getBidQty9() { return field(bidQty9, 41); }
     public void setBidQty9(String bidQty9) { this.bidQty9 = bidQty9; }
-    public String getBidQty10() { return bidQty10; }
+    public String getBidQty10() { return field(bidQty10, 42); }
     public void setBidQty10(String bidQty10) { this.bidQty10 = bidQty10; }
 
     // 나머지 필드들 getter/setter
-    public String getTotalAskQty() { return totalAskQty; }
+    public String getTotalAskQty() { return field(totalAskQty, 43); }
     public void setTotalAskQty(String totalAskQty) { this.totalAskQty = totalAskQty; }
 
-    public String getTotalBidQty() { return totalBidQty; }
+    public String getTotalBidQty() { return field(totalBidQty, 44); }
     public void setTotalBidQty(String totalBidQty) { this.totalBidQty = totalBidQty; }
 
-    public String getOvertimeAskQty() { return overtimeAskQty; }
+    public String getOvertimeAskQty() { return field(overtimeAskQty, 45); }
     public void setOvertimeAskQty(String overtimeAskQty) { this.overtimeAskQty = overtimeAskQty; }
 
-    public String getOvertimeBidQty() { return overtimeBidQty; }
+    public String getOvertimeBidQty() { return field(overtimeBidQty, 46); }
     public void setOvertimeBidQty(String overtimeBidQty) { this.overtimeBidQty = overtimeBidQty; }
 
-    public String getExpectedPrice() { return expectedPrice; }
+    public String getExpectedPrice() { return field(expectedPrice, 47); }
     public void setExpectedPrice(String expectedPrice) { this.expectedPrice = expectedPrice; }
 
-    public String getExpectedQty() { return expectedQty; }
+    public String getExpectedQty() { return field(expectedQty, 48); }
     public void setExpectedQty(String expectedQty) { this.expectedQty = expectedQty; }
 
-    public String getExpectedVolume() { return expectedVolume; }
+    public String getExpectedVolume() { return field(expectedVolume, 49); }
     public void setExpectedVolume(String expectedVolume) { this.expectedVolume = expectedVolume; }
 
-    public String getExpectedDiff() { return expectedDiff; }
+    public String getExpectedDiff() { return field(expectedDiff, 50); }
     public void setExpectedDiff(String expectedDiff) { this.expectedDiff = expectedDiff; }
 
-    public String getExpectedSign() { return expectedSign; }
+    public String getExpectedSign() { return field(expectedSign, 51); }
     public void setExpectedSign(String expectedSign) { this.expectedSign = expectedSign; }
 
-    public String getExpectedRate() { return expectedRate; }
+    public String getExpectedRate() { return field(expectedRate, 52); }
     public void setExpectedRate(String expectedRate) { this.expectedRate = expectedRate; }
 
-    public String getAccumulatedVolume() { return accumulatedVolume; }
+    public String getAccumulatedVolume() { return field(accumulatedVolume, 53); }
     public void setAccumulatedVolume(String accumulatedVolume) { this.accumulatedVolume = accumulatedVolume; }
 
-    public String getAskQtyChange() { return askQtyChange; }
+    public String getAskQtyChange() { return field(askQtyChange, 54); }
     public void setAskQtyChange(String askQtyChange) { this.askQtyChange = askQtyChange; }
 
-    public String getBidQtyChange() { return bidQtyChange; }
+    public String getBidQtyChange() { return field(bidQtyChange, 55); }
     public void setBidQtyChange(String bidQtyChange) { this.bidQtyChange = bidQtyChange; }
 
-    public String getOvertimeAskChange() { return overtimeAskChange; }
+    public String getOvertimeAskChange() { return field(overtimeAskChange, 56); }
     public void setOvertimeAskChange(String overtimeAskChange) { this.overtimeAskChange = overtimeAskChange; }
 
-    public String getOvertimeBidChange() { return overtimeBidChange; }
+    public String getOvertimeBidChange() { return field(overtimeBidChange, 57); }
     public void setOvertimeBidChange(String overtimeBidChange) { this.overtimeBidChange = overtimeBidChange; }
 }
\ No newline at end of file
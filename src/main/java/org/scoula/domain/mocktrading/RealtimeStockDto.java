@@ -1,5 +1,7 @@
 package org.scoula.domain.mocktrading;
 
+import org.scoula.util.mocktrading.RealtimeFrameParser;
+
 public class RealtimeStockDto {
 
     // 기본 정보
@@ -64,9 +66,34 @@ public class RealtimeStockDto {
     private String marketCloseCode;     // MRKT_TRTM_CLS_CODE - 임의종료구분코드
     private String viStandardPrice;     // VL_STND_PRC - 정적VI발동기준가 (수정: VI_STND_PRC → VL_STND_PRC)
 
+    // 실시간 프레임 원본 (지연 변환용, 직렬화 대상 아님)
+    private RealtimeFrameParser.Fields frame;
+
     // ✅ 기본 생성자
     public RealtimeStockDto() {}
 
+    /**
+     * 실시간 프레임에서 DTO 생성 - 필드 문자열은 getter를 부를 때(직렬화 등) 만듦
+     * 구독자가 없으면 문자열을 만들지 않고, 숫자가 필요한 곳은 frame()에서 바로 읽음
+     */
+    public static RealtimeStockDto from(RealtimeFrameParser.Fields frame) {
+        RealtimeStockDto dto = new RealtimeStockDto();
+        dto.frame = frame;
+        return dto;
+    }
+
+    /**
+     * 원본 프레임 필드 (프레임에서 만들지 않았으면 null)
+     */
+    public RealtimeFrameParser.Fields frame() {
+        return frame;
+    }
+
+    // 직접 설정한 값이 우선, 없으면 프레임의 index번째 필드 (프레임에 없는 필드는 null)
+    private String field(String value, int index) {
+        return value != null || frame == null ? value : frame.getString(index);
+    }
+
     // ✅ 모든 필드 생성자
     public RealtimeStockDto(String stockCode, String contractTime, String currentPrice,
                             String prevDaySign, String prevDayDiff, String prevDayRate,
@@ -133,7 +160,7 @@ public class RealtimeStockDto {
 
     // ✅ 편의 메서드들
     public String getContractClassCodeDescription() {
-        switch (contractClassCode) {
+        switch (getContractClassCode()) {
             case "1": return "매수";
             case "3": return "장전";
             case "5": return "매도";
@@ -142,7 +169,7 @@ public class RealtimeStockDto {
     }
 
     public String getPrevDaySignDescription() {
-        switch (prevDaySign) {
+        switch (getPrevDaySign()) {
             case "1": return "상한";
             case "2": return "상승";
             case "3": return "보합";
@@ -153,52 +180,52 @@ public class RealtimeStockDto {
     }
 
     // ✅ Getter 메서드들 (모든 필드)
-    public String getStockCode() { return stockCode; }
-    public String getContractTime() { return contractTime; }
-    public String getCurrentPrice() { return currentPrice; }
-    public String getPrevDaySign() { return prevDaySign; }
-    public String getPrevDayDiff() { return prevDayDiff; }
-    public String getPrevDayRate() { return prevDayRate; }
-    public String getWeightedAvgPrice() { return weightedAvgPrice; }
-    public String getOpenPrice() { return openPrice; }
-    public String getHighPrice() { return highPrice; }
-    public String getLowPrice() { return lowPrice; }
-    public String getAskPrice1() { return askPrice1; }
-    public String getBidPrice1() { return bidPrice1; }
-    public String getContractVolume() { return contractVolume; }
-    public String getAccumulatedVolume() { return accumulatedVolume; }
-    public String getAccumulatedAmount() { return accumulatedAmount; }
-    public String getSellContractCount() { return sellContractCount; }
-    public String getBuyContractCount() { return buyContractCount; }
-    public String getNetBuyCount() { return netBuyCount; }
-    public String getContractIntensity() { return contractIntensity; }
-    public String getTotalSellVolume() { return totalSellVolume; }
-    public String getTotalBuyVolume() { return totalBuyVolume; }
-    public String getContractClassCode() { return contractClassCode; }
-    public String getBuyRate() { return buyRate; }
-    public String getVolumeRate() { return volumeRate; }
-    public String getOpenTime() { return openTime; }
-    public String getOpenVsCurrentSign() { return openVsCurrentSign; }
-    public String getOpenVsCurrentDiff() { return openVsCurrentDiff; }
-    public String getHighTime() { return highTime; }
-    public String getHighVsCurrentSign() { return highVsCurrentSign; }
-    public String getHighVsCurrentDiff() { return highVsCurrentDiff; }
-    public String getLowTime() { return lowTime; }
-    public String getLowVsCurrentSign() { return lowVsCurrentSign; }
-    public String getLowVsCurrentDiff() { return lowVsCurrentDiff; }
-    public String getBusinessDate() { return businessDate; }
-    public String getMarketOperationCode() { return marketOperationCode; }
-    public String getTradeHaltYn() { return tradeHaltYn; }
-    public String getAskRemainQty1() { return askRemainQty1; }
-    public String getBidRemainQty1() { return bidRemainQty1; }
-    public String getTotalAskRemainQty() { return totalAskRemainQty; }
-    public String getTotalBidRemainQty() { return totalBidRemainQty; }
-    public String getVolumeTurnoverRate() { return volumeTurnoverRate; }
-    public String getPrevSameTimeVolume() { return prevSameTimeVolume; }
-    public String getPrevSameTimeRate() { return prevSameTimeRate; }
-    public String getHourCode() { return hourCode; }
-    public String getMarketCloseCode() { return marketCloseCode; }
-    public String getViStandardPrice() { return viStandardPrice; }
+    public String getStockCode() { return field(stockCode, 0); }
+    public String getContractTime() { return field(contractTime, 1); }
+    public String getCurrentPrice() { return field(currentPrice, 2); }
+    public String getPrevDaySign() { return field(prevDaySign, 3); }
+    public String getPrevDayDiff() { return field(prevDayDiff, 4); }
+    public String getPrevDayRate() { return field(prevDayRate, 5); }
+    public String getWeightedAvgPrice() { return field(weightedAvgPrice, 6); }
+    public String getOpenPrice() { return field(openPrice, 7); }
+    public String getHighPrice() { return field(highPrice, 8); }
+    public String getLowPrice() { return field(lowPrice, 9); }
+    public String getAskPrice1() { return field(askPrice1, 10); }
+    public String getBidPrice1() { return field(bidPrice1, 11); }
+    public String getContractVolume() { return field(contractVolume, 12); }
+    public String getAccumulatedVolume() { return field(accumulatedVolume, 13); }
+    public String getAccumulatedAmount() { return field(accumulatedAmount, 14); }
+    public String getSellContractCount() { return field(sellContractCount, 15); }
+    public String getBuyContractCount() { return field(buyContractCount, 16); }
+    public String getNetBuyCount() { return field(netBuyCount, 17); }
+    public String getContractIntensity() { return field(contractIntensity, 18); }
+    public String getTotalSellVolume() { return field(totalSellVolume, 19); }
+    public String getTotalBuyVolume() { return field(totalBuyVolume, 20); }
+    public String getContractClassCode() { return field(contractClassCode, 21); }
+    public String getBuyRate() { return field(buyRate, 22); }
+    public String getVolumeRate() { return field(volumeRate, 23); }
+    public String getOpenTime() { return field(openTime, 24); }
+    public String getOpenVsCurrentSign() { return field(openVsCurrentSign, 25); }
+    public String getOpenVsCurrentDiff() { return field(openVsCurrentDiff, 26); }
+    public String getHighTime() { return field(highTime, 27); }
+    public String getHighVsCurrentSign() { return field(highVsCurrentSign, 28); }
+    public String getHighVsCurrentDiff() { return field(highVsCurrentDiff, 29); }
+    public String getLowTime() { return field(lowTime, 30); }
+    public String getLowVsCurrentSign() { return field(lowVsCurrentSign, 31); }
+    public String getLowVsCurrentDiff() { return field(lowVsCurrentDiff, 32); }
+    public String getBusinessDate() { return field(businessDate, 33); }
+    public String getMarketOperationCode() { return field(marketOperationCode, 34); }
+    public String getTradeHaltYn() { return field(tradeHaltYn, 35); }
+    public String getAskRemainQty1() { return field(askRemainQty1, 36); }
+    public String getBidRemainQty1() { return field(bidRemainQty1, 37); }
+    public String getTotalAskRemainQty() { return field(totalAskRemainQty, 38); }
+    public String getTotalBidRemainQty() { return field(totalBidRemainQty, 39); }
+    public String getVolumeTurnoverRate() { return field(volumeTurnoverRate, 40); }
+    public String getPrevSameTimeVolume() { return field(prevSameTimeVolume, 41); }
+    public String getPrevSameTimeRate() { return field(prevSameTimeRate, 42); }
+    public String getHourCode() { return field(hourCode, 43); }
+    public String getMarketCloseCode() { return field(marketCloseCode, 44); }
+    public String getViStandardPrice() { return field(viStandardPrice, 45); }
 
     // ✅ Setter 메서드들 (JSON 파싱용)
     public void setStockCode(String stockCode) { this.stockCode = stockCode; }
@@ -250,7 +277,7 @@ public class RealtimeStockDto {
 
     // ✅ 하위 호환성을 위한 deprecated 메서드들 (필요한 경우)
     @Deprecated
-    public String getContractType() { return contractClassCode; }
+    public String getContractType() { return field(contractClassCode, 21); }
 
     @Deprecated
     public void setContractType(String contractType) { this.contractClassCode = contractType; }
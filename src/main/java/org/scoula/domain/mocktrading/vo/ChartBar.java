@@ -0,0 +1,20 @@
+package org.scoula.domain.mocktrading.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 일/주/월/년봉 한 건 (KIS 응답 output2 행을 그대로 보관)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChartBar {
+    private String stockCode;   // 종목코드
+    private String periodCode;  // 기간코드 (D/W/M/Y)
+    private String barDate;     // 영업일자 stck_bsop_date (yyyyMMdd)
+    private String rowJson;     // output2 행 원본 JSON
+}
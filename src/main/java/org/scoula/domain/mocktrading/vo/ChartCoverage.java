@@ -0,0 +1,23 @@
+package org.scoula.domain.mocktrading.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 종목 + 기간코드별로 저장소에 빠짐없이 들어있는 확정 구간
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChartCoverage {
+    private String stockCode;   // 종목코드
+    private String periodCode;  // 기간코드 (D/W/M/Y)
+    private String fromDate;    // 구간 시작 (yyyyMMdd)
+    private String toDate;      // 구간 끝 (yyyyMMdd)
+    private Timestamp verifiedAt; // 구간을 처음부터 다시 받은 시각 (수정주가 반영 주기 판단)
+}
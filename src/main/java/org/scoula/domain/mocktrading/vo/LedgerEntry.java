@@ -0,0 +1,32 @@
+package org.scoula.domain.mocktrading.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 계좌 원장(write-ahead) 항목 - 체결 1건이 계좌에 주는 변화량
+ * DB 반영(user_accounts / holdings / transactions)은 나중에 묶어서 처리
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntry {
+    private Long ledgerId;              // 원장 ID
+    private Integer accountId;          // 계좌 ID
+    private String stockCode;           // 종목코드
+    private String stockName;           // 종목명
+    private String transactionType;     // 거래 타입 (BUY, SELL)
+    private String orderType;           // 주문 유형 (MARKET, LIMIT)
+    private Integer quantity;           // 체결 수량
+    private Integer price;              // 체결 가격
+    private Integer orderPrice;         // 주문 가격 (지정가 주문 시)
+    private Long cashDelta;             // 현금 증감
+    private Integer quantityDelta;      // 보유 수량 증감
+    private Long costDelta;             // 총 매수금액 증감
+    private Timestamp createdAt;        // 기록 시각 (체결 시각)
+}
@@ -0,0 +1,21 @@
+package org.scoula.domain.mocktrading.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 주문 검증용 최소 계좌 정보 (평가금액 재계산 없이 한 번에 조회)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderContext {
+    private Integer accountId;          // 계좌 ID
+    private Long currentBalance;        // 현금 잔고
+    private Integer holdingId;          // 해당 종목 보유 ID (미보유면 null)
+    private Integer holdingQuantity;    // 해당 종목 보유 수량
+    private Long holdingTotalCost;      // 해당 종목 총 매수금액
+}
@@ -0,0 +1,37 @@
+package org.scoula.domain.ranking;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 한 시점의 종목별 현재가 (평가용, 만든 뒤 바뀌지 않음)
+ * - 여러 계좌를 같은 가격으로 평가하도록 한 번 조회해 공유
+ */
+@Getter
+public final class PriceSnapshot {
+
+    private final Map<String, BigDecimal> prices;
+    private final long takenAt;
+    private final int apiCalls;     // 스냅샷을 만드는 데 쓴 REST 호출 수
+
+    public PriceSnapshot(Map<String, BigDecimal> prices, long takenAt, int apiCalls) {
+        this.prices = Collections.unmodifiableMap(new HashMap<>(prices));
+        this.takenAt = takenAt;
+        this.apiCalls = apiCalls;
+    }
+
+    /**
+     * 현재가 (조회하지 못한 종목은 0)
+     */
+    public BigDecimal priceOf(String stockCode) {
+        return prices.getOrDefault(stockCode, BigDecimal.ZERO);
+    }
+
+    public boolean contains(String stockCode) {
+        return prices.containsKey(stockCode);
+    }
+}
@@ -0,0 +1,27 @@
+package org.scoula.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 주문 처리 중 사용자에게 그대로 돌려줄 오류 (상태코드 + 메시지)
+ * - RuntimeException이므로 @Transactional 메서드에서 던지면 해당 주문의 변경 사항은 모두 롤백됨
+ */
+public class OrderException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+
+    public OrderException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public static OrderException badRequest(String message) {
+        return new OrderException(HttpStatus.BAD_REQUEST, message);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,45 @@
+package org.scoula.mapper.trading;
+
+import org.apache.ibatis.annotations.Param;
+import org.scoula.domain.mocktrading.vo.Holding;
+import org.scoula.domain.mocktrading.vo.LedgerEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 계좌 원장(account_ledger) 매퍼 - 메모리 계좌 상태의 변경 기록과 DB 반영
+ */
+public interface AccountLedgerMapper {
+
+    /**
+     * 원장 테이블 생성 (없을 때만)
+     */
+    void createLedgerTable();
+
+    /**
+     * 원장 항목 일괄 기록 (생성된 ledgerId 채움)
+     */
+    int insertEntries(List<LedgerEntry> entries);
+
+    /**
+     * 아직 반영되지 않은 원장 항목 (기록순, 최대 limit건)
+     */
+    List<LedgerEntry> selectUnappliedEntries(@Param("limit") int limit);
+
+    /**
+     * 지정한 계좌의 미반영 원장 항목 (기록순, 최대 limit건)
+     */
+    List<LedgerEntry> selectUnappliedEntriesByAccounts(@Param("accountIds") Collection<Integer> accountIds,
+                                                       @Param("limit") int limit);
+
+    /**
+     * 원장 항목 반영 완료 표시
+     */
+    int markApplied(@Param("ledgerIds") List<Long> ledgerIds);
+
+    /**
+     * 원장 항목의 계좌 + 종목 보유 내역 일괄 조회 (잠금)
+     */
+    List<Holding> selectHoldingsForEntries(@Param("entries") List<LedgerEntry> entries);
+}
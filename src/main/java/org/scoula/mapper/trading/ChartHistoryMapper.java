@@ -0,0 +1,46 @@
+package org.scoula.mapper.trading;
+
+import org.apache.ibatis.annotations.Param;
+import org.scoula.domain.mocktrading.vo.ChartBar;
+import org.scoula.domain.mocktrading.vo.ChartCoverage;
+
+import java.util.List;
+
+/**
+ * 일/주/월/년봉 이력 저장소 매퍼 (chart_history / chart_history_coverage)
+ */
+public interface ChartHistoryMapper {
+
+    /**
+     * 봉 테이블 생성 (없을 때만)
+     */
+    void createChartHistoryTable();
+
+    /**
+     * 확정 구간 테이블 생성 (없을 때만)
+     */
+    void createChartCoverageTable();
+
+    /**
+     * 기간 내 저장된 봉 (최신순)
+     */
+    List<ChartBar> selectBars(@Param("stockCode") String stockCode,
+                              @Param("periodCode") String periodCode,
+                              @Param("startDate") String startDate,
+                              @Param("endDate") String endDate);
+
+    /**
+     * 봉 일괄 저장 (같은 날짜는 덮어씀)
+     */
+    int upsertBars(@Param("bars") List<ChartBar> bars);
+
+    /**
+     * 확정 구간 조회 (없으면 null)
+     */
+    ChartCoverage selectCoverage(@Param("stockCode") String stockCode, @Param("periodCode") String periodCode);
+
+    /**
+     * 확정 구간 저장
+     */
+    int upsertCoverage(ChartCoverage coverage);
+}
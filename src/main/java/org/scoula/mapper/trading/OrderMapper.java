@@ -0,0 +1,148 @@
+package org.scoula.mapper.trading;
+
+import org.apache.ibatis.annotations.Param;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+import org.scoula.domain.mocktrading.vo.Holding;
+import org.scoula.domain.mocktrading.vo.OrderContext;
+import org.scoula.domain.mocktrading.vo.Transaction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 모의투자 주문(지정가 대기 / 시장가 / 체결 / 취소) 처리용 매퍼
+ */
+public interface OrderMapper {
+
+    /**
+     * 사용자 ID로 계좌 ID 조회
+     */
+    Integer selectAccountIdByUserId(@Param("userId") Integer userId);
+
+    /**
+     * 주문 검증용 계좌 ID + 현금 잔고 + 해당 종목 보유 내역 (단일 조회, 계좌가 없으면 null)
+     */
+    OrderContext selectOrderContext(@Param("accountId") Integer accountId, @Param("stockCode") String stockCode);
+
+    /**
+     * 계좌 현금 잔고 조회
+     */
+    Long selectBalance(@Param("accountId") Integer accountId);
+
+    /**
+     * 계좌 현금 잔고 증감
+     */
+    int addBalance(@Param("accountId") Integer accountId, @Param("amount") long amount);
+
+    /**
+     * 여러 계좌 현금 잔고 일괄 증감 (계좌 ID -> 증감액)
+     */
+    int addBalances(@Param("amounts") Map<Integer, Long> amounts);
+
+    /**
+     * 잔고가 충분할 때만 차감 (조건부 단일 UPDATE, 0이면 잔고 부족 또는 계좌 없음)
+     */
+    int reserveBalance(@Param("accountId") Integer accountId, @Param("amount") long amount);
+
+    /**
+     * 계좌 + 종목 보유 내역 조회 (수량 0 포함)
+     */
+    Holding selectHolding(@Param("accountId") Integer accountId, @Param("stockCode") String stockCode);
+
+    /**
+     * 보유 수량이 충분할 때만 차감 (조건부 단일 UPDATE, 0이면 수량 부족 또는 미보유)
+     */
+    int reserveHoldingQuantity(@Param("accountId") Integer accountId,
+                               @Param("stockCode") String stockCode,
+                               @Param("quantity") int quantity);
+
+    /**
+     * 여러 보유 종목 수량 일괄 증감 (accountId, stockCode, quantity=증감 수량)
+     */
+    int addHoldingQuantities(@Param("deltas") List<Holding> deltas);
+
+    /**
+     * 주문들의 계좌 + 종목에 해당하는 보유 내역 일괄 조회
+     */
+    List<Holding> selectHoldingsByOrders(@Param("orders") List<PendingOrderDto> orders);
+
+    /**
+     * 보유 종목 수량/평균단가/총매수금액 갱신
+     * averagePrice가 null이면 평균단가는 유지, resetValuation이면 평가 정보 초기화
+     */
+    int updateHoldingPosition(@Param("holdingId") Integer holdingId,
+                              @Param("quantity") int quantity,
+                              @Param("averagePrice") Integer averagePrice,
+                              @Param("totalCost") long totalCost,
+                              @Param("resetValuation") boolean resetValuation);
+
+    /**
+     * 여러 보유 종목 수량/평균단가/총매수금액 일괄 갱신 (holdingId 기준)
+     */
+    int updateHoldingPositions(@Param("holdings") List<Holding> holdings);
+
+    /**
+     * 보유 종목 일괄 추가
+     */
+    int insertHoldings(List<Holding> holdings);
+
+    /**
+     * 보유 종목 일괄 삭제
+     */
+    int deleteHoldings(@Param("holdingIds") List<Integer> holdingIds);
+
+    /**
+     * 지정가 대기 주문 저장
+     */
+    int insertPendingOrder(PendingOrderDto order);
+
+    /**
+     * 계좌의 대기 주문 목록 (최신순)
+     */
+    List<PendingOrderDto> selectPendingOrdersByAccount(@Param("accountId") Integer accountId);
+
+    /**
+     * 전체 대기 주문 (매칭 엔진 적재용)
+     */
+    List<PendingOrderDto> selectAllPendingOrders();
+
+    /**
+     * 주문 ID 목록으로 대기 주문 조회
+     */
+    List<PendingOrderDto> selectPendingOrdersByIds(@Param("orderIds") List<Integer> orderIds);
+
+    /**
+     * 다른 사용자 계좌의 주문 ID (본인 주문 확인용, user_accounts 조인)
+     */
+    List<Integer> selectForeignOrderIds(@Param("userId") Integer userId, @Param("orderIds") List<Integer> orderIds);
+
+    /**
+     * 아직 남아있는 대기 주문 ID를 잠금 조회 (체결 중복 방지)
+     */
+    List<Integer> selectPendingOrderIdsForUpdate(@Param("orderIds") List<Integer> orderIds);
+
+    /**
+     * 주어진 계좌 + 종목 중 매도 대기 주문이 남아있는 조합 (accountId, stockCode만 채움)
+     */
+    List<PendingOrderDto> selectPendingSellPositions(@Param("holdings") List<Holding> holdings);
+
+    /**
+     * 계좌 + 종목의 매도 대기 주문 수 (수량이 예약된 보유 종목 삭제 방지용)
+     */
+    int countPendingSellOrders(@Param("accountId") Integer accountId, @Param("stockCode") String stockCode);
+
+    /**
+     * 대기 주문 일괄 삭제
+     */
+    int deletePendingOrders(@Param("orderIds") List<Integer> orderIds);
+
+    /**
+     * 체결 거래내역 저장 (orderCreatedAt이 없으면 현재 시각)
+     */
+    int insertTransaction(Transaction transaction);
+
+    /**
+     * 체결 거래내역 일괄 저장 (생성된 transactionId 채움)
+     */
+    int insertTransactions(List<Transaction> transactions);
+}
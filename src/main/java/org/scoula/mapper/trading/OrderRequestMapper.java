@@ -0,0 +1,38 @@
+package org.scoula.mapper.trading;
+
+import org.apache.ibatis.annotations.Param;
+
+import java.sql.Timestamp;
+
+/**
+ * 클라이언트 주문 키(order_requests) 매퍼 - 재시도된 주문 요청의 중복 처리 방지
+ */
+public interface OrderRequestMapper {
+
+    /**
+     * 주문 키 테이블 생성 (없을 때만)
+     */
+    void createOrderRequestTable();
+
+    /**
+     * 주문 키 선점 (이미 있으면 0, 처리 중인 같은 키가 있으면 커밋/롤백까지 대기)
+     */
+    int insertOrderRequest(@Param("accountId") Integer accountId, @Param("clientOrderId") String clientOrderId);
+
+    /**
+     * 처리 결과 저장
+     */
+    int updateOrderRequestResult(@Param("accountId") Integer accountId,
+                                 @Param("clientOrderId") String clientOrderId,
+                                 @Param("result") String result);
+
+    /**
+     * 저장된 처리 결과 조회
+     */
+    String selectOrderRequestResult(@Param("accountId") Integer accountId, @Param("clientOrderId") String clientOrderId);
+
+    /**
+     * 보관 기간이 지난 주문 키 삭제
+     */
+    int deleteOrderRequestsBefore(@Param("before") Timestamp before);
+}
@@ -0,0 +1,642 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+import org.scoula.domain.mocktrading.vo.Holding;
+import org.scoula.domain.mocktrading.vo.LedgerEntry;
+import org.scoula.domain.mocktrading.vo.OrderContext;
+import org.scoula.domain.mocktrading.vo.Transaction;
+import org.scoula.exception.OrderException;
+import org.scoula.mapper.trading.AccountLedgerMapper;
+import org.scoula.mapper.trading.OrderMapper;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 계좌 원장 (write-ahead + write-behind)
+ * - 시장가 체결은 계좌 현금/보유 종목을 메모리에 올려두고 계좌별 락으로 처리 (OrderService.placeMarketOrder)
+ * - 체결마다 변화량(LedgerEntry)을 account_ledger 테이블에 기록(WAL)하고 커밋된 뒤에 응답
+ *   기록은 전용 스레드가 대기 중인 체결을 한 트랜잭션으로 묶어서 처리 (group commit, 대기열은 COMMIT_QUEUE_CAPACITY건까지)
+ * - user_accounts / holdings / transactions 반영은 100ms마다 원장에서 묶어서 처리
+ *   반영 전에 서버가 내려가도 account_ledger 의 미반영 항목을 다음 기동 시 재생하므로 DB가 최종 기준
+ * - 다른 경로가 DB를 직접 수정할 때는 exclusive()로 감싸서 실행
+ *   해당 계좌의 미반영 원장만 반영하고 메모리에서 내린 뒤, 그 트랜잭션이 끝날 때까지 원장 체결은 대기
+ *   (커밋 전 잔고를 원장이 다시 읽어 예약된 현금을 한 번 더 쓰지 않도록)
+ * - 기록/반영이 밀리면 OrderException(503)으로 거절
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class AccountLedger implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final int BATCH_SIZE = 500;
+    private static final int COMMIT_QUEUE_CAPACITY = 2_000;
+    private static final long COMMIT_TIMEOUT_MS = 5_000L;
+    private static final long APPLY_WAIT_MS = 3_000L;
+
+    public enum TradeResult {
+        FILLED, NO_ACCOUNT, INSUFFICIENT_BALANCE, INSUFFICIENT_HOLDING
+    }
+
+    private final AccountLedgerMapper ledgerMapper;
+    private final OrderMapper orderMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    // 계좌 ID -> 직접 수정 잠금
+    private final Map<Integer, Fence> fences = new ConcurrentHashMap<>();
+
+    // 계좌 ID -> 메모리 계좌 상태
+    private final Map<Integer, AccountState> accounts = new ConcurrentHashMap<>();
+
+    // 기록을 기다리는 체결 (꽉 차면 주문 거절)
+    private final ArrayBlockingQueue<PendingCommit> commitQueue = new ArrayBlockingQueue<>(COMMIT_QUEUE_CAPACITY);
+
+    // 계좌 ID -> 기록 중이거나 아직 반영되지 않은 원장 항목 수 (없는 계좌는 DB 확인 없이 바로 직접 수정)
+    private final Map<Integer, Integer> unappliedByAccount = new ConcurrentHashMap<>();
+
+    // 원장 반영은 한 번에 하나 (주기 반영과 계좌별 반영이 같은 항목을 두 번 반영하지 않도록)
+    private final ReentrantLock applyLock = new ReentrantLock();
+
+    private volatile boolean initialized = false;  // 테이블 준비 완료
+    private volatile boolean ready = false;        // 이전 실행의 미반영 항목까지 재생 완료
+
+    private TransactionTemplate newTransaction;
+    private Thread committer;
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (initialized || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            ledgerMapper.createLedgerTable();
+            initialized = true;
+            replay();
+        } catch (Exception e) {
+            log.error("계좌 원장 초기화 실패: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 시장가 체결 - 메모리 상태 갱신 후 원장 기록이 커밋되면 반환 (계좌/보유/거래내역 DB 반영은 비동기)
+     * @throws OrderException 원장 기록 대기열이 가득 찼거나 기록에 실패/지연 (503)
+     */
+    public TradeResult trade(Integer accountId, String stockCode, String stockName, String transactionType,
+                             String orderType, int quantity, int price, Integer orderPrice) {
+        while (true) {
+            // 다른 경로가 이 계좌를 직접 수정 중이면 트랜잭션이 끝날 때까지 대기
+            Fence fence = fenceOf(accountId);
+            fence.awaitOpen();
+
+            AccountState state = accounts.get(accountId);
+            if (state == null) {
+                AccountState loaded = loadAccount(accountId, stockCode);
+                if (loaded == null) {
+                    return TradeResult.NO_ACCOUNT;
+                }
+                AccountState raced = accounts.putIfAbsent(accountId, loaded);
+                state = raced != null ? raced : loaded;
+            }
+            synchronized (state) {
+                if (state.evicted) {
+                    continue; // 잠금으로 내려간 상태 - 다시 적재
+                }
+                if (!fence.isCurrent(state.generation)) {
+                    // 적재 중 또는 적재 이후 잠금이 걸림 - 커밋 전 잔고일 수 있으므로 버리고 다시 적재
+                    evict(accountId, state);
+                    continue;
+                }
+                Position position = state.positions.computeIfAbsent(stockCode, code -> loadPosition(accountId, code));
+                long amount = (long) quantity * price;
+
+                LedgerEntry.LedgerEntryBuilder entry = LedgerEntry.builder()
+                        .accountId(accountId)
+                        .stockCode(stockCode)
+                        .stockName(stockName)
+                        .transactionType(transactionType)
+                        .orderType(orderType)
+                        .quantity(quantity)
+                        .price(price)
+                        .orderPrice(orderPrice)
+                        .createdAt(new Timestamp(System.currentTimeMillis()));
+
+                if ("BUY".equals(transactionType)) {
+                    if (state.cash < amount) {
+                        return TradeResult.INSUFFICIENT_BALANCE;
+                    }
+                    state.cash -= amount;
+                    position.quantity += quantity;
+                    position.totalCost += amount;
+                    entry.cashDelta(-amount).quantityDelta(quantity).costDelta(amount);
+                } else {
+                    if (position.quantity < quantity) {
+                        return TradeResult.INSUFFICIENT_HOLDING;
+                    }
+                    // 평균 매수가 기준으로 매수원가 차감, 전량 매도면 남은 원가 전부
+                    long soldCost = position.quantity == quantity
+                            ? position.totalCost
+                            : (position.totalCost / position.quantity) * quantity;
+                    state.cash += amount;
+                    position.quantity -= quantity;
+                    position.totalCost -= soldCost;
+                    entry.cashDelta(amount).quantityDelta(-quantity).costDelta(-soldCost);
+                }
+
+                // 계좌 락을 잡은 채 커밋까지 대기 - 같은 계좌의 다음 체결은 이 기록이 확정된 뒤에 판단
+                try {
+                    commit(entry.build());
+                } catch (RuntimeException e) {
+                    // 기록 여부가 불확실하므로 메모리 상태는 버리고 다음 체결 때 DB에서 다시 적재
+                    evict(accountId, state);
+                    throw e;
+                }
+                return TradeResult.FILLED;
+            }
+        }
+    }
+
+    /**
+     * 계좌의 미반영 원장을 DB에 반영하고 메모리에서 내린 뒤 work 실행, work가 끝날 때까지 해당 계좌 원장 체결은 대기
+     * - work 안에서 DB를 직접 수정하는 트랜잭션을 시작하고 끝내야 함 (잠금은 커밋/롤백 이후 해제)
+     * - 반영은 별도 커넥션을 쓰므로 트랜잭션 밖에서 호출 (안에서 부르면 요청 하나가 커넥션 두 개를 잡음)
+     * @throws OrderException 원장 준비 전이거나 반영이 밀림 (503)
+     */
+    public <T> T exclusive(Collection<Integer> accountIds, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("계좌 원장 잠금은 트랜잭션 밖에서 시작해야 합니다.");
+        }
+        if (!ready) {
+            throw lagging();
+        }
+        Set<Integer> ids = new TreeSet<>();
+        for (Integer accountId : accountIds) {
+            if (accountId != null) {
+                ids.add(accountId);
+            }
+        }
+
+        for (Integer accountId : ids) {
+            fenceOf(accountId).acquire();
+        }
+        try {
+            for (Integer accountId : ids) {
+                AccountState state = accounts.get(accountId);
+                if (state != null) {
+                    // 진행 중인 체결이 있으면 기록이 끝날 때까지 대기
+                    synchronized (state) {
+                        evict(accountId, state);
+                    }
+                }
+            }
+            applyAccounts(ids);
+            return work.get();
+        } finally {
+            for (Integer accountId : ids) {
+                fenceOf(accountId).release();
+            }
+        }
+    }
+
+    /**
+     * 원장 -> 계좌/보유/거래내역 반영 (주기 실행, 준비 전이면 이전 실행분 재생부터)
+     */
+    @Scheduled(fixedDelay = 100)
+    public void flush() {
+        if (!ready) {
+            if (initialized) {
+                replay();
+            }
+            return;
+        }
+        while (!unappliedByAccount.isEmpty()) {
+            // 요청 스레드가 계좌별 반영 중이면 다음 주기에
+            if (!applyLock.tryLock()) {
+                return;
+            }
+            int applied;
+            try {
+                applied = applyOnce(null);
+            } catch (Exception e) {
+                log.error("계좌 원장 반영 실패 (다음 주기에 재시도): {}", e.getMessage());
+                return;
+            } finally {
+                applyLock.unlock();
+            }
+            if (applied < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (committer != null) {
+            committer.interrupt();
+        }
+    }
+
+    /**
+     * 모니터링용 통계
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("hotAccounts", accounts.size());
+        stats.put("commitQueued", commitQueue.size());
+        stats.put("unappliedAccounts", unappliedByAccount.size());
+        return stats;
+    }
+
+    // 원장 기록을 대기열에 넣고 커밋될 때까지 대기
+    private void commit(LedgerEntry entry) {
+        PendingCommit pending = new PendingCommit(entry);
+        // 기록 전에 먼저 세어야 직접 수정 경로가 기록 중인 항목을 놓치지 않음
+        countUp(entry.getAccountId());
+        if (!commitQueue.offer(pending)) {
+            countDown(entry.getAccountId(), 1);
+            throw new OrderException(HttpStatus.SERVICE_UNAVAILABLE, "주문이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요.");
+        }
+        try {
+            pending.done.get(COMMIT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw lagging();
+        } catch (ExecutionException | TimeoutException e) {
+            throw lagging();
+        }
+    }
+
+    // 대기열의 체결을 모아 한 트랜잭션으로 기록 (전용 스레드)
+    private void runCommitter() {
+        List<PendingCommit> batch = new ArrayList<>(BATCH_SIZE);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(commitQueue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            commitQueue.drainTo(batch, BATCH_SIZE - 1);
+            List<LedgerEntry> entries = new ArrayList<>(batch.size());
+            for (PendingCommit pending : batch) {
+                entries.add(pending.entry);
+            }
+            try {
+                newTransaction.execute(status -> ledgerMapper.insertEntries(entries));
+                for (PendingCommit pending : batch) {
+                    pending.done.complete(null);
+                }
+            } catch (Exception e) {
+                log.error("계좌 원장 기록 실패 ({}건): {}", batch.size(), e.getMessage());
+                fail(batch, e);
+            }
+            batch.clear();
+        }
+        // 종료 - 남은 체결은 실패 처리
+        commitQueue.drainTo(batch);
+        fail(batch, new IllegalStateException("계좌 원장 종료"));
+    }
+
+    private void fail(List<PendingCommit> batch, Exception cause) {
+        for (PendingCommit pending : batch) {
+            countDown(pending.entry.getAccountId(), 1);
+            pending.done.completeExceptionally(cause);
+        }
+    }
+
+    // 이전 실행의 미반영 항목을 모두 반영한 뒤 기록 스레드 시작
+    private void replay() {
+        applyLock.lock();
+        try {
+            while (applyOnce(null) == BATCH_SIZE) {
+                // 다음 묶음
+            }
+        } catch (Exception e) {
+            log.error("계좌 원장 재생 실패 (다음 주기에 재시도): {}", e.getMessage());
+            return;
+        } finally {
+            applyLock.unlock();
+        }
+        committer = new Thread(this::runCommitter, "account-ledger-commit");
+        committer.setDaemon(true);
+        committer.start();
+        ready = true;
+        log.info("계좌 원장 시작");
+    }
+
+    // 지정한 계좌의 미반영 원장만 반영 (기록 중이거나 미반영인 항목이 없으면 DB 확인 없음)
+    private void applyAccounts(Collection<Integer> accountIds) {
+        List<Integer> pending = new ArrayList<>();
+        for (Integer accountId : accountIds) {
+            if (unappliedByAccount.containsKey(accountId)) {
+                pending.add(accountId);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (!applyLock.tryLock(APPLY_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                throw lagging();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw lagging();
+        }
+        try {
+            while (applyOnce(pending) == BATCH_SIZE) {
+                // 다음 묶음
+            }
+        } catch (OrderException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("계좌 원장 반영 실패 - 계좌: {}: {}", pending, e.getMessage());
+            throw lagging();
+        } finally {
+            applyLock.unlock();
+        }
+        for (Integer accountId : pending) {
+            if (unappliedByAccount.containsKey(accountId)) {
+                throw lagging(); // 아직 기록 중인 항목 (기록 시간 초과 등)
+            }
+        }
+    }
+
+    // 미반영 원장 한 묶음 반영 (accountIds가 null이면 전체에서), 호출자가 applyLock을 잡고 있어야 함
+    private int applyOnce(Collection<Integer> accountIds) {
+        List<LedgerEntry> applied = newTransaction.execute(status -> {
+            List<LedgerEntry> entries = accountIds == null
+                    ? ledgerMapper.selectUnappliedEntries(BATCH_SIZE)
+                    : ledgerMapper.selectUnappliedEntriesByAccounts(accountIds, BATCH_SIZE);
+            if (!entries.isEmpty()) {
+                applyEntries(entries);
+            }
+            return entries;
+        });
+        if (applied == null) {
+            return 0;
+        }
+        Map<Integer, Integer> perAccount = new HashMap<>();
+        for (LedgerEntry entry : applied) {
+            perAccount.merge(entry.getAccountId(), 1, Integer::sum);
+        }
+        for (Map.Entry<Integer, Integer> account : perAccount.entrySet()) {
+            countDown(account.getKey(), account.getValue());
+        }
+        return applied.size();
+    }
+
+    private void countUp(Integer accountId) {
+        unappliedByAccount.merge(accountId, 1, Integer::sum);
+    }
+
+    // 0이 되면 제거 (이전 실행분처럼 세지 않은 항목은 무시)
+    private void countDown(Integer accountId, int count) {
+        unappliedByAccount.computeIfPresent(accountId, (id, n) -> n > count ? n - count : null);
+    }
+
+    private void evict(Integer accountId, AccountState state) {
+        state.evicted = true;
+        accounts.remove(accountId, state);
+    }
+
+    private static OrderException lagging() {
+        return new OrderException(HttpStatus.SERVICE_UNAVAILABLE, "계좌 원장 반영이 지연되고 있습니다. 잠시 후 다시 시도해주세요.");
+    }
+
+    // 미반영 원장 항목을 기록순으로 모아 한 번에 반영
+    private void applyEntries(List<LedgerEntry> entries) {
+        Map<String, Holding> positions = new LinkedHashMap<>();
+        for (Holding holding : ledgerMapper.selectHoldingsForEntries(entries)) {
+            positions.put(key(holding.getAccountId(), holding.getStockCode()), holding);
+        }
+        Set<String> newPositions = new HashSet<>();
+        Map<Integer, Long> cash = new LinkedHashMap<>();
+        List<Transaction> transactions = new ArrayList<>(entries.size());
+        List<Long> ledgerIds = new ArrayList<>(entries.size());
+
+        for (LedgerEntry entry : entries) {
+            String key = key(entry.getAccountId(), entry.getStockCode());
+            Holding holding = positions.get(key);
+            if (holding == null) {
+                holding = Holding.builder()
+                        .accountId(entry.getAccountId())
+                        .stockCode(entry.getStockCode())
+                        .stockName(entry.getStockName())
+                        .quantity(0)
+                        .totalCost(0L)
+                        .build();
+                positions.put(key, holding);
+                newPositions.add(key);
+            }
+            holding.setQuantity(holding.getQuantity() + entry.getQuantityDelta());
+            holding.setTotalCost(holding.getTotalCost() + entry.getCostDelta());
+            cash.merge(entry.getAccountId(), entry.getCashDelta(), Long::sum);
+
+            transactions.add(Transaction.builder()
+                    .accountId(entry.getAccountId())
+                    .stockCode(entry.getStockCode())
+                    .stockName(entry.getStockName())
+                    .transactionType(entry.getTransactionType())
+                    .orderType(entry.getOrderType())
+                    .quantity(entry.getQuantity())
+                    .price(entry.getPrice())
+                    .orderPrice(entry.getOrderPrice())
+                    .totalAmount((long) entry.getQuantity() * entry.getPrice())
+                    .orderCreatedAt(entry.getCreatedAt())
+                    .build());
+            ledgerIds.add(entry.getLedgerId());
+        }
+
+        List<Holding> inserts = new ArrayList<>();
+        List<Holding> updates = new ArrayList<>();
+        List<Holding> emptied = new ArrayList<>();
+        for (Map.Entry<String, Holding> position : positions.entrySet()) {
+            Holding holding = position.getValue();
+            boolean isNew = newPositions.contains(position.getKey());
+            if (holding.getQuantity() > 0) {
+                holding.setAveragePrice(BigDecimal.valueOf(holding.getTotalCost())
+                        .divide(BigDecimal.valueOf(holding.getQuantity()), 2, RoundingMode.HALF_UP));
+                (isNew ? inserts : updates).add(holding);
+            } else if (!isNew) {
+                emptied.add(holding);
+            }
+        }
+        if (!emptied.isEmpty()) {
+            // 매도 대기 주문이 수량을 예약 중인 종목은 0주로 유지
+            Set<String> reserved = new HashSet<>();
+            for (PendingOrderDto sell : orderMapper.selectPendingSellPositions(emptied)) {
+                reserved.add(key(sell.getAccountId(), sell.getStockCode()));
+            }
+            List<Integer> deletes = new ArrayList<>();
+            for (Holding holding : emptied) {
+                if (reserved.contains(key(holding.getAccountId(), holding.getStockCode()))) {
+                    updates.add(holding);
+                } else {
+                    deletes.add(holding.getHoldingId());
+                }
+            }
+            if (!deletes.isEmpty()) {
+                orderMapper.deleteHoldings(deletes);
+            }
+        }
+        if (!updates.isEmpty()) {
+            orderMapper.updateHoldingPositions(updates);
+        }
+        if (!inserts.isEmpty()) {
+            orderMapper.insertHoldings(inserts);
+        }
+
+        cash.values().removeIf(delta -> delta == 0L);
+        if (!cash.isEmpty()) {
+            orderMapper.addBalances(cash);
+        }
+        orderMapper.insertTransactions(transactions);
+        ledgerMapper.markApplied(ledgerIds);
+
+        log.debug("계좌 원장 반영 {}건", entries.size());
+    }
+
+    // 현금 잔고와 주문 종목 보유 내역을 한 번에 적재 (미반영 원장을 먼저 반영해야 DB 값이 최신)
+    private AccountState loadAccount(Integer accountId, String stockCode) {
+        // 조회 전 잠금 세대 (조회 도중 잠금이 걸렸는지 판단)
+        long generation = fenceOf(accountId).generation();
+        applyAccounts(Collections.singleton(accountId));
+        OrderContext context = orderMapper.selectOrderContext(accountId, stockCode);
+        if (context == null) {
+            return null;
+        }
+        AccountState state = new AccountState(context.getCurrentBalance(), generation);
+        Position position = new Position();
+        if (context.getHoldingId() != null) {
+            position.quantity = context.getHoldingQuantity();
+            position.totalCost = context.getHoldingTotalCost() != null ? context.getHoldingTotalCost() : 0L;
+        }
+        state.positions.put(stockCode, position);
+        return state;
+    }
+
+    private Position loadPosition(Integer accountId, String stockCode) {
+        Holding holding = orderMapper.selectHolding(accountId, stockCode);
+        Position position = new Position();
+        if (holding != null) {
+            position.quantity = holding.getQuantity();
+            position.totalCost = holding.getTotalCost() != null ? holding.getTotalCost() : 0L;
+        }
+        return position;
+    }
+
+    private Fence fenceOf(Integer accountId) {
+        return fences.computeIfAbsent(accountId, id -> new Fence());
+    }
+
+    private static String key(Integer accountId, String stockCode) {
+        return accountId + "|" + stockCode;
+    }
+
+    /**
+     * 메모리 계좌 상태 (인스턴스 락으로 보호)
+     */
+    private static final class AccountState {
+        long cash;
+        final Map<String, Position> positions = new HashMap<>();
+        final long generation;  // 적재 시점의 잠금 세대
+        boolean evicted;
+
+        AccountState(long cash, long generation) {
+            this.cash = cash;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * 계좌별 직접 수정 잠금 - 잠금 중에는 원장 체결이 대기
+     * 잠금 시작/해제마다 세대가 바뀌므로, 세대가 같으면 적재 이후 직접 수정이 없었음
+     */
+    private static final class Fence {
+        private int holders;
+        private long generation;
+
+        synchronized void acquire() {
+            holders++;
+            generation++;
+        }
+
+        synchronized void release() {
+            holders--;
+            generation++;
+            notifyAll();
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        // 잠금이 풀릴 때까지 대기 후 현재 세대 반환
+        synchronized long awaitOpen() {
+            while (holders > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("계좌 잠금 대기 중 중단되었습니다.", e);
+                }
+            }
+            return generation;
+        }
+
+        synchronized boolean isCurrent(long loadedGeneration) {
+            return holders == 0 && generation == loadedGeneration;
+        }
+    }
+
+    private static final class PendingCommit {
+        final LedgerEntry entry;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingCommit(LedgerEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private static final class Position {
+        int quantity;
+        long totalCost;
+    }
+}
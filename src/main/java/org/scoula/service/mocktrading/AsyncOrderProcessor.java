@@ -0,0 +1,140 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.controller.mocktrading.StockRelaySocket;
+import org.scoula.domain.mocktrading.OrderRequestDto;
+import org.scoula.exception.OrderException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 지정가 주문 비동기 접수 (요청 스레드는 검증 + 큐 적재 후 바로 반환)
+ * - 계좌 ID로 레인을 고르고 레인마다 스레드 1개가 순서대로 처리하므로 같은 계좌 주문은 접수 순서가 유지됨
+ * - 레인 수는 커넥션 풀 크기에서 원장 반영 스케줄러와 동기 요청 몫을 뺀 만큼 (jdbc.maximum-pool-size)
+ * - 레인 큐는 크기가 정해져 있어 꽉 차면 즉시 거절 (요청 스레드가 DB를 기다리며 쌓이지 않음)
+ * - 처리 결과는 /ws/stock 에 로그인 세션으로 접속한 프론트에 orderStatus 메시지로 전송
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class AsyncOrderProcessor {
+
+    // 주문 하나는 커넥션을 한 번에 하나만 씀 (계좌 원장 반영을 마친 뒤 트랜잭션 시작)
+    // 원장 반영 스케줄러 1개 + 동기 요청 1개 몫을 남기고 나머지를 레인으로 사용 (최소 1개)
+    private static final int RESERVED_CONNECTIONS = 2;
+    private static final int LANE_CAPACITY = 256;
+
+    private final OrderService orderService;
+
+    @Value("${jdbc.maximum-pool-size:3}")
+    private int maximumPoolSize;
+
+    private ThreadPoolExecutor[] lanes;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        lanes = createLanes(Math.max(1, maximumPoolSize - RESERVED_CONNECTIONS));
+        log.info("비동기 주문 레인 {}개 (커넥션 풀 {}개)", lanes.length, maximumPoolSize);
+    }
+
+    /**
+     * 주문을 큐에 넣고 요청 ID 반환 (클라이언트 주문 키가 있으면 그대로 사용)
+     */
+    public String submit(Integer userId, Integer accountId, OrderRequestDto orderRequest) {
+        orderService.validateLimitOrder(orderRequest);
+
+        String clientOrderId = orderRequest.getClientOrderId();
+        String requestId = clientOrderId != null && !clientOrderId.trim().isEmpty()
+                ? clientOrderId.trim()
+                : UUID.randomUUID().toString();
+
+        try {
+            lanes[Math.floorMod(accountId, lanes.length)].execute(() -> process(userId, accountId, requestId, orderRequest));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new OrderException(HttpStatus.SERVICE_UNAVAILABLE, "주문이 몰려 접수하지 못했습니다. 잠시 후 다시 시도해주세요.");
+        }
+        return requestId;
+    }
+
+    /**
+     * 모니터링용 통계
+     */
+    public Map<String, Object> getStats() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("lanes", lanes.length);
+        stats.put("queued", queued);
+        stats.put("processed", processed.get());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Integer userId, Integer accountId, String requestId, OrderRequestDto orderRequest) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("requestId", requestId);
+        status.put("stockCode", orderRequest.getStockCode());
+        status.put("orderType", orderRequest.getOrderType());
+        try {
+            status.put("message", orderService.placeLimitOrder(accountId, orderRequest));
+            status.put("status", "ACCEPTED");
+        } catch (OrderException e) {
+            status.put("status", "REJECTED");
+            status.put("message", e.getMessage());
+        } catch (Exception e) {
+            log.error("비동기 주문 처리 오류 - 계좌: {}, 요청: {}", accountId, requestId, e);
+            status.put("status", "FAILED");
+            status.put("message", "주문 처리 중 오류가 발생했습니다.");
+        }
+        processed.incrementAndGet();
+        StockRelaySocket.sendOrderStatus(userId, status);
+    }
+
+    private static ThreadPoolExecutor[] createLanes(int count) {
+        ThreadPoolExecutor[] lanes = new ThreadPoolExecutor[count];
+        for (int i = 0; i < count; i++) {
+            String name = "order-lane-" + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(LANE_CAPACITY),
+                    r -> {
+                        Thread t = new Thread(r, name);
+                        t.setDaemon(true);
+                        return t;
+                    });
+        }
+        return lanes;
+    }
+}
@@ -0,0 +1,300 @@
+package org.scoula.service.mocktrading;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.VariousChartApi;
+import org.scoula.domain.mocktrading.vo.ChartBar;
+import org.scoula.domain.mocktrading.vo.ChartCoverage;
+import org.scoula.mapper.trading.ChartHistoryMapper;
+import org.scoula.util.mocktrading.MinuteCandleSeries;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 일/주/월/년봉 이력 저장소 (VariousChartApi 앞단)
+ * - 이미 끝난 기간의 봉은 바뀌지 않으므로 chart_history 테이블에 저장하고 그대로 응답
+ * - 종목 + 기간코드별로 빠짐없이 저장된 구간(chart_history_coverage)을 두고, 요청 구간 중 그 밖의 앞/뒤만 KIS에서 받음
+ * - 진행 중인 기간(오늘, 이번 주/달/해)의 봉은 저장하지 않고 매번 KIS에서 받음
+ * - KIS는 한 번에 100건까지만 주므로 누락 구간은 최대 MAX_PAGES번 나눠 받음
+ * - 수정주가(액면분할 등) 반영을 위해 구간은 7일마다 처음부터 다시 받음
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ChartHistoryService implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 10;
+    private static final long REVERIFY_MS = 7L * 24 * 60 * 60 * 1000;
+    private static final String PERIOD_CODES = "DWMY";
+
+    private final VariousChartApi variousChartApi;
+    private final ChartHistoryMapper chartHistoryMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 종목코드 -> 마지막으로 받은 output1 (저장소만으로 응답할 때 사용)
+    private final Map<String, JsonNode> summaries = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (ready || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+        try {
+            chartHistoryMapper.createChartHistoryTable();
+            chartHistoryMapper.createChartCoverageTable();
+            ready = true;
+        } catch (Exception e) {
+            log.error("차트 이력 테이블 초기화 실패 (KIS 직접 조회로 동작): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 일/주/월/년별 차트 (KIS 응답과 같은 모양: rt_cd, msg1, output1, output2 최신순)
+     */
+    public JsonNode getChartData(String stockCode, String periodCode, String startDate, String endDate) {
+        String period = periodCode.trim().toUpperCase();
+        if (!ready || period.length() != 1 || PERIOD_CODES.indexOf(period.charAt(0)) < 0
+                || parse(startDate) == null || parse(endDate) == null || startDate.compareTo(endDate) > 0) {
+            return variousChartApi.getChartData(stockCode, periodCode, startDate, endDate);
+        }
+
+        // 이 날짜 이후 봉은 아직 진행 중인 기간
+        LocalDate openPeriodStart = currentPeriodStart(period, LocalDate.now(MinuteCandleSeries.MARKET_ZONE));
+        String lastFinalDate = format(openPeriodStart.minusDays(1));
+
+        ChartCoverage coverage = chartHistoryMapper.selectCoverage(stockCode, period);
+        if (coverage != null && coverage.getVerifiedAt() != null
+                && System.currentTimeMillis() - coverage.getVerifiedAt().getTime() > REVERIFY_MS) {
+            coverage = null;
+        }
+
+        List<JsonNode> liveRows = new ArrayList<>();
+        int calls = 0;
+        if (coverage == null) {
+            Fetched fetched = fetch(stockCode, period, startDate, endDate);
+            if (fetched.failure) {
+                return fetched.firstResponse;
+            }
+            calls += fetched.calls;
+            store(stockCode, period, fetched, endDate, lastFinalDate, null, liveRows);
+        } else {
+            // 저장 구간 앞쪽 (과거)
+            if (startDate.compareTo(coverage.getFromDate()) < 0) {
+                String to = min(endDate, format(parse(coverage.getFromDate()).minusDays(1)));
+                Fetched fetched = fetch(stockCode, period, startDate, to);
+                if (fetched.failure) {
+                    return fetched.firstResponse;
+                }
+                calls += fetched.calls;
+                coverage = store(stockCode, period, fetched, to, lastFinalDate, coverage, liveRows);
+            }
+            // 저장 구간 뒤쪽 (최근 + 진행 중인 기간)
+            if (endDate.compareTo(coverage.getToDate()) > 0) {
+                String from = max(startDate, format(parse(coverage.getToDate()).plusDays(1)));
+                Fetched fetched = fetch(stockCode, period, from, endDate);
+                if (fetched.failure) {
+                    return fetched.firstResponse;
+                }
+                calls += fetched.calls;
+                store(stockCode, period, fetched, endDate, lastFinalDate, coverage, liveRows);
+            }
+        }
+
+        // 진행 중인 봉 + 저장된 확정 봉 (최신순)
+        ArrayNode output2 = objectMapper.createArrayNode();
+        liveRows.sort((a, b) -> b.path("stck_bsop_date").asText().compareTo(a.path("stck_bsop_date").asText()));
+        for (JsonNode row : liveRows) {
+            String date = row.path("stck_bsop_date").asText();
+            if (date.compareTo(startDate) >= 0 && date.compareTo(endDate) <= 0) {
+                output2.add(row);
+            }
+        }
+        for (ChartBar bar : chartHistoryMapper.selectBars(stockCode, period, startDate, min(endDate, lastFinalDate))) {
+            try {
+                output2.add(objectMapper.readTree(bar.getRowJson()));
+            } catch (Exception e) {
+                log.warn("저장된 봉 파싱 실패 - {} {} {}", stockCode, period, bar.getBarDate());
+            }
+        }
+        // 저장소만으로 응답하는데 output1이 없으면 (재시작 직후 등) 한 건만 받아 채움
+        JsonNode summary = summaries.get(stockCode);
+        if (summary == null) {
+            summary = fetchSummary(stockCode, period, endDate);
+            calls++;
+        }
+        log.info("차트 이력 응답 - 종목: {}, 기간: {}, {}~{}, 봉 {}건, KIS 호출 {}회",
+                stockCode, period, startDate, endDate, output2.size(), calls);
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("rt_cd", "0");
+        result.put("msg_cd", "MCA00000");
+        result.put("msg1", "정상처리 되었습니다.");
+        result.set("output1", summary);
+        result.set("output2", output2);
+        return result;
+    }
+
+    /**
+     * 받은 봉 중 확정된 것만 저장하고 저장 구간 확장, 진행 중인 봉은 liveRows로
+     * @return 갱신된 저장 구간 (저장할 확정 구간이 없으면 기존 구간)
+     */
+    private ChartCoverage store(String stockCode, String period, Fetched fetched, String requestedTo,
+                                String lastFinalDate, ChartCoverage coverage, List<JsonNode> liveRows) {
+        List<ChartBar> bars = new ArrayList<>();
+        for (JsonNode row : fetched.rows) {
+            String date = row.path("stck_bsop_date").asText();
+            if (date.compareTo(lastFinalDate) > 0) {
+                liveRows.add(row);
+            } else {
+                bars.add(ChartBar.builder()
+                        .stockCode(stockCode)
+                        .periodCode(period)
+                        .barDate(date)
+                        .rowJson(row.toString())
+                        .build());
+            }
+        }
+        if (!bars.isEmpty()) {
+            chartHistoryMapper.upsertBars(bars);
+        }
+
+        String from = fetched.coveredFrom;
+        String to = min(requestedTo, lastFinalDate);
+        if (from.compareTo(to) > 0) {
+            return coverage;
+        }
+
+        ChartCoverage updated;
+        boolean adjacent = coverage != null
+                && from.compareTo(format(parse(coverage.getToDate()).plusDays(1))) <= 0
+                && to.compareTo(format(parse(coverage.getFromDate()).minusDays(1))) >= 0;
+        if (adjacent) {
+            updated = ChartCoverage.builder()
+                    .stockCode(stockCode)
+                    .periodCode(period)
+                    .fromDate(min(from, coverage.getFromDate()))
+                    .toDate(max(to, coverage.getToDate()))
+                    .verifiedAt(coverage.getVerifiedAt())
+                    .build();
+        } else {
+            updated = ChartCoverage.builder()
+                    .stockCode(stockCode)
+                    .periodCode(period)
+                    .fromDate(from)
+                    .toDate(to)
+                    .verifiedAt(new Timestamp(System.currentTimeMillis()))
+                    .build();
+        }
+        chartHistoryMapper.upsertCoverage(updated);
+        return updated;
+    }
+
+    // [from, to] 구간을 최신부터 100건씩 받음 (첫 호출이 실패하면 failure, 응답은 그대로 firstResponse)
+    private Fetched fetch(String stockCode, String period, String from, String to) {
+        Fetched fetched = new Fetched();
+        fetched.coveredFrom = from;
+        String pageEnd = to;
+
+        for (int page = 0; page < MAX_PAGES; page++) {
+            JsonNode response = variousChartApi.getChartData(stockCode, period, from, pageEnd);
+            fetched.calls++;
+            if (page == 0) {
+                fetched.firstResponse = response;
+            }
+            if (response == null || !"0".equals(response.path("rt_cd").asText())) {
+                fetched.failure = page == 0;
+                break;
+            }
+            if (page == 0 && response.has("output1")) {
+                summaries.put(stockCode, response.get("output1"));
+            }
+
+            int count = 0;
+            String oldest = null;
+            for (JsonNode row : response.path("output2")) {
+                String date = row.path("stck_bsop_date").asText("");
+                if (parse(date) == null || date.compareTo(from) < 0 || date.compareTo(pageEnd) > 0) continue;
+                fetched.rows.add(row);
+                count++;
+                if (oldest == null || date.compareTo(oldest) < 0) oldest = date;
+            }
+            if (count < PAGE_SIZE || oldest.compareTo(from) <= 0) {
+                return fetched; // 구간 전체 수신
+            }
+            fetched.coveredFrom = oldest;
+            pageEnd = format(parse(oldest).minusDays(1));
+        }
+        // 페이지 한도 또는 중간 실패 - 받은 가장 오래된 날짜부터만 빠짐없음
+        return fetched;
+    }
+
+    // output1(종목 요약)만 필요할 때 - 하루 구간으로 조회, 실패하면 빈 객체
+    private JsonNode fetchSummary(String stockCode, String period, String date) {
+        JsonNode response = variousChartApi.getChartData(stockCode, period, date, date);
+        if (response != null && "0".equals(response.path("rt_cd").asText()) && response.has("output1")) {
+            summaries.put(stockCode, response.get("output1"));
+            return response.get("output1");
+        }
+        log.warn("차트 요약(output1) 조회 실패 - 종목: {}", stockCode);
+        return objectMapper.createObjectNode();
+    }
+
+    private static LocalDate currentPeriodStart(String period, LocalDate today) {
+        switch (period) {
+            case "W": return today.with(DayOfWeek.MONDAY);
+            case "M": return today.withDayOfMonth(1);
+            case "Y": return today.withDayOfYear(1);
+            default: return today;
+        }
+    }
+
+    private static LocalDate parse(String yyyyMMdd) {
+        if (yyyyMMdd == null || yyyyMMdd.length() != 8) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(yyyyMMdd, DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String format(LocalDate date) {
+        return date.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private static String min(String a, String b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static String max(String a, String b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static final class Fetched {
+        final List<JsonNode> rows = new ArrayList<>();
+        String coveredFrom;
+        int calls;
+        boolean failure;
+        JsonNode firstResponse;
+    }
+}
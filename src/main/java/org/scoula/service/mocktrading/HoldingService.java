@@ -2,6 +2,7 @@ package org.scoula.service.mocktrading;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.RealtimeQuoteCache;
 import org.scoula.domain.mocktrading.vo.Holding;
 import org.scoula.mapper.trading.HoldingMapper;
 import org.springframework.stereotype.Service;
@@ -27,8 +28,12 @@ public class HoldingService {
 
             List<Holding> holdings = holdingMapper.selectByUserId(userId);
 
-            // 현재가 업데이트 및 손익 계산
+            // 현재가 업데이트 및 손익 계산 (실시간 최신값이 있으면 DB 현재가 대신 사용)
             for (Holding holding : holdings) {
+                long realtimePrice = RealtimeQuoteCache.getFreshPrice(holding.getStockCode());
+                if (realtimePrice > 0) {
+                    holding.setCurrentPrice((int) realtimePrice);
+                }
                 updateHoldingProfitLoss(holding);
             }
 
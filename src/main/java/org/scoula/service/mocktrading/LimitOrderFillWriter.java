@@ -0,0 +1,99 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 매칭 엔진 체결 대기열을 DB에 묶어서 반영
+ * - 200ms마다 최대 BATCH_SIZE건을 한 트랜잭션으로 체결
+ * - 묶음이 실패하면 한 건씩 다시 시도하여 문제 주문만 제외
+ * - 한 건씩도 실패한 주문은 1초부터 두 배씩 늘려 MAX_RETRIES번 다시 시도하고,
+ *   그래도 실패하면 매칭 엔진 호가장으로 되돌림 (다음 교차 틱에 다시 체결, 취소도 가능)
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class LimitOrderFillWriter {
+
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_RETRIES = 5;
+    private static final long RETRY_BASE_DELAY_MS = 1_000L;
+
+    private final LimitOrderMatchingEngine matchingEngine;
+    private final OrderService orderService;
+
+    // 재시도 대기 주문 (스케줄러 스레드에서만 사용)
+    private final List<Retry> retries = new ArrayList<>();
+
+    @Scheduled(fixedDelay = 200)
+    public void flush() {
+        retryDue(System.currentTimeMillis());
+
+        List<PendingOrderDto> batch;
+        while (!(batch = matchingEngine.drainFills(BATCH_SIZE)).isEmpty()) {
+            try {
+                int filled = orderService.settleMatchedOrders(batch).size();
+                log.info("지정가 체결 반영 {}건 / 요청 {}건", filled, batch.size());
+            } catch (Exception e) {
+                log.warn("지정가 일괄 체결 실패, 개별 처리로 전환: {}", e.getMessage());
+                for (PendingOrderDto order : batch) {
+                    settleOne(order, 0);
+                }
+            }
+        }
+    }
+
+    // 재시도 시각이 된 주문만 다시 반영
+    private void retryDue(long now) {
+        if (retries.isEmpty()) {
+            return;
+        }
+        List<Retry> due = new ArrayList<>();
+        for (Iterator<Retry> it = retries.iterator(); it.hasNext(); ) {
+            Retry retry = it.next();
+            if (retry.dueAt <= now) {
+                due.add(retry);
+                it.remove();
+            }
+        }
+        for (Retry retry : due) {
+            settleOne(retry.order, retry.attempt);
+        }
+    }
+
+    private void settleOne(PendingOrderDto order, int attempt) {
+        try {
+            orderService.settleMatchedOrders(Collections.singletonList(order));
+        } catch (Exception e) {
+            if (attempt + 1 >= MAX_RETRIES) {
+                log.error("지정가 체결 반영 {}회 실패, 호가장으로 되돌림 orderId={}: {}",
+                        attempt + 1, order.getOrderId(), e.getMessage());
+                matchingEngine.add(order);
+                return;
+            }
+            long delay = RETRY_BASE_DELAY_MS << attempt;
+            log.warn("지정가 체결 반영 실패, {}ms 후 재시도 orderId={}: {}", delay, order.getOrderId(), e.getMessage());
+            retries.add(new Retry(order, attempt + 1, System.currentTimeMillis() + delay));
+        }
+    }
+
+    private static final class Retry {
+        final PendingOrderDto order;
+        final int attempt;
+        final long dueAt;
+
+        Retry(PendingOrderDto order, int attempt, long dueAt) {
+            this.order = order;
+            this.attempt = attempt;
+            this.dueAt = dueAt;
+        }
+    }
+}
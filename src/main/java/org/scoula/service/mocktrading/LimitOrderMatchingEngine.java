@@ -0,0 +1,321 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.RealtimeExecutionClient;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+import org.scoula.mapper.trading.OrderMapper;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 지정가 대기 주문 매칭 엔진 (메모리)
+ * - 종목코드별 가격 정렬 호가장: 매수는 높은 가격부터, 매도는 낮은 가격부터, 같은 가격은 접수순
+ * - H0UNCNT0 체결 틱이 들어오면 해당 종목에서 체결가와 교차하는 주문만 즉시 꺼내 체결 대기열에 적재
+ *   (매수: 체결가 <= 목표가, 매도: 체결가 >= 목표가)
+ * - DB 반영은 LimitOrderFillWriter가 대기열을 묶어서 처리
+ * - 대기 주문이 있는 종목은 체결 구독을 유지, 호가장이 비면 반납
+ *   구독은 MAX_SUBSCRIPTIONS개까지만 (연결당 구독 한도를 시청자 구독과 나눠 씀)
+ *   한도를 넘거나 구독에 실패한 종목은 OrderSettlementService가 분봉으로 주기 체결 (빈 자리가 나면 다시 구독)
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class LimitOrderMatchingEngine implements ApplicationListener<ContextRefreshedEvent> {
+
+    // 매칭용 체결 구독 한도 (실시간 구독 한도 41건 중)
+    static final int MAX_SUBSCRIPTIONS = 10;
+
+    private final OrderMapper orderMapper;
+
+    // 종목코드 -> 호가장
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+
+    // 체결되어 DB 반영을 기다리는 주문
+    private final LinkedBlockingQueue<PendingOrderDto> fills = new LinkedBlockingQueue<>();
+
+    private final AtomicLong matchedCount = new AtomicLong();
+    private final AtomicLong tickCount = new AtomicLong();
+
+    // 매칭용으로 잡고 있는 구독 수
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private volatile boolean started = false;
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (started || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+        started = true;
+
+        RealtimeExecutionClient.addTickListener(this::onTick);
+
+        try {
+            List<PendingOrderDto> pendingOrders = orderMapper.selectAllPendingOrders();
+            for (PendingOrderDto order : pendingOrders) {
+                add(order);
+            }
+            log.info("지정가 매칭 엔진 시작 - 대기 주문 {}건, 종목 {}개", pendingOrders.size(), books.size());
+        } catch (Exception e) {
+            log.error("대기 주문 적재 실패 (수동 체결만 가능): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 대기 주문 등록 (접수 커밋 이후 호출)
+     */
+    public void add(PendingOrderDto order) {
+        Book book = books.computeIfAbsent(order.getStockCode(), Book::new);
+        boolean subscribe;
+        synchronized (book) {
+            // 첫 주문일 때만 구독 시도 (실패한 종목은 주기 재시도에서)
+            subscribe = book.isEmpty() && !book.subscribed && reserveSubscription();
+            book.add(order);
+            if (subscribe) {
+                book.subscribed = true;
+            }
+        }
+        if (subscribe) {
+            subscribe(book);
+        }
+    }
+
+    /**
+     * 구독 한도에 빈 자리가 있으면 구독하지 못한 종목을 다시 구독
+     */
+    public void retrySubscriptions() {
+        for (Book book : books.values()) {
+            boolean subscribe;
+            synchronized (book) {
+                subscribe = !book.isEmpty() && !book.subscribed && reserveSubscription();
+                if (subscribe) {
+                    book.subscribed = true;
+                }
+            }
+            if (subscribe) {
+                subscribe(book);
+            } else if (subscriptions.get() >= MAX_SUBSCRIPTIONS) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 체결 구독이 없는 종목의 대기 주문 (분봉 주기 체결 대상)
+     */
+    public List<PendingOrderDto> unsubscribedOrders() {
+        List<PendingOrderDto> orders = new ArrayList<>();
+        for (Book book : books.values()) {
+            synchronized (book) {
+                if (!book.subscribed) {
+                    orders.addAll(book.orders());
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * 취소/수동 체결된 주문 제거 (커밋 이후 호출)
+     */
+    public void remove(Collection<PendingOrderDto> orders) {
+        for (PendingOrderDto order : orders) {
+            Book book = books.get(order.getStockCode());
+            if (book == null) continue;
+            synchronized (book) {
+                book.remove(order.getOrderId());
+            }
+            releaseIfEmpty(book);
+        }
+    }
+
+    /**
+     * 체결 틱 처리 - 교차하는 주문을 호가장에서 꺼내 체결 대기열로
+     */
+    void onTick(String stockCode, long price) {
+        if (stockCode == null || price <= 0) {
+            return;
+        }
+        Book book = books.get(stockCode);
+        if (book == null) {
+            return;
+        }
+        tickCount.incrementAndGet();
+
+        List<PendingOrderDto> matched;
+        synchronized (book) {
+            matched = book.match(price);
+        }
+        if (matched.isEmpty()) {
+            return;
+        }
+
+        fills.addAll(matched);
+        matchedCount.addAndGet(matched.size());
+        log.info("지정가 주문 체결 감지 [{}] 체결가 {} - {}건", stockCode, price, matched.size());
+        releaseIfEmpty(book);
+    }
+
+    /**
+     * 체결 대기열에서 최대 maxBatch건 꺼내기
+     */
+    public List<PendingOrderDto> drainFills(int maxBatch) {
+        List<PendingOrderDto> batch = new ArrayList<>(Math.min(maxBatch, fills.size()));
+        fills.drainTo(batch, maxBatch);
+        return batch;
+    }
+
+    /**
+     * 모니터링용 통계
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        int openOrders = 0;
+        Map<String, Integer> perStock = new HashMap<>();
+        for (Book book : books.values()) {
+            int size;
+            synchronized (book) {
+                size = book.size();
+            }
+            if (size > 0) {
+                perStock.put(book.stockCode, size);
+                openOrders += size;
+            }
+        }
+        stats.put("openOrders", openOrders);
+        stats.put("stocks", perStock);
+        stats.put("pendingFills", fills.size());
+        stats.put("matched", matchedCount.get());
+        stats.put("ticks", tickCount.get());
+        stats.put("subscriptions", subscriptions.get());
+        return stats;
+    }
+
+    private void releaseIfEmpty(Book book) {
+        boolean release;
+        synchronized (book) {
+            release = book.isEmpty() && book.subscribed;
+            if (release) {
+                book.subscribed = false;
+            }
+        }
+        if (release) {
+            RealtimeExecutionClient.unsubscribe(book.stockCode);
+            subscriptions.decrementAndGet();
+        }
+    }
+
+    // 구독 한도 안이면 한 자리 선점
+    private boolean reserveSubscription() {
+        return subscriptions.getAndUpdate(n -> n < MAX_SUBSCRIPTIONS ? n + 1 : n) < MAX_SUBSCRIPTIONS;
+    }
+
+    private void subscribe(Book book) {
+        try {
+            RealtimeExecutionClient.subscribe(book.stockCode);
+        } catch (Exception e) {
+            // 구독 실패 시에도 호가장은 유지 (다른 구독으로 틱이 오면 매칭, 나머지는 분봉 주기 체결)
+            log.warn("매칭용 체결 구독 실패 [{}] (분봉 주기 체결로 대체): {}", book.stockCode, e.getMessage());
+            synchronized (book) {
+                book.subscribed = false;
+            }
+            subscriptions.decrementAndGet();
+        }
+    }
+
+    /**
+     * 종목별 호가장 (외부에서 동기화)
+     */
+    static final class Book {
+        final String stockCode;
+        boolean subscribed;
+
+        // 목표가 -> 접수순 주문
+        private final NavigableMap<Integer, ArrayDeque<PendingOrderDto>> buys = new TreeMap<>(Collections.reverseOrder());
+        private final NavigableMap<Integer, ArrayDeque<PendingOrderDto>> sells = new TreeMap<>();
+        private final Map<Integer, PendingOrderDto> byId = new HashMap<>();
+
+        Book(String stockCode) {
+            this.stockCode = stockCode;
+        }
+
+        void add(PendingOrderDto order) {
+            if (byId.putIfAbsent(order.getOrderId(), order) != null) {
+                return;
+            }
+            side(order).computeIfAbsent(order.getTargetPrice(), p -> new ArrayDeque<>()).addLast(order);
+        }
+
+        void remove(int orderId) {
+            PendingOrderDto order = byId.remove(orderId);
+            if (order == null) {
+                return;
+            }
+            NavigableMap<Integer, ArrayDeque<PendingOrderDto>> side = side(order);
+            ArrayDeque<PendingOrderDto> level = side.get(order.getTargetPrice());
+            if (level != null) {
+                level.removeIf(o -> o.getOrderId() == orderId);
+                if (level.isEmpty()) {
+                    side.remove(order.getTargetPrice());
+                }
+            }
+        }
+
+        /**
+         * 체결가와 교차하는 가격대를 통째로 꺼냄
+         * 매수(내림차순)는 목표가 >= 체결가, 매도(오름차순)는 목표가 <= 체결가 구간이 앞쪽에 모여 있음
+         */
+        List<PendingOrderDto> match(long price) {
+            List<PendingOrderDto> matched = new ArrayList<>();
+            int limit = (int) Math.min(Integer.MAX_VALUE, price);
+            takeCrossing(buys.headMap(limit, true), matched);
+            takeCrossing(sells.headMap(limit, true), matched);
+            return matched;
+        }
+
+        private void takeCrossing(NavigableMap<Integer, ArrayDeque<PendingOrderDto>> crossing, List<PendingOrderDto> out) {
+            Iterator<ArrayDeque<PendingOrderDto>> it = crossing.values().iterator();
+            while (it.hasNext()) {
+                for (PendingOrderDto order : it.next()) {
+                    byId.remove(order.getOrderId());
+                    out.add(order);
+                }
+                it.remove();
+            }
+        }
+
+        boolean isEmpty() {
+            return byId.isEmpty();
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        List<PendingOrderDto> orders() {
+            return new ArrayList<>(byId.values());
+        }
+
+        private NavigableMap<Integer, ArrayDeque<PendingOrderDto>> side(PendingOrderDto order) {
+            return "BUY".equalsIgnoreCase(order.getOrderType()) ? buys : sells;
+        }
+    }
+}
@@ -33,8 +33,8 @@ public class Main {
 //
 //            // 분봉 조회
 ////            MinuteChartApi.getAndAggregateChart("005930", 5);  // 삼성전자 5분봉
-//            RealtimeNxtBidsAndAsksClient.startWebSocket("005930");
-//            RealtimeExecutionClient.startWebSocket("005930");
+//            RealtimeNxtBidsAndAsksClient.subscribe("005930");
+//            RealtimeExecutionClient.subscribe("005930");
 
 //            JsonNode output = MinuteChartApiTest.getMinuteChartTest("005930");
 //            System.out.println(output);
@@ -0,0 +1,332 @@
+package org.scoula.service.mocktrading;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.ApiHttpClient;
+import org.scoula.api.mocktrading.ApiRateLimiter;
+import org.scoula.api.mocktrading.MinuteChartApiKiwoom;
+import org.scoula.api.mocktrading.RealtimeExecutionClient;
+import org.scoula.util.mocktrading.KiwoomMinuteBars;
+import org.scoula.util.mocktrading.MinuteCandleRing;
+import org.scoula.util.mocktrading.MinuteCandleSeries;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 당일 1분봉 저장소 (실시간 체결 틱으로 누적)
+ * - H0UNCNT0 체결 틱을 종목별 MinuteCandleRing에 OHLCV로 누적
+ * - 종목별로 하루 한 번 키움 분봉으로 채우고(backfill), 이후 조회는 메모리에서 바로 응답
+ * - 3/5/10/30/60분봉도 틱마다 함께 갱신되므로 조회 시 재집계하지 않음
+ * - 조회한 종목은 실시간 체결을 구독(허브 참조 수)하되 MAX_SUBSCRIPTIONS개까지만 (연결당 구독 한도는 시청자 몫으로 남김)
+ *   5분 동안 조회가 없으면 구독부터 반납, 한도를 넘은 종목은 키움 분봉으로만 갱신
+ * - 틱이 1분 넘게 들어오지 않는 종목은 조회 시 키움 분봉으로 다시 채움 (미구독이면 10초)
+ * - 30분 동안 조회도 틱도 없는 종목은 메모리에서 내림
+ * - 여러 종목 조회 시 키움 호출이 필요한 종목만 공용 스레드 풀에서 받고, 제한 시간 안에 끝난 종목만 응답
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class MinuteCandleStore {
+
+    private static final long REFRESH_INTERVAL_MS = 60_000L;
+    private static final long RETRY_INTERVAL_MS = 3_000L;
+    // 실시간 미구독 종목은 틱으로 갱신되지 않으므로 짧게 다시 채움
+    private static final long UNSUBSCRIBED_REFRESH_MS = 10_000L;
+    private static final long IDLE_EVICT_MS = 30 * 60_000L;
+
+    // 분봉 누적용 실시간 구독 한도 (실시간 구독 한도 41건 중) / 조회가 끊긴 종목의 구독 반납 시간
+    static final int MAX_SUBSCRIPTIONS = 5;
+    private static final long SUBSCRIPTION_IDLE_MS = 5 * 60_000L;
+
+    private static final long BATCH_TIMEOUT_MS = 5_000L;
+    // 동시에 키움 분봉을 받는 스레드 수 = 키움 초당 호출 한도 (ApiRateLimiter)
+    // 더 많으면 스레드가 제한기 안에서 최대 30초씩 토큰을 기다리며 풀만 차지함
+    private static final int BATCH_THREADS = Math.max(1, (int) Math.ceil(ApiRateLimiter.kiwoomRatePerSecond()));
+    // 대기열은 제한 시간 안에 토큰을 받을 수 있는 만큼만 (넘치는 종목은 바로 제외해 30초 대기를 만들지 않음)
+    private static final int BATCH_QUEUE_CAPACITY = (int) (BATCH_THREADS * BATCH_TIMEOUT_MS / 1_000L);
+
+    private final MinuteChartApiKiwoom minuteChartApiKiwoom;
+
+    private final ObjectMapper mapper = ApiHttpClient.mapper();
+
+    // 종목코드 -> 분봉
+    private final Map<String, Tracked> symbols = new ConcurrentHashMap<>();
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong batchTimeouts = new AtomicLong();
+    private final AtomicLong batchRejected = new AtomicLong();
+
+    // 이 저장소가 잡고 있는 실시간 구독 수
+    private final AtomicInteger subscriptions = new AtomicInteger();
+
+    private final ThreadPoolExecutor batchExecutor = createBatchExecutor();
+
+    @PostConstruct
+    public void init() {
+        RealtimeExecutionClient.addExecutionListener(this::onExecution);
+    }
+
+    /**
+     * 당일 1분봉 (키움 분봉 응답과 같은 모양, 최신순)
+     * @param sinceMinute 이 분(시*60+분) 이상인 분봉만, -1이면 전체
+     * @return 분봉이 없으면 null
+     */
+    public ObjectNode getChart(String stockCode, int sinceMinute, boolean wrapWithStockCode) {
+        return getChart(stockCode, sinceMinute, 1, wrapWithStockCode);
+    }
+
+    /**
+     * 당일 N분봉 (1/3/5/10/30/60분, 미리 집계된 값을 그대로 변환)
+     * @param sinceMinute 이 분이 포함된 구간부터, -1이면 전체
+     * @return 분봉이 없으면 null
+     */
+    public ObjectNode getChart(String stockCode, int sinceMinute, int resolution, boolean wrapWithStockCode) {
+        MinuteCandleRing ring = fresh(stockCode);
+        if (ring.size() == 0) {
+            return null;
+        }
+        ObjectNode chart = ring.toJson(mapper, sinceMinute, resolution);
+        if (!wrapWithStockCode) {
+            return chart;
+        }
+        ObjectNode wrapped = mapper.createObjectNode();
+        wrapped.put("stock_code", stockCode);
+        wrapped.setAll(chart);
+        return wrapped;
+    }
+
+    /**
+     * 여러 종목 당일 1분봉 (요청 순서, stock_code 포함)
+     * - 메모리에 있는 종목은 호출 스레드에서 바로, 키움 호출이 필요한 종목은 공용 풀에서 받음
+     * - BATCH_TIMEOUT_MS 안에 받지 못했거나 풀이 꽉 찬 종목은 빼고 반환 (받던 종목은 계속 받아 다음 조회에 사용)
+     */
+    public List<JsonNode> getCharts(List<String> stockCodes) {
+        long now = System.currentTimeMillis();
+        long deadline = now + BATCH_TIMEOUT_MS;
+
+        List<Future<ObjectNode>> futures = new ArrayList<>(stockCodes.size());
+        // 키움 호출 없이 메모리에서 바로 응답할 종목 (풀이 거절한 종목은 여기서 받지 않음)
+        boolean[] inMemory = new boolean[stockCodes.size()];
+        for (int i = 0; i < stockCodes.size(); i++) {
+            String stockCode = stockCodes.get(i);
+            if (stockCode == null || stockCode.trim().isEmpty()) {
+                futures.add(null);
+                continue;
+            }
+            Tracked tracked = symbols.get(stockCode);
+            if (tracked != null && !needsFetch(tracked, now)) {
+                inMemory[i] = true;
+                futures.add(null); // 아래에서 바로 조회
+                continue;
+            }
+            try {
+                futures.add(batchExecutor.submit(() -> getChart(stockCode, -1, true)));
+            } catch (RejectedExecutionException e) {
+                batchRejected.incrementAndGet();
+                log.warn("분봉 일괄 조회 풀이 가득 차 제외 - 종목: {}", stockCode);
+                futures.add(null);
+            }
+        }
+
+        List<JsonNode> results = new ArrayList<>(stockCodes.size());
+        for (int i = 0; i < stockCodes.size(); i++) {
+            String stockCode = stockCodes.get(i);
+            Future<ObjectNode> future = futures.get(i);
+            ObjectNode chart = null;
+            try {
+                if (future != null) {
+                    chart = future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                } else if (inMemory[i]) {
+                    chart = getChart(stockCode, -1, true);
+                }
+            } catch (TimeoutException e) {
+                batchTimeouts.incrementAndGet();
+                log.warn("분봉 일괄 조회 시간 초과로 제외 - 종목: {}", stockCode);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("분봉 일괄 조회 오류 - 종목: {}", stockCode, e.getCause());
+            } catch (Exception e) {
+                log.error("분봉 일괄 조회 오류 - 종목: {}", stockCode, e);
+            }
+            if (chart != null) {
+                results.add(chart);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 체결 판정용 시간순 분봉
+     * @return 분봉이 없으면 null
+     */
+    public MinuteCandleSeries getSeries(String stockCode) {
+        return fresh(stockCode).toSeries();
+    }
+
+    /**
+     * 모니터링용 통계
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("symbols", symbols.size());
+        stats.put("subscriptions", subscriptions.get());
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("fetches", fetches.get());
+        stats.put("batchActive", batchExecutor.getActiveCount());
+        stats.put("batchQueued", batchExecutor.getQueue().size());
+        stats.put("batchTimeouts", batchTimeouts.get());
+        stats.put("batchRejected", batchRejected.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelay = 60_000L)
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Tracked> entry : symbols.entrySet()) {
+            Tracked tracked = entry.getValue();
+            synchronized (tracked) {
+                if (now - Math.max(tracked.lastTickAt, tracked.lastAccessAt) > IDLE_EVICT_MS
+                        && symbols.remove(entry.getKey(), tracked)) {
+                    tracked.evicted = true;
+                    release(entry.getKey(), tracked);
+                } else if (now - tracked.lastAccessAt > SUBSCRIPTION_IDLE_MS) {
+                    // 조회가 끊긴 종목은 구독부터 반납 (구독 중에는 틱이 계속 들어와 메모리에서 내려가지 않음)
+                    release(entry.getKey(), tracked);
+                }
+            }
+        }
+    }
+
+    private void onExecution(String stockCode, String businessDate, String contractTime, int price, long volume) {
+        int minute = MinuteCandleRing.parseMinuteOfDay(contractTime);
+        if (stockCode == null || minute < 0) {
+            return;
+        }
+        String date = businessDate != null && businessDate.length() == 8
+                ? businessDate
+                : LocalDate.now(MinuteCandleSeries.MARKET_ZONE).format(DateTimeFormatter.BASIC_ISO_DATE);
+        Tracked tracked = symbols.computeIfAbsent(stockCode, code -> new Tracked());
+        tracked.ring.apply(date, minute, price, volume);
+        tracked.lastTickAt = System.currentTimeMillis();
+    }
+
+    // 하루 첫 조회 또는 틱이 끊긴 종목은 키움 분봉으로 채운 뒤 반환
+    private MinuteCandleRing fresh(String stockCode) {
+        Tracked tracked = symbols.computeIfAbsent(stockCode, code -> new Tracked());
+        long now = System.currentTimeMillis();
+        tracked.lastAccessAt = now;
+        ensureSubscribed(stockCode, tracked, now);
+
+        if (needsFetch(tracked, now)) {
+            synchronized (tracked) {
+                if (needsFetch(tracked, now)) {
+                    fetches.incrementAndGet();
+                    KiwoomMinuteBars bars = minuteChartApiKiwoom.getKiwoomMinuteBars(stockCode);
+                    if (bars != null) {
+                        tracked.ring.backfill(bars);
+                    }
+                    tracked.lastFetchAt = System.currentTimeMillis();
+                    return tracked.ring;
+                }
+            }
+        }
+        memoryHits.incrementAndGet();
+        return tracked.ring;
+    }
+
+    // 조회한 종목은 실시간 체결 구독 (한도 초과/실패면 1분 뒤 다시 시도, 그동안은 짧은 주기로 키움 분봉 재조회)
+    private void ensureSubscribed(String stockCode, Tracked tracked, long now) {
+        if (tracked.subscribed || now < tracked.subscribeRetryAt) {
+            return;
+        }
+        synchronized (tracked) {
+            if (tracked.subscribed || tracked.evicted || now < tracked.subscribeRetryAt) {
+                return;
+            }
+            if (subscriptions.getAndUpdate(n -> n < MAX_SUBSCRIPTIONS ? n + 1 : n) >= MAX_SUBSCRIPTIONS) {
+                tracked.subscribeRetryAt = now + REFRESH_INTERVAL_MS;
+                return;
+            }
+            try {
+                RealtimeExecutionClient.subscribe(stockCode);
+                tracked.subscribed = true;
+            } catch (Exception e) {
+                subscriptions.decrementAndGet();
+                tracked.subscribeRetryAt = now + REFRESH_INTERVAL_MS;
+                log.warn("분봉 실시간 구독 실패, 키움 분봉 재조회로 갱신 - 종목: {}, 사유: {}", stockCode, e.getMessage());
+            }
+        }
+    }
+
+    // 잡고 있는 구독 반납 (tracked 락 안에서 호출)
+    private void release(String stockCode, Tracked tracked) {
+        if (tracked.subscribed) {
+            tracked.subscribed = false;
+            RealtimeExecutionClient.unsubscribe(stockCode);
+            subscriptions.decrementAndGet();
+        }
+    }
+
+    private static boolean needsFetch(Tracked tracked, long now) {
+        boolean backfilled = tracked.ring.isBackfilled();
+        long refreshInterval = tracked.subscribed ? REFRESH_INTERVAL_MS : UNSUBSCRIBED_REFRESH_MS;
+        boolean stale = now - tracked.lastTickAt > refreshInterval;
+        long sinceFetch = now - tracked.lastFetchAt;
+        return backfilled
+                ? stale && sinceFetch > refreshInterval
+                : sinceFetch > RETRY_INTERVAL_MS;
+    }
+
+    private static ThreadPoolExecutor createBatchExecutor() {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(BATCH_THREADS, BATCH_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(BATCH_QUEUE_CAPACITY),
+                r -> {
+                    Thread t = new Thread(r, "minute-chart-batch-" + sequence.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class Tracked {
+        final MinuteCandleRing ring = new MinuteCandleRing();
+        volatile long lastTickAt;
+        volatile long lastFetchAt;
+        volatile long lastAccessAt;
+        volatile boolean subscribed;        // 이 저장소가 잡고 있는 실시간 구독 (내릴 때 반납)
+        volatile long subscribeRetryAt;
+        boolean evicted;                    // 메모리에서 내려짐 (tracked 락으로 보호)
+    }
+}
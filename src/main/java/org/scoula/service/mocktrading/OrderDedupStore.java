@@ -0,0 +1,128 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.mapper.trading.OrderRequestMapper;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 클라이언트 주문 키 중복 처리 방지 (재시도된 주문은 처음 결과를 그대로 반환)
+ * - 최근 처리 결과는 메모리에 10분간 보관해 DB 조회 없이 바로 응답
+ * - order_requests 테이블의 (account_id, client_order_id) 기본키가 최종 방어선
+ *   주문 트랜잭션 안에서 키를 먼저 선점하므로 동시에 들어온 재시도는 먼저 온 요청의 커밋까지 대기 후 중복으로 판정
+ * - 실패한 주문은 트랜잭션과 함께 키도 롤백되어 재시도 시 다시 처리됨
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class OrderDedupStore implements ApplicationListener<ContextRefreshedEvent> {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private static final long MEMORY_TTL_MILLIS = 10 * 60 * 1000L;
+    private static final long DB_RETENTION_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final OrderRequestMapper orderRequestMapper;
+
+    // "계좌ID|주문키" -> 처리 결과
+    private final Map<String, Remembered> recent = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (ready || event.getApplicationContext().getParent() != null) {
+            return;
+        }
+        try {
+            orderRequestMapper.createOrderRequestTable();
+            ready = true;
+        } catch (Exception e) {
+            log.error("주문 키 테이블 초기화 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 메모리에 남아있는 처리 결과 (없거나 만료되면 null)
+     */
+    public String find(Integer accountId, String clientOrderId) {
+        Remembered remembered = recent.get(key(accountId, clientOrderId));
+        if (remembered == null || remembered.expiresAt < System.currentTimeMillis()) {
+            return null;
+        }
+        return remembered.result;
+    }
+
+    /**
+     * 주문 키 선점 (주문 트랜잭션 안에서 호출, 이미 처리된 키면 false)
+     */
+    public boolean claim(Integer accountId, String clientOrderId) {
+        return orderRequestMapper.insertOrderRequest(accountId, clientOrderId) == 1;
+    }
+
+    /**
+     * 이미 처리된 키의 저장 결과
+     */
+    public String storedResult(Integer accountId, String clientOrderId) {
+        String result = orderRequestMapper.selectOrderRequestResult(accountId, clientOrderId);
+        if (result != null) {
+            remember(accountId, clientOrderId, result);
+        }
+        return result;
+    }
+
+    /**
+     * 처리 결과 저장 (주문 트랜잭션 안에서 호출)
+     */
+    public void record(Integer accountId, String clientOrderId, String result) {
+        orderRequestMapper.updateOrderRequestResult(accountId, clientOrderId, result);
+    }
+
+    /**
+     * 커밋된 처리 결과를 메모리에 보관
+     */
+    public void remember(Integer accountId, String clientOrderId, String result) {
+        recent.put(key(accountId, clientOrderId), new Remembered(result, System.currentTimeMillis() + MEMORY_TTL_MILLIS));
+    }
+
+    /**
+     * 만료된 결과 정리 (메모리 10분 / DB 1일)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void purge() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(remembered -> remembered.expiresAt < now);
+        if (!ready) {
+            return;
+        }
+        try {
+            int deleted = orderRequestMapper.deleteOrderRequestsBefore(new Timestamp(now - DB_RETENTION_MILLIS));
+            if (deleted > 0) {
+                log.debug("만료된 주문 키 {}건 삭제", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("주문 키 정리 실패: {}", e.getMessage());
+        }
+    }
+
+    private static String key(Integer accountId, String clientOrderId) {
+        return accountId + "|" + clientOrderId;
+    }
+
+    private static final class Remembered {
+        final String result;
+        final long expiresAt;
+
+        Remembered(String result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
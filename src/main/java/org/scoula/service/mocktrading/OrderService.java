@@ -0,0 +1,571 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.domain.mocktrading.MarketOrderRequestDto;
+import org.scoula.domain.mocktrading.OrderRequestDto;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+import org.scoula.domain.mocktrading.vo.Holding;
+import org.scoula.domain.mocktrading.vo.Transaction;
+import org.scoula.exception.OrderException;
+import org.scoula.mapper.trading.HoldingMapper;
+import org.scoula.mapper.trading.OrderMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 모의투자 주문 처리 (지정가 접수 / 조회 / 취소 / 체결, 시장가 체결)
+ * - Hikari 커넥션 풀 + MyBatis 매퍼 사용, 주문 하나는 커넥션 하나 + 트랜잭션 하나로 처리
+ * - 사용자에게 돌려줄 오류는 OrderException으로 던지고, 트랜잭션은 롤백됨
+ * - 잔고/보유 수량은 조건부 UPDATE(WHERE 잔고 >= 금액)로 예약하여 동시 주문에도 초과 차감되지 않음
+ * - 클라이언트 주문 키(clientOrderId)가 있으면 재시도된 요청은 다시 처리하지 않고 처음 결과를 반환
+ * - 주문 키가 없는 시장가 주문은 계좌 원장(AccountLedger)에서 체결 (원장 기록이 커밋된 뒤 응답, DB 반영은 묶어서)
+ *   주문 키가 있으면 중복 판정과 체결이 한 트랜잭션이어야 하므로 아래의 DB 경로로 처리
+ * - DB를 직접 수정하므로 계좌 원장(AccountLedger.exclusive)으로 해당 계좌를 먼저 반영하고 커밋까지 원장 체결을 막음
+ *   (원장 반영이 끝난 뒤 트랜잭션을 시작하므로 주문 하나가 커넥션을 두 개 잡지 않음)
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class OrderService {
+
+    private final OrderMapper orderMapper;
+    private final HoldingMapper holdingMapper;
+    private final LimitOrderMatchingEngine matchingEngine;
+    private final AccountLedger accountLedger;
+    private final OrderDedupStore orderDedupStore;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 사용자 ID로 계좌 ID 조회
+     */
+    public Integer findAccountId(Integer userId) {
+        Integer accountId = orderMapper.selectAccountIdByUserId(userId);
+        if (accountId == null || accountId <= 0) {
+            throw OrderException.badRequest("계좌 정보가 존재하지 않습니다.");
+        }
+        return accountId;
+    }
+
+    /**
+     * 지정가 주문 접수 - 매수는 잔고, 매도는 보유 주식을 먼저 예약(차감)하고 대기 주문 저장
+     */
+    public String placeLimitOrder(Integer accountId, OrderRequestDto orderRequest) {
+        validateLimitOrder(orderRequest);
+        return inAccountTransaction(Collections.singleton(accountId), () -> insertLimitOrder(accountId, orderRequest));
+    }
+
+    private String insertLimitOrder(Integer accountId, OrderRequestDto orderRequest) {
+        // 재시도된 주문이면 처음 결과 반환
+        String clientOrderId = normalizeClientOrderId(orderRequest.getClientOrderId());
+        String previous = replayIfDuplicate(accountId, clientOrderId);
+        if (previous != null) {
+            return previous;
+        }
+
+        long requiredAmount = (long) orderRequest.getQuantity() * orderRequest.getTargetPrice();
+
+        if ("BUY".equalsIgnoreCase(orderRequest.getOrderType())) {
+            // 매수: 주문 금액만큼 현금 예약
+            reserveBalance(accountId, requiredAmount);
+        } else {
+            // 매도: 주문 수량만큼 보유 주식 예약
+            reserveHolding(accountId, orderRequest.getStockCode(), orderRequest.getQuantity());
+        }
+
+        PendingOrderDto order = new PendingOrderDto();
+        order.setAccountId(accountId);
+        order.setStockCode(orderRequest.getStockCode());
+        order.setStockName(orderRequest.getStockName());
+        order.setOrderType(orderRequest.getOrderType());
+        order.setQuantity(orderRequest.getQuantity());
+        order.setTargetPrice(orderRequest.getTargetPrice());
+        if (orderMapper.insertPendingOrder(order) != 1) {
+            throw new OrderException(HttpStatus.INTERNAL_SERVER_ERROR, "주문 저장에 실패했습니다.");
+        }
+        order.setCreatedAt(new Timestamp(System.currentTimeMillis()));
+
+        // 커밋된 주문만 매칭 엔진에 등록
+        afterCommit(() -> matchingEngine.add(order));
+
+        return recordResult(accountId, clientOrderId, String.format("주문이 성공적으로 접수되었습니다. [%s] %s %d주 @ %d원",
+                orderRequest.getOrderType(),
+                orderRequest.getStockCode(),
+                orderRequest.getQuantity(),
+                orderRequest.getTargetPrice()));
+    }
+
+    /**
+     * 지정가 주문 입력값 검증 (DB 조회 없음, 비동기 접수 전에도 사용)
+     */
+    public void validateLimitOrder(OrderRequestDto orderRequest) {
+        if (orderRequest.getQuantity() <= 0 ||
+                orderRequest.getTargetPrice() <= 0 ||
+                orderRequest.getStockCode() == null ||
+                (!"BUY".equalsIgnoreCase(orderRequest.getOrderType()) && !"SELL".equalsIgnoreCase(orderRequest.getOrderType()))) {
+            throw OrderException.badRequest("잘못된 주문 정보입니다.");
+        }
+        normalizeClientOrderId(orderRequest.getClientOrderId());
+    }
+
+    /**
+     * 계좌의 대기 주문 목록
+     */
+    public List<PendingOrderDto> getPendingOrders(Integer accountId) {
+        return orderMapper.selectPendingOrdersByAccount(accountId);
+    }
+
+    /**
+     * 대기 주문 일괄 취소 - 본인 계좌 주문만, 매수는 잔고 / 매도는 보유 주식 복구
+     * - 같은 주문 ID가 여러 번 오면 한 번만 취소
+     */
+    public void cancelOrders(Integer userId, List<Integer> requestedOrderIds) {
+        List<Integer> orderIds = new ArrayList<>(new LinkedHashSet<>(requestedOrderIds));
+        List<PendingOrderDto> orders = orderMapper.selectPendingOrdersByIds(orderIds);
+        if (orders.size() != orderIds.size()) {
+            throw new OrderException(HttpStatus.NOT_FOUND, "일부 주문을 찾을 수 없습니다.");
+        }
+
+        // 본인 계좌 확인 (user_accounts 조인 한 번)
+        List<Integer> foreignOrderIds = orderMapper.selectForeignOrderIds(userId, orderIds);
+        if (!foreignOrderIds.isEmpty()) {
+            throw new OrderException(HttpStatus.FORBIDDEN,
+                    "본인 계좌의 주문만 취소할 수 있습니다. (orderId: " + foreignOrderIds.get(0) + ")");
+        }
+
+        Set<Integer> accountIds = new HashSet<>();
+        for (PendingOrderDto order : orders) {
+            accountIds.add(order.getAccountId());
+        }
+        inAccountTransaction(accountIds, () -> {
+            deleteAndRestore(orderIds, orders);
+            return null;
+        });
+    }
+
+    // 대기 주문 삭제 + 예약분 복구 (삭제 건수가 다르면 다른 요청이 먼저 처리한 것 - 전체 롤백)
+    private void deleteAndRestore(List<Integer> orderIds, List<PendingOrderDto> orders) {
+        if (orderMapper.deletePendingOrders(orderIds) != orderIds.size()) {
+            throw new OrderException(HttpStatus.INTERNAL_SERVER_ERROR, "일부 주문 삭제에 실패했습니다.");
+        }
+
+        // 매수는 계좌별 환불 금액, 매도는 계좌+종목별 복구 수량으로 합산 후 한 번에 반영
+        Map<Integer, Long> refunds = new LinkedHashMap<>();
+        Map<String, Holding> restores = new LinkedHashMap<>();
+        for (PendingOrderDto order : orders) {
+            if ("BUY".equalsIgnoreCase(order.getOrderType())) {
+                refunds.merge(order.getAccountId(), (long) order.getQuantity() * order.getTargetPrice(), Long::sum);
+            } else if ("SELL".equalsIgnoreCase(order.getOrderType())) {
+                Holding restore = restores.computeIfAbsent(holdingKey(order.getAccountId(), order.getStockCode()),
+                        k -> Holding.builder()
+                                .accountId(order.getAccountId())
+                                .stockCode(order.getStockCode())
+                                .quantity(0)
+                                .build());
+                restore.setQuantity(restore.getQuantity() + order.getQuantity());
+            }
+        }
+        if (!refunds.isEmpty()) {
+            orderMapper.addBalances(refunds);
+        }
+        if (!restores.isEmpty()) {
+            orderMapper.addHoldingQuantities(new ArrayList<>(restores.values()));
+        }
+
+        afterCommit(() -> matchingEngine.remove(orders));
+    }
+
+    /**
+     * 체결 조건을 만족한 대기 주문을 한 트랜잭션으로 일괄 체결 (목표가 체결)
+     * - 매칭 엔진(실시간 틱)과 수동 체결(분봉 판정)이 함께 사용
+     * - 주문 수와 무관하게 조회/수정은 종류별 한 문장씩 (대기 주문 잠금·삭제, 보유 종목 조회·수정·추가·삭제, 잔고, 거래내역)
+     * - 접수 시 매수는 현금, 매도는 주식이 이미 예약되어 있으므로 반대쪽만 반영
+     * @return 체결된 거래내역 (이미 취소/체결된 주문 제외)
+     */
+    public List<Map<String, Object>> settleMatchedOrders(List<PendingOrderDto> matchedOrders) {
+        if (matchedOrders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Integer> accountIds = new HashSet<>();
+        for (PendingOrderDto order : matchedOrders) {
+            accountIds.add(order.getAccountId());
+        }
+        return inAccountTransaction(accountIds, () -> settle(matchedOrders));
+    }
+
+    private List<Map<String, Object>> settle(List<PendingOrderDto> matchedOrders) {
+        // 1. 아직 남아있는 주문만 잠그고 삭제 (다른 요청이 먼저 체결/취소한 주문은 제외 - 이중 체결 방지)
+        List<Integer> requestedIds = new ArrayList<>(matchedOrders.size());
+        for (PendingOrderDto order : matchedOrders) {
+            requestedIds.add(order.getOrderId());
+        }
+        Set<Integer> lockedIds = new HashSet<>(orderMapper.selectPendingOrderIdsForUpdate(requestedIds));
+        List<PendingOrderDto> orders = new ArrayList<>(lockedIds.size());
+        for (PendingOrderDto order : matchedOrders) {
+            if (lockedIds.contains(order.getOrderId())) {
+                orders.add(order);
+            }
+        }
+        if (orders.size() != matchedOrders.size()) {
+            log.info("이미 처리된 대기 주문 {}건 건너뜀", matchedOrders.size() - orders.size());
+        }
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        orderMapper.deletePendingOrders(new ArrayList<>(lockedIds));
+
+        // 2. 관련 보유 종목을 한 번에 조회 후 메모리에서 주문 순서대로 반영
+        Map<String, Holding> positions = new LinkedHashMap<>();
+        for (Holding holding : orderMapper.selectHoldingsByOrders(orders)) {
+            positions.put(holdingKey(holding.getAccountId(), holding.getStockCode()), holding);
+        }
+        Set<String> newPositions = new HashSet<>();
+        Map<Integer, Long> proceeds = new LinkedHashMap<>();
+        List<Transaction> transactions = new ArrayList<>(orders.size());
+
+        for (PendingOrderDto order : orders) {
+            String key = holdingKey(order.getAccountId(), order.getStockCode());
+            long amount = (long) order.getQuantity() * order.getTargetPrice();
+            Holding holding = positions.get(key);
+
+            if ("BUY".equalsIgnoreCase(order.getOrderType())) {
+                if (holding != null) {
+                    int newQuantity = holding.getQuantity() + order.getQuantity();
+                    long newTotalCost = holding.getTotalCost() + amount;
+                    holding.setQuantity(newQuantity);
+                    holding.setTotalCost(newTotalCost);
+                    holding.setAveragePrice(BigDecimal.valueOf(newTotalCost / newQuantity));
+                } else {
+                    positions.put(key, Holding.builder()
+                            .accountId(order.getAccountId())
+                            .stockCode(order.getStockCode())
+                            .stockName(order.getStockName())
+                            .quantity(order.getQuantity())
+                            .averagePrice(BigDecimal.valueOf(order.getTargetPrice()))
+                            .totalCost(amount)
+                            .build());
+                    newPositions.add(key);
+                }
+            } else {
+                // 매도 대금 입금, 예약된 수량만큼 매수원가 차감
+                proceeds.merge(order.getAccountId(), amount, Long::sum);
+                if (holding != null) {
+                    long averagePrice = holding.getAveragePrice() != null ? holding.getAveragePrice().longValue() : 0L;
+                    holding.setTotalCost(Math.max(0L, holding.getTotalCost() - averagePrice * order.getQuantity()));
+                }
+            }
+
+            transactions.add(Transaction.builder()
+                    .accountId(order.getAccountId())
+                    .stockCode(order.getStockCode())
+                    .stockName(order.getStockName())
+                    .transactionType(order.getOrderType())
+                    .orderType("LIMIT")
+                    .quantity(order.getQuantity())
+                    .price(order.getTargetPrice())
+                    .totalAmount(amount)
+                    .orderCreatedAt(order.getCreatedAt())
+                    .orderPrice(order.getTargetPrice())
+                    .build());
+        }
+
+        // 3. 보유 종목 반영 (추가 / 수정 / 수량 0이면서 매도 대기 주문이 없으면 삭제)
+        List<Holding> inserts = new ArrayList<>();
+        List<Holding> updates = new ArrayList<>();
+        List<Holding> emptied = new ArrayList<>();
+        for (Map.Entry<String, Holding> entry : positions.entrySet()) {
+            Holding holding = entry.getValue();
+            if (newPositions.contains(entry.getKey())) {
+                inserts.add(holding);
+            } else if (holding.getQuantity() > 0) {
+                updates.add(holding);
+            } else {
+                emptied.add(holding);
+            }
+        }
+        if (!emptied.isEmpty()) {
+            Set<String> stillReserved = new HashSet<>();
+            for (PendingOrderDto sell : orderMapper.selectPendingSellPositions(emptied)) {
+                stillReserved.add(holdingKey(sell.getAccountId(), sell.getStockCode()));
+            }
+            List<Integer> deletes = new ArrayList<>();
+            for (Holding holding : emptied) {
+                if (stillReserved.contains(holdingKey(holding.getAccountId(), holding.getStockCode()))) {
+                    updates.add(holding);
+                } else {
+                    deletes.add(holding.getHoldingId());
+                }
+            }
+            if (!deletes.isEmpty()) {
+                orderMapper.deleteHoldings(deletes);
+            }
+        }
+        if (!updates.isEmpty()) {
+            orderMapper.updateHoldingPositions(updates);
+        }
+        if (!inserts.isEmpty()) {
+            orderMapper.insertHoldings(inserts);
+        }
+
+        // 4. 매도 대금 입금 (계좌별 합산) + 거래내역 일괄 저장
+        if (!proceeds.isEmpty()) {
+            orderMapper.addBalances(proceeds);
+        }
+        orderMapper.insertTransactions(transactions);
+
+        List<Map<String, Object>> executedTransactions = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            Map<String, Object> transInfo = new LinkedHashMap<>();
+            transInfo.put("accountId", transaction.getAccountId());
+            transInfo.put("stockCode", transaction.getStockCode());
+            transInfo.put("stockName", transaction.getStockName());
+            transInfo.put("transactionType", transaction.getTransactionType());
+            transInfo.put("orderType", "LIMIT");
+            transInfo.put("quantity", transaction.getQuantity());
+            transInfo.put("price", transaction.getPrice());
+            transInfo.put("totalAmount", transaction.getTotalAmount());
+            transInfo.put("orderCreatedAt", transaction.getOrderCreatedAt());
+            transInfo.put("orderPrice", transaction.getOrderPrice());
+            transInfo.put("transactionId", transaction.getTransactionId());
+            executedTransactions.add(transInfo);
+        }
+
+        afterCommit(() -> matchingEngine.remove(orders));
+        return executedTransactions;
+    }
+
+    /**
+     * 시장가 주문 즉시 체결
+     */
+    public String placeMarketOrder(Integer accountId, MarketOrderRequestDto request) {
+        if (request.getQuantity() <= 0 ||
+                request.getMarketPrice() <= 0 ||
+                request.getStockCode() == null ||
+                request.getStockName() == null ||
+                request.getTransactionType() == null) {
+            throw OrderException.badRequest("잘못된 주문 정보입니다.");
+        }
+        if (accountLedger.isReady() && normalizeClientOrderId(request.getClientOrderId()) == null) {
+            return tradeOnLedger(accountId, request);
+        }
+        return inAccountTransaction(Collections.singleton(accountId), () -> executeMarketOrder(accountId, request));
+    }
+
+    // 계좌 원장에서 체결 (원장 기록이 커밋되면 반환)
+    private String tradeOnLedger(Integer accountId, MarketOrderRequestDto request) {
+        String transactionType = request.getTransactionType().toUpperCase();
+        if (!"BUY".equals(transactionType) && !"SELL".equals(transactionType)) {
+            throw OrderException.badRequest("알 수 없는 거래 유형입니다.");
+        }
+        AccountLedger.TradeResult result = accountLedger.trade(accountId, request.getStockCode(),
+                request.getStockName(), transactionType, "MARKET",
+                request.getQuantity(), request.getMarketPrice(), null);
+
+        switch (result) {
+            case NO_ACCOUNT:
+                throw OrderException.badRequest("계좌 정보가 존재하지 않습니다.");
+            case INSUFFICIENT_BALANCE:
+                throw OrderException.badRequest("잔고가 부족합니다.");
+            case INSUFFICIENT_HOLDING:
+                throw OrderException.badRequest("보유 주식 수량이 부족합니다.");
+            default:
+                return "BUY".equals(transactionType)
+                        ? "시장가 매수 주문이 성공적으로 체결되었습니다."
+                        : "시장가 매도 주문이 성공적으로 체결되었습니다.";
+        }
+    }
+
+    private String executeMarketOrder(Integer accountId, MarketOrderRequestDto request) {
+        String clientOrderId = normalizeClientOrderId(request.getClientOrderId());
+        String previous = replayIfDuplicate(accountId, clientOrderId);
+        if (previous != null) {
+            return previous;
+        }
+
+        long totalAmount = (long) request.getQuantity() * request.getMarketPrice();
+
+        if ("BUY".equalsIgnoreCase(request.getTransactionType())) {
+            reserveBalance(accountId, totalAmount);
+
+            insertMarketTransaction(accountId, request, totalAmount);
+
+            Holding holding = orderMapper.selectHolding(accountId, request.getStockCode());
+            if (holding != null) {
+                // 기존 보유 종목: 수량, 총금액, 평균단가 업데이트
+                int newQuantity = holding.getQuantity() + request.getQuantity();
+                long newTotalCost = holding.getTotalCost() + totalAmount;
+                orderMapper.updateHoldingPosition(holding.getHoldingId(), newQuantity,
+                        (int) (newTotalCost / newQuantity), newTotalCost, true);
+            } else {
+                // 최초 구매: 새 row 추가
+                holdingMapper.insertHolding(Holding.builder()
+                        .accountId(accountId)
+                        .stockCode(request.getStockCode())
+                        .stockName(request.getStockName())
+                        .quantity(request.getQuantity())
+                        .averagePrice(BigDecimal.valueOf(request.getMarketPrice()))
+                        .totalCost(totalAmount)
+                        .build());
+            }
+            return recordResult(accountId, clientOrderId, "시장가 매수 주문이 성공적으로 체결되었습니다.");
+
+        } else if ("SELL".equalsIgnoreCase(request.getTransactionType())) {
+            reserveHolding(accountId, request.getStockCode(), request.getQuantity());
+
+            if (orderMapper.addBalance(accountId, totalAmount) != 1) {
+                throw new OrderException(HttpStatus.INTERNAL_SERVER_ERROR, "매도 대금 입금에 실패했습니다.");
+            }
+
+            insertMarketTransaction(accountId, request, totalAmount);
+
+            Holding holding = orderMapper.selectHolding(accountId, request.getStockCode());
+            applySoldQuantity(holding, request.getQuantity(), true);
+            return recordResult(accountId, clientOrderId, "시장가 매도 주문이 성공적으로 체결되었습니다.");
+
+        } else {
+            throw OrderException.badRequest("알 수 없는 거래 유형입니다.");
+        }
+    }
+
+    // 주문 키 정리 (없으면 null, 너무 길면 거부)
+    private String normalizeClientOrderId(String clientOrderId) {
+        if (clientOrderId == null || clientOrderId.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = clientOrderId.trim();
+        if (trimmed.length() > OrderDedupStore.MAX_KEY_LENGTH) {
+            throw OrderException.badRequest("주문 키는 " + OrderDedupStore.MAX_KEY_LENGTH + "자 이하여야 합니다.");
+        }
+        return trimmed;
+    }
+
+    /**
+     * 이미 처리된 주문 키면 처음 결과, 새 키면 선점 후 null
+     * 선점은 주문과 같은 트랜잭션이라 동시에 들어온 같은 키는 먼저 온 요청의 커밋까지 대기
+     */
+    private String replayIfDuplicate(Integer accountId, String clientOrderId) {
+        if (clientOrderId == null) {
+            return null;
+        }
+        String remembered = orderDedupStore.find(accountId, clientOrderId);
+        if (remembered == null && orderDedupStore.claim(accountId, clientOrderId)) {
+            return null;
+        }
+        String result = remembered != null ? remembered : orderDedupStore.storedResult(accountId, clientOrderId);
+        if (result == null) {
+            throw new OrderException(HttpStatus.CONFLICT, "같은 주문 키의 주문이 처리 중입니다.");
+        }
+        log.info("중복 주문 요청 - 계좌: {}, 주문 키: {}", accountId, clientOrderId);
+        return result;
+    }
+
+    // 주문 키가 있으면 결과 저장 (커밋 후 메모리에도 보관)
+    private String recordResult(Integer accountId, String clientOrderId, String result) {
+        if (clientOrderId != null) {
+            orderDedupStore.record(accountId, clientOrderId, result);
+            afterCommit(() -> orderDedupStore.remember(accountId, clientOrderId, result));
+        }
+        return result;
+    }
+
+    /**
+     * 잔고 확인과 차감을 조건부 UPDATE 한 번으로 처리 (동시 주문 초과 인출 방지)
+     */
+    private void reserveBalance(Integer accountId, long amount) {
+        if (orderMapper.reserveBalance(accountId, amount) == 1) {
+            return;
+        }
+        // 실패 사유 구분용 조회
+        if (orderMapper.selectBalance(accountId) == null) {
+            throw OrderException.badRequest("계좌 정보를 찾을 수 없습니다.");
+        }
+        throw OrderException.badRequest("잔고가 부족합니다.");
+    }
+
+    /**
+     * 보유 수량 확인과 차감을 조건부 UPDATE 한 번으로 처리 (동시 매도 초과 방지)
+     */
+    private void reserveHolding(Integer accountId, String stockCode, int quantity) {
+        if (orderMapper.reserveHoldingQuantity(accountId, stockCode, quantity) == 1) {
+            return;
+        }
+        Holding holding = orderMapper.selectHolding(accountId, stockCode);
+        if (holding == null) {
+            throw OrderException.badRequest("해당 종목의 보유 주식이 없습니다.");
+        }
+        throw OrderException.badRequest("보유 주식 수량이 부족합니다.");
+    }
+
+    /**
+     * 수량이 이미 차감된 보유 종목에 매도분 매수원가 반영
+     * 남은 수량이 없고 매도 대기 주문도 없으면 삭제 (대기 주문이 있으면 취소 시 복구를 위해 유지)
+     */
+    private void applySoldQuantity(Holding holding, int soldQuantity, boolean resetValuation) {
+        long averagePrice = holding.getAveragePrice() != null ? holding.getAveragePrice().longValue() : 0L;
+        long newTotalCost = Math.max(0L, holding.getTotalCost() - averagePrice * soldQuantity);
+
+        if (holding.getQuantity() > 0
+                || orderMapper.countPendingSellOrders(holding.getAccountId(), holding.getStockCode()) > 0) {
+            orderMapper.updateHoldingPosition(holding.getHoldingId(), holding.getQuantity(), null, newTotalCost, resetValuation);
+        } else {
+            holdingMapper.deleteHolding(holding.getHoldingId());
+        }
+    }
+
+    /**
+     * 계좌 원장 반영 후 트랜잭션 하나로 실행, 커밋/롤백까지 해당 계좌의 원장 체결은 대기
+     * OrderException 등 런타임 예외는 롤백 후 그대로 전달
+     */
+    private <T> T inAccountTransaction(Collection<Integer> accountIds, Supplier<T> work) {
+        return accountLedger.exclusive(accountIds,
+                () -> new TransactionTemplate(transactionManager).execute(status -> work.get()));
+    }
+
+    // 트랜잭션 커밋 후 실행 (트랜잭션 밖이면 즉시)
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String holdingKey(Integer accountId, String stockCode) {
+        return accountId + "|" + stockCode;
+    }
+
+    private void insertMarketTransaction(Integer accountId, MarketOrderRequestDto request, long totalAmount) {
+        orderMapper.insertTransaction(Transaction.builder()
+                .accountId(accountId)
+                .stockCode(request.getStockCode())
+                .stockName(request.getStockName())
+                .transactionType(request.getTransactionType())
+                .orderType("MARKET")
+                .quantity(request.getQuantity())
+                .price(request.getMarketPrice())
+                .totalAmount(totalAmount)
+                .build());
+    }
+}
@@ -0,0 +1,106 @@
+package org.scoula.service.mocktrading;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+import org.scoula.util.mocktrading.MinuteCandleSeries;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 지정가 대기 주문 수동 체결 (분봉 기준)
+ * - 종목별 분봉은 MinuteCandleStore(실시간 틱 누적 분봉)에서 원시 배열로 가져옴
+ * - 주문마다 접수 시각 이후 첫 분봉을 이진 탐색한 뒤, 그 이후 구간의 최고가/최저가(미리 누적)로 한 번에 판정
+ *   (매수: 최저가 <= 목표가, 매도: 최고가 >= 목표가)
+ * - 매칭 엔진이 체결 구독을 잡지 못한 종목은 1분마다 이 방식으로 체결 (settleUnsubscribed)
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class OrderSettlementService {
+
+    private final MinuteCandleStore minuteCandleStore;
+    private final OrderService orderService;
+    private final LimitOrderMatchingEngine matchingEngine;
+
+    /**
+     * 체결 구독이 없는 종목의 대기 주문을 분봉으로 체결 (구독 한도에 빈 자리가 나면 먼저 다시 구독)
+     */
+    @Scheduled(fixedDelay = 60_000L)
+    public void settleUnsubscribed() {
+        matchingEngine.retrySubscriptions();
+        List<PendingOrderDto> orders = matchingEngine.unsubscribedOrders();
+        if (orders.isEmpty()) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> executed = settle(orders);
+            if (!executed.isEmpty()) {
+                log.info("구독 없는 종목 분봉 체결 - 대상 {}건 중 {}건", orders.size(), executed.size());
+            }
+        } catch (Exception e) {
+            log.error("구독 없는 종목 분봉 체결 실패 (다음 주기에 재시도): {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 대기 주문 중 체결 조건을 만족한 주문을 체결 처리
+     * @return 체결된 거래내역
+     */
+    public List<Map<String, Object>> settle(List<PendingOrderDto> pendingOrders) {
+        if (pendingOrders.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 1. 종목별 분봉 조회 및 변환 (종목당 1회)
+        Map<String, MinuteCandleSeries> seriesByStock = new HashMap<>();
+        for (PendingOrderDto order : pendingOrders) {
+            String stockCode = order.getStockCode();
+            if (seriesByStock.containsKey(stockCode)) continue;
+            seriesByStock.put(stockCode, minuteCandleStore.getSeries(stockCode));
+        }
+        log.info("체결 판정용 분봉 조회 완료 - 종목 {}개", seriesByStock.size());
+
+        // 2. 주문별 체결 판정
+        List<PendingOrderDto> filled = new ArrayList<>();
+        for (PendingOrderDto order : pendingOrders) {
+            MinuteCandleSeries series = seriesByStock.get(order.getStockCode());
+            if (series != null && reachedTarget(order, series)) {
+                filled.add(order);
+            }
+        }
+        if (filled.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 3. 체결 반영 (한 트랜잭션)
+        return orderService.settleMatchedOrders(filled);
+    }
+
+    // 접수 이후 ~ 현재까지 분봉 중 목표가에 도달한 분봉이 있는지
+    private boolean reachedTarget(PendingOrderDto order, MinuteCandleSeries series) {
+        // 접수 시각 이후에 시작한 분봉부터 (접수 분봉 자체는 제외)
+        long createdAt = order.getCreatedAt() != null ? order.getCreatedAt().getTime() : 0L;
+        long fromMinute = (createdAt + 59_999L) / 60_000L;
+
+        int from = series.firstIndexAtOrAfter(fromMinute);
+        if (from >= series.size()) {
+            return false;
+        }
+        int maxHigh = series.maxHighFrom(from);
+        int minLow = series.minLowFrom(from);
+        boolean executed = "BUY".equalsIgnoreCase(order.getOrderType())
+                ? order.getTargetPrice() >= minLow
+                : order.getTargetPrice() <= maxHigh;
+
+        log.debug("[{}] 주문ID: {}, 접수~현재 구간 최고가: {}, 최저가: {}, 체결: {}",
+                order.getStockCode(), order.getOrderId(), maxHigh, minLow, executed);
+        return executed;
+    }
+}
@@ -0,0 +1,104 @@
+package org.scoula.service.mocktrading;
+
+import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.RealtimeBidsAndAsksClient;
+import org.scoula.api.mocktrading.RealtimeExecutionClient;
+import org.scoula.api.mocktrading.RealtimeNxtBidsAndAsksClient;
+import org.scoula.controller.mocktrading.StockRelaySocket;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 트레이딩 화면 시청자별 실시간 구독 관리
+ * - 시청자(HTTP 세션) 하나당 종목 1개를 구독하며, 종목을 바꾸면 이전 종목 구독을 반납
+ * - 실제 업스트림 등록/해지는 RealtimeFeedHub의 참조 카운트가 결정
+ * - 페이지 이탈 API를 호출하지 못하고 떠난 시청자는 HTTP 세션 만료 시 반납 (TradingSessionListener)
+ * - 시청 종목을 StockRelaySocket에 알려, 종목 구독 메시지를 보내지 않는 기존 프론트는 그 종목만 받게 함
+ */
+@Service
+@Log4j2
+public class RealtimeSubscriptionService {
+
+    private static final LocalTime KRX_CLOSE_TIME = LocalTime.of(15, 30);
+
+    // 시청자 ID -> 구독 중인 종목
+    private final Map<String, Watch> viewers = new ConcurrentHashMap<>();
+
+    /**
+     * 시청자의 구독 종목 변경 (같은 종목/거래소면 아무 것도 하지 않음)
+     */
+    public synchronized String watch(String viewerId, String stockCode) throws Exception {
+        boolean nxt = !LocalTime.now().isBefore(KRX_CLOSE_TIME);
+        Watch previous = viewers.get(viewerId);
+
+        if (previous != null && previous.stockCode.equals(stockCode) && previous.nxt == nxt) {
+            return nxt ? "NXT" : "KRX";
+        }
+
+        // 새 구독을 먼저 획득해야 같은 종목 재구독 시 업스트림 해지/재등록이 일어나지 않음
+        if (nxt) {
+            RealtimeNxtBidsAndAsksClient.subscribe(stockCode);
+        } else {
+            RealtimeBidsAndAsksClient.subscribe(stockCode);
+        }
+        try {
+            RealtimeExecutionClient.subscribe(stockCode);
+        } catch (Exception e) {
+            // 체결 구독이 거절되면(한도 초과 등) 먼저 획득한 호가 구독도 반납
+            if (nxt) {
+                RealtimeNxtBidsAndAsksClient.unsubscribe(stockCode);
+            } else {
+                RealtimeBidsAndAsksClient.unsubscribe(stockCode);
+            }
+            throw e;
+        }
+        viewers.put(viewerId, new Watch(stockCode, nxt));
+        StockRelaySocket.setWatchedStock(viewerId, stockCode);
+
+        if (previous != null) {
+            release(previous);
+        }
+
+        log.debug("실시간 구독 변경 - 시청자: {}, 종목: {}, 거래소: {}", viewerId, stockCode, nxt ? "NXT" : "KRX");
+        return nxt ? "NXT" : "KRX";
+    }
+
+    /**
+     * 시청자의 구독 해제 (페이지 이탈)
+     */
+    public synchronized boolean unwatch(String viewerId) {
+        Watch previous = viewers.remove(viewerId);
+        if (previous == null) {
+            return false;
+        }
+        StockRelaySocket.setWatchedStock(viewerId, null);
+        release(previous);
+        return true;
+    }
+
+    public int getViewerCount() {
+        return viewers.size();
+    }
+
+    private void release(Watch watch) {
+        if (watch.nxt) {
+            RealtimeNxtBidsAndAsksClient.unsubscribe(watch.stockCode);
+        } else {
+            RealtimeBidsAndAsksClient.unsubscribe(watch.stockCode);
+        }
+        RealtimeExecutionClient.unsubscribe(watch.stockCode);
+    }
+
+    private static class Watch {
+        private final String stockCode;
+        private final boolean nxt;
+
+        Watch(String stockCode, boolean nxt) {
+            this.stockCode = stockCode;
+            this.nxt = nxt;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.scoula.service.mocktrading;
 
 import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.ApiRateLimiter;
 import org.scoula.api.mocktrading.BasicInfoService;
 import org.scoula.mapper.StockMapper;
 import org.springframework.stereotype.Service;
@@ -25,10 +26,20 @@ public class StockIndustryUpdaterService {
         this.basicInfoService = basicInfoService;
     }
 
+    @SuppressWarnings("try")
     public void updateAllStockIndustries() {
         List<Map<String, Object>> stocks = stockMapper.getAllStocks();
         log.info("🔍 총 {}개 종목 업종 업데이트 시작", stocks.size());
 
+        // 배치 우선순위 - 호출 간격은 ApiRateLimiter가 조절하고, 화면 요청이 먼저 처리됨
+        try (ApiRateLimiter.Scope ignored = ApiRateLimiter.batch()) {
+            updateIndustries(stocks);
+        }
+
+        log.info("전체 업종 업데이트 완료!");
+    }
+
+    private void updateIndustries(List<Map<String, Object>> stocks) {
         for (Map<String, Object> stock : stocks) {
             String code = (String) stock.get("code");
 
@@ -58,13 +69,9 @@ public class StockIndustryUpdaterService {
                         param.get("industry_std_name"),
                         param.get("stock_type_code"));
 
-                Thread.sleep(200); // API rate limit 대응
-
             } catch (Exception e) {
                 log.warn("❌ [{}] 업종 업데이트 실패: {}", code, e.getMessage());
             }
         }
-
-        log.info("전체 업종 업데이트 완료!");
     }
 }
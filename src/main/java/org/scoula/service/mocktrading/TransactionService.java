@@ -2,13 +2,11 @@ package org.scoula.service.mocktrading;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.scoula.domain.mocktrading.MarketOrderRequestDto;
 import org.scoula.domain.mocktrading.vo.Transaction;
-import org.scoula.domain.mocktrading.vo.UserAccount;
+import org.scoula.exception.OrderException;
 import org.scoula.mapper.TransactionMapper;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -19,14 +17,7 @@ public class TransactionService {
 
     private final TransactionMapper transactionMapper;
 
-    // 순환 참조 방지를 위한 지연 로딩
-    @Autowired
-    @Lazy
-    private UserAccountService userAccountService;
-
-    @Autowired
-    @Lazy
-    private HoldingService holdingService;
+    private final OrderService orderService;
 
     /**
      * 사용자의 거래 내역 조회
@@ -59,128 +50,28 @@ public class TransactionService {
     }
 
     /**
-     * 주문 처리 (매수/매도)
+     * 주문 처리 (매수/매도) - 시장가 주문과 같은 경로(OrderService.placeMarketOrder)로 체결
      */
-    @Transactional
     public boolean processOrder(Integer userId, String stockCode, String stockName,
                                 String transactionType, String orderType,
                                 Integer quantity, Integer price, Integer orderPrice) {
+        log.info("주문 처리 시작 - 사용자 ID: {}, 종목: {}, 타입: {}, 수량: {}, 가격: {}",
+                userId, stockCode, transactionType, quantity, price);
+
+        MarketOrderRequestDto request = new MarketOrderRequestDto();
+        request.setTransactionType(transactionType);
+        request.setQuantity(quantity);
+        request.setStockCode(stockCode);
+        request.setStockName(stockName);
+        request.setMarketPrice(price);
         try {
-            log.info("주문 처리 시작 - 사용자 ID: {}, 종목: {}, 타입: {}, 수량: {}, 가격: {}",
-                    userId, stockCode, transactionType, quantity, price);
-
-            // 사용자 계좌 정보 조회
-            UserAccount account = userAccountService.getUserAccount(userId);
-            if (account == null) {
-                log.error("계좌 정보를 찾을 수 없습니다 - 사용자 ID: {}", userId);
-                return false;
-            }
-
-            // 거래 타입별 처리
-            boolean orderSuccess = false;
-            if ("BUY".equals(transactionType)) {
-                orderSuccess = processBuyOrder(account, stockCode, stockName, orderType, quantity, price, orderPrice);
-            } else if ("SELL".equals(transactionType)) {
-                orderSuccess = processSellOrder(account, stockCode, stockName, orderType, quantity, price, orderPrice);
-            } else {
-                log.error("유효하지 않은 거래 타입: {}", transactionType);
-                return false;
-            }
-
-            // 거래 성공 시 거래 내역 저장
-            if (orderSuccess) {
-                long totalAmount = (long) quantity * price;
-
-                Transaction transaction = Transaction.builder()
-                        .accountId(account.getAccountId())
-                        .stockCode(stockCode)
-                        .stockName(stockName)
-                        .transactionType(transactionType)
-                        .orderType(orderType)
-                        .quantity(quantity)
-                        .price(price)
-                        .orderPrice(orderPrice)
-                        .totalAmount(totalAmount)
-                        .build();
-
-                int result = transactionMapper.insertTransaction(transaction);
-                if (result <= 0) {
-                    log.error("거래 내역 저장 실패");
-                    throw new RuntimeException("거래 내역 저장에 실패했습니다.");
-                }
-
-                log.info("주문 처리 완료 - 거래 ID: {}", transaction.getTransactionId());
-            }
-
-            return orderSuccess;
-
-        } catch (Exception e) {
-            log.error("주문 처리 실패", e);
-            throw new RuntimeException("주문 처리 중 오류가 발생했습니다.", e);
-        }
-    }
-
-    /**
-     * 매수 주문 처리
-     */
-    private boolean processBuyOrder(UserAccount account, String stockCode, String stockName,
-                                    String orderType, Integer quantity, Integer price, Integer orderPrice) {
-
-        long totalCost = (long) quantity * price;
-
-        // 잔고 확인
-        if (account.getCurrentBalance() < totalCost) {
-            log.warn("잔고 부족 - 현재 잔고: {}, 필요 금액: {}", account.getCurrentBalance(), totalCost);
+            String message = orderService.placeMarketOrder(orderService.findAccountId(userId), request);
+            log.info("주문 처리 완료 - {}", message);
+            return true;
+        } catch (OrderException e) {
+            log.warn("주문 처리 거절 - 사용자 ID: {}, 종목: {}: {}", userId, stockCode, e.getMessage());
             return false;
         }
-
-        // 계좌 잔고 차감
-        boolean balanceUpdated = userAccountService.updateBalance(
-                account.getAccountId(), -totalCost);
-
-        if (!balanceUpdated) {
-            log.error("계좌 잔고 업데이트 실패");
-            return false;
-        }
-
-        // 보유 종목 추가/업데이트
-        holdingService.addOrUpdateHolding(account.getAccountId(), stockCode, stockName, quantity, price);
-
-        log.info("매수 주문 완료 - 종목: {}, 수량: {}, 가격: {}, 총액: {}",
-                stockCode, quantity, price, totalCost);
-
-        return true;
-    }
-
-    /**
-     * 매도 주문 처리
-     */
-    private boolean processSellOrder(UserAccount account, String stockCode, String stockName,
-                                     String orderType, Integer quantity, Integer price, Integer orderPrice) {
-
-        // 보유 종목 확인 및 수량 차감
-        boolean holdingReduced = holdingService.reduceHolding(
-                account.getAccountId(), stockCode, quantity, price);
-
-        if (!holdingReduced) {
-            log.warn("보유 종목 부족 또는 매도 실패 - 종목: {}, 수량: {}", stockCode, quantity);
-            return false;
-        }
-
-        // 매도 금액 계좌에 추가
-        long totalAmount = (long) quantity * price;
-        boolean balanceUpdated = userAccountService.updateBalance(
-                account.getAccountId(), totalAmount);
-
-        if (!balanceUpdated) {
-            log.error("계좌 잔고 업데이트 실패");
-            return false;
-        }
-
-        log.info("매도 주문 완료 - 종목: {}, 수량: {}, 가격: {}, 총액: {}",
-                stockCode, quantity, price, totalAmount);
-
-        return true;
     }
 
     /**
@@ -5,12 +5,15 @@ import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.scoula.domain.mocktrading.vo.UserAccount;
 import org.scoula.mapper.trading.UserAccountMapper;
 import org.scoula.util.mocktrading.AccountNumberGenerator;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +22,10 @@ public class UserAccountService {
 
     private final UserAccountMapper userAccountMapper;
 
+    // 메모리 계좌 원장 (잔고 직접 수정 전 반영용)
+    private final AccountLedger accountLedger;
+    private final PlatformTransactionManager transactionManager;
+
     @Autowired
     @Lazy
     private HoldingService holdingService;
@@ -183,23 +190,14 @@ public class UserAccountService {
 
     /**
      * 크레딧 충전 (포인트를 현금으로 전환)
+     * - 계좌 원장 반영을 마친 뒤 트랜잭션을 시작하고, 크레딧 차감과 잔고 증가는 함께 커밋/롤백
      */
-    @Transactional
     public boolean chargeCredit(Integer userId, Integer creditAmount) {
         try {
             log.info("크레딧 충전 시작 - 사용자 ID: {}, 충전 크레딧: {}", userId, creditAmount);
 
-            // 1. 사용자 크레딧 확인 및 차감
-            boolean creditDeducted = deductUserCredit(userId, creditAmount);
-            if (!creditDeducted) {
-                log.warn("크레딧 부족 또는 차감 실패 - 사용자 ID: {}", userId);
-                return false;
-            }
-
-            // 2. 계좌 잔고에 현금 추가 (1크레딧 = 1,000원)
-            long cashAmount = (long) creditAmount * 1000;
+            // 1. 충전할 계좌 확인 (없으면 생성)
             UserAccount account = getUserAccount(userId);
-
             if (account == null) {
                 account = createAccountForNewUser(userId);
                 if (account == null) {
@@ -207,11 +205,25 @@ public class UserAccountService {
                     return false;
                 }
             }
+            Integer accountId = account.getAccountId();
 
-            // 3. 계좌 잔고 업데이트
-            boolean balanceUpdated = updateBalance(account.getAccountId(), cashAmount);
-            if (!balanceUpdated) {
-                log.error("계좌 잔고 업데이트 실패");
+            // 2. 크레딧 차감 + 계좌 잔고에 현금 추가 (1크레딧 = 1,000원)
+            long cashAmount = (long) creditAmount * 1000;
+            Boolean charged = accountLedger.exclusive(Collections.singleton(accountId),
+                    () -> new TransactionTemplate(transactionManager).execute(status -> {
+                        if (!deductUserCredit(userId, creditAmount)) {
+                            log.warn("크레딧 부족 또는 차감 실패 - 사용자 ID: {}", userId);
+                            status.setRollbackOnly();
+                            return false;
+                        }
+                        if (!applyBalance(accountId, cashAmount)) {
+                            log.error("계좌 잔고 업데이트 실패");
+                            status.setRollbackOnly();
+                            return false;
+                        }
+                        return true;
+                    }));
+            if (!Boolean.TRUE.equals(charged)) {
                 return false;
             }
 
@@ -240,21 +252,15 @@ public class UserAccountService {
     }
 
     /**
-     * 계좌 잔고 업데이트
+     * 계좌 잔고 업데이트 (계좌 원장 반영 후 트랜잭션 하나로 처리)
      */
-    @Transactional
     public boolean updateBalance(Integer accountId, Long amount) {
         try {
             log.debug("계좌 잔고 업데이트 - 계좌 ID: {}, 금액: {}", accountId, amount);
 
-            int result = userAccountMapper.updateBalance(accountId, amount);
-
-            if (result > 0) {
-                updateTotalAssetValue(accountId);
-                return true;
-            }
-
-            return false;
+            Boolean updated = accountLedger.exclusive(Collections.singleton(accountId),
+                    () -> new TransactionTemplate(transactionManager).execute(status -> applyBalance(accountId, amount)));
+            return Boolean.TRUE.equals(updated);
 
         } catch (Exception e) {
             log.error("계좌 잔고 업데이트 실패 - 계좌 ID: {}, 금액: {}", accountId, amount, e);
@@ -262,6 +268,16 @@ public class UserAccountService {
         }
     }
 
+    // 잔고 증감 + 총 자산가치 재계산 (호출하는 쪽의 트랜잭션 안에서 실행)
+    private boolean applyBalance(Integer accountId, long amount) {
+        int result = userAccountMapper.updateBalance(accountId, amount);
+        if (result > 0) {
+            updateTotalAssetValue(accountId);
+            return true;
+        }
+        return false;
+    }
+
     /**
      * 총 자산가치 업데이트
      */
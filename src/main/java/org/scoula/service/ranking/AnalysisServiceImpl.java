@@ -1,6 +1,5 @@
 package org.scoula.service.ranking;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.scoula.api.mocktrading.PriceApi;
@@ -54,8 +53,7 @@ public class AnalysisServiceImpl implements AnalysisService {
                 String stockCode = holding.getStockCode();
                 double avgPrice  = holding.getAveragePrice();
 
-                JsonNode priceData = PriceApi.getPriceData(stockCode);
-                double currentPrice = priceData.path("output").path("stck_prpr").asDouble();
+                double currentPrice = PriceApi.getCurrentPrice(stockCode);
                 double profitRate = avgPrice > 0 ? ((currentPrice - avgPrice) / avgPrice) * 100.0 : 0;
 
                 analysisMapper.upsertStockProfitRate(stockCode, profitRate);
@@ -72,8 +70,7 @@ public class AnalysisServiceImpl implements AnalysisService {
                     String stockCode = holding.getStockCode();
                     double avgPrice  = holding.getAveragePrice();
 
-                    JsonNode priceData = PriceApi.getPriceData(stockCode);
-                    double currentPrice = priceData.path("output").path("stck_prpr").asDouble();
+                    double currentPrice = PriceApi.getCurrentPrice(stockCode);
 
                     double gainRate = avgPrice > 0 ? ((currentPrice - avgPrice) / avgPrice) * 100.0 : 0;
                     int binIndex = getBinIndex(gainRate);
@@ -2,6 +2,8 @@ package org.scoula.service.ranking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.scoula.domain.mocktrading.vo.Holding;
+import org.scoula.domain.ranking.PriceSnapshot;
 import org.scoula.mapper.ranking.AssetHistoryMapper;
 import org.scoula.mapper.ranking.HoldingsMapper;
 import org.scoula.mapper.ranking.UserAccountsMapper;
@@ -16,9 +18,11 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -28,7 +32,7 @@ public class AssetHistoryServiceImpl implements AssetHistoryService {
     private final UserAccountsMapper userAccountsMapper;
     private final HoldingsMapper holdingsMapper;
     private final AssetHistoryMapper assetHistoryMapper;
-    private final StockPriceService stockPriceService;
+    private final PortfolioValuationService portfolioValuationService;
 
     private static final BigDecimal ZERO = BigDecimal.ZERO;
     private static final ZoneId KST = ZoneId.of("Asia/Seoul");
@@ -76,9 +80,28 @@ public class AssetHistoryServiceImpl implements AssetHistoryService {
 
     private void saveForAllAccounts(LocalDate baseDate) {
         List<Integer> accountIds = userAccountsMapper.selectAllAccountIds();
+
+        // 전체 계좌 보유 종목을 모아 현재가를 한 번에 조회 (모든 계좌를 같은 시점 가격으로 평가)
+        Map<Integer, List<Holding>> holdingsByAccount = new LinkedHashMap<>();
+        Set<String> stockCodes = new HashSet<>();
         for (Integer accountId : accountIds) {
-            log.info(">>> saving asset history: accountId={}, baseDate={}", accountId, baseDate);
-            saveAssetHistoryForAccountAndDate(accountId, baseDate);
+            try {
+                List<Holding> holdings = holdingsMapper.selectByAccountId(accountId);
+                holdingsByAccount.put(accountId, holdings);
+                for (Holding h : holdings) {
+                    stockCodes.add(h.getStockCode());
+                }
+            } catch (Exception e) {
+                log.error("❌ holdings load failed — accountId={}, err={}", accountId, e.getMessage(), e);
+            }
+        }
+        PriceSnapshot snapshot = portfolioValuationService.snapshot(stockCodes);
+        log.info(">>> price snapshot: accounts={}, distinctStocks={}, apiCalls={}",
+                holdingsByAccount.size(), stockCodes.size(), snapshot.getApiCalls());
+
+        for (Map.Entry<Integer, List<Holding>> entry : holdingsByAccount.entrySet()) {
+            log.info(">>> saving asset history: accountId={}, baseDate={}", entry.getKey(), baseDate);
+            saveAssetHistoryForAccountAndDate(entry.getKey(), baseDate, entry.getValue(), snapshot);
         }
         log.info(">>> asset history save completed (anchor={})", baseDate);
     }
@@ -88,20 +111,14 @@ public class AssetHistoryServiceImpl implements AssetHistoryService {
      *  - 새 인터페이스/레저 없이 현재 제출 요건에 맞춰 간소화
      *  - 나중에 ledger(입금/출금/크레딧) 붙일 땐 netContrib만 확장
      */
-    private void saveAssetHistoryForAccountAndDate(Integer accountId, LocalDate baseDate) {
+    private void saveAssetHistoryForAccountAndDate(Integer accountId, LocalDate baseDate,
+                                                   List<Holding> holdings, PriceSnapshot snapshot) {
         try {
-            // (1) 주식 평가금액 계산
-            var holdings = holdingsMapper.selectByAccountId(accountId);
-            List<String> stockCodes = holdings.stream()
-                    .map(h -> h.getStockCode())
-                    .collect(Collectors.toList());
-
-            Map<String, BigDecimal> priceMap = stockPriceService.getCurrentPrices(stockCodes);
-
+            // (1) 주식 평가금액 계산 (공유 가격 스냅샷 기준)
             BigDecimal stockValue = ZERO;
             for (var h : holdings) {
                 BigDecimal qty = BigDecimal.valueOf(h.getQuantity());
-                BigDecimal cur = priceMap.getOrDefault(h.getStockCode(), ZERO);
+                BigDecimal cur = snapshot.priceOf(h.getStockCode());
                 stockValue = stockValue.add(cur.multiply(qty));
             }
 
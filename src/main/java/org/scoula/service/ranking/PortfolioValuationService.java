@@ -0,0 +1,142 @@
+package org.scoula.service.ranking;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.log4j.Log4j2;
+import org.scoula.api.mocktrading.ApiRateLimiter;
+import org.scoula.api.mocktrading.MultiPriceApi;
+import org.scoula.api.mocktrading.PriceApi;
+import org.scoula.api.mocktrading.RealtimeQuoteCache;
+import org.scoula.domain.ranking.PriceSnapshot;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 계좌 평가용 현재가 스냅샷
+ * - 필요한 종목을 모두 모아(중복 제거) 한 번에 조회하므로 REST 호출 수 = ceil(고유 종목 수 / 30)
+ * - 실시간 체결가가 신선한 종목은 REST 호출 없이 사용
+ * - 30종목 단위 다중 현재가(MultiPriceApi)를 병렬로 호출하고, 배치 우선순위로 호출 제한을 거침
+ * - 다중 조회에서 빠진 종목만 단건 현재가로 다시 조회
+ */
+@Service
+@Log4j2
+public class PortfolioValuationService {
+
+    private static final int BATCH_SIZE = 30;
+    private static final int PARALLELISM = 3;
+    private static final long BATCH_TIMEOUT_SECONDS = 60;
+
+    private final ThreadPoolExecutor executor = createExecutor();
+
+    /**
+     * 종목 현재가 스냅샷
+     */
+    @SuppressWarnings("try")
+    public PriceSnapshot snapshot(Collection<String> stockCodes) {
+        Set<String> codes = new LinkedHashSet<>();
+        for (String code : stockCodes) {
+            if (code != null && !code.trim().isEmpty()) {
+                codes.add(code.trim());
+            }
+        }
+
+        Map<String, BigDecimal> prices = new HashMap<>();
+        List<String> remaining = new ArrayList<>();
+        for (String code : codes) {
+            long fresh = RealtimeQuoteCache.getFreshPrice(code);
+            if (fresh > 0) {
+                prices.put(code, BigDecimal.valueOf(fresh));
+            } else {
+                remaining.add(code);
+            }
+        }
+
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < remaining.size(); i += BATCH_SIZE) {
+            batches.add(remaining.subList(i, Math.min(i + BATCH_SIZE, remaining.size())));
+        }
+        List<Future<Map<String, BigDecimal>>> futures = new ArrayList<>();
+        for (List<String> batch : batches) {
+            futures.add(executor.submit(() -> fetchBatch(batch)));
+        }
+
+        int apiCalls = batches.size();
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                prices.putAll(futures.get(i).get(BATCH_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("❌ 다중 현재가 배치 실패 ({}종목): {}", batches.get(i).size(), e.getMessage());
+            }
+        }
+
+        // 다중 조회에서 빠진 종목은 단건 조회
+        for (String code : remaining) {
+            if (prices.containsKey(code)) continue;
+            apiCalls++;
+            try (ApiRateLimiter.Scope ignored = ApiRateLimiter.batch()) {
+                long price = PriceApi.getCurrentPrice(code);
+                if (price > 0) {
+                    prices.put(code, BigDecimal.valueOf(price));
+                }
+            } catch (Exception e) {
+                log.warn("❌ 종목 코드 {} 가격 조회 실패: {}", code, e.getMessage());
+            }
+        }
+
+        log.info("현재가 스냅샷 - 종목 {}개, 실시간 {}개, REST 호출 {}회, 조회 실패 {}개",
+                codes.size(), codes.size() - remaining.size(), apiCalls, codes.size() - prices.size());
+        return new PriceSnapshot(prices, System.currentTimeMillis(), apiCalls);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // 30종목 이하 다중 현재가 (응답에 없는 종목은 결과에서 빠짐)
+    @SuppressWarnings("try")
+    private Map<String, BigDecimal> fetchBatch(List<String> batch) throws Exception {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        try (ApiRateLimiter.Scope ignored = ApiRateLimiter.batch()) {
+            JsonNode response = MultiPriceApi.getMultiPriceData(batch);
+            for (Map.Entry<String, JsonNode> entry : MultiPriceApi.filterRequestedStocks(response, batch).entrySet()) {
+                long price = entry.getValue().path("inter2_prpr").asLong();
+                if (price > 0) {
+                    prices.put(entry.getKey(), BigDecimal.valueOf(price));
+                }
+            }
+        }
+        return prices;
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "price-snapshot-" + sequence.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
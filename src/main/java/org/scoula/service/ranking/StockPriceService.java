@@ -1,9 +1,9 @@
 package org.scoula.service.ranking;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.scoula.api.mocktrading.PriceApi;
+import org.scoula.domain.ranking.PriceSnapshot;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -12,31 +12,21 @@ import java.util.List;
 import java.util.Map;
 
 @Service
+@RequiredArgsConstructor
 @Log4j2
 public class StockPriceService {
 
+    private final PortfolioValuationService portfolioValuationService;
 
-    //여러 종목 현재가 반환
+    //여러 종목 현재가 반환 (30종목 단위 다중 조회, 조회 실패 종목은 0)
     public Map<String, BigDecimal> getCurrentPrices(List<String> stockCodes) {
-        Map<String, BigDecimal> priceMap = new HashMap<>();
+        PriceSnapshot snapshot = portfolioValuationService.snapshot(stockCodes);
 
+        Map<String, BigDecimal> priceMap = new HashMap<>();
         for (String code : stockCodes) {
-            try {
-                JsonNode response = PriceApi.getPriceData(code);
-
-                // 현재가 필드: output.stck_prpr (String 형식의 숫자)
-                String priceStr = response.path("output").path("stck_prpr").asText();
-                BigDecimal price = new BigDecimal(priceStr);
-
-                priceMap.put(code, price);
-
-            } catch (Exception e) {
-                log.warn("❌ 종목 코드 {} 가격 조회 실패: {}", code, e.getMessage());
-                priceMap.put(code, BigDecimal.ZERO);
-            }
+            priceMap.put(code, snapshot.priceOf(code));
         }
 
         return priceMap;
     }
 }
-
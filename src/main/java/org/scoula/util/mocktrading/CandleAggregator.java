@@ -1,78 +1,201 @@
 package org.scoula.util.mocktrading;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * 다중 해상도 분봉 집계 (1/3/5/10/30/60분)
+ * - 해상도별 시가/고가/저가/종가/거래량을 원시 배열(컬럼)로 보관
+ * - 분봉 구간은 행 개수가 아니라 시각 기준 (시작 분 = 분 - 분 % 해상도), 거래가 없는 분이 있어도 구간이 밀리지 않음
+ * - 1분봉 또는 체결 틱이 들어올 때마다 모든 해상도의 마지막 구간만 갱신하므로 조회 시 재집계하지 않음
+ * - 스레드 안전하지 않음 (MinuteCandleRing이 자신의 락 안에서 사용)
+ */
 public class CandleAggregator {
 
-    public static class Candle {
-        public String startTime;
-        public String open;
-        public String high;
-        public String low;
-        public String close;
-        public String volume;
-
-        public Candle(String startTime, String open, String high, String low, String close, String volume) {
-            this.startTime = startTime;
-            this.open = open;
-            this.high = high;
-            this.low = low;
-            this.close = close;
-            this.volume = volume;
+    public static final int[] DEFAULT_RESOLUTIONS = {1, 3, 5, 10, 30, 60};
+
+    private final Level[] levels;
+
+    public CandleAggregator() {
+        this(DEFAULT_RESOLUTIONS);
+    }
+
+    public CandleAggregator(int... resolutions) {
+        levels = new Level[resolutions.length];
+        for (int i = 0; i < resolutions.length; i++) {
+            if (resolutions[i] <= 0 || 60 % resolutions[i] != 0 && resolutions[i] % 60 != 0) {
+                throw new IllegalArgumentException("지원하지 않는 분봉 단위: " + resolutions[i]);
+            }
+            levels[i] = new Level(resolutions[i]);
+        }
+    }
+
+    /**
+     * 체결 틱 반영
+     * @param minuteOfDay 체결 분 (시*60 + 분)
+     */
+    public void onTick(int minuteOfDay, int price, long volume) {
+        for (Level level : levels) {
+            level.merge(minuteOfDay, price, price, price, price, volume);
         }
+    }
 
-        @Override
-        public String toString() {
-            return String.format("[%s] 시가:%s 고가:%s 저가:%s 종가:%s 거래량:%s",
-                    startTime, open, high, low, close, volume);
+    /**
+     * 완성된(또는 새로 받은) 1분봉 반영 - 분 오름차순으로 넣어야 함
+     */
+    public void onMinuteBar(int minuteOfDay, int open, int high, int low, int close, long volume) {
+        for (Level level : levels) {
+            level.merge(minuteOfDay, open, high, low, close, volume);
         }
     }
 
-    public static List<Candle> aggregate(JsonNode oneMinuteData, int unitMinutes) {
-        List<Candle> aggregated = new ArrayList<>();
-
-        int count = 0;
-        String open = null, high = null, low = null, close = null;
-        int totalVolume = 0;
-        String startTime = "";
-
-        for (JsonNode node : oneMinuteData) {
-            String time = node.path("stck_cntg_hour").asText();  // HHMMSS
-            String o = node.path("stck_oprc").asText();
-            String h = node.path("stck_hgpr").asText();
-            String l = node.path("stck_lwpr").asText();
-            String c = node.path("stck_prpr").asText();
-            int v = Integer.parseInt(node.path("cntg_vol").asText());
-
-            if (count == 0) {
-                open = o;
-                high = h;
-                low = l;
-                startTime = time;
-            } else {
-                if (Integer.parseInt(h) > Integer.parseInt(high)) high = h;
-                if (Integer.parseInt(l) < Integer.parseInt(low)) low = l;
-            }
+    /**
+     * 시간순 1분봉 배열로 전체 다시 집계
+     */
+    public void rebuild(int[] minutes, int[] opens, int[] highs, int[] lows, int[] closes, long[] volumes, int count) {
+        clear();
+        for (int i = 0; i < count; i++) {
+            onMinuteBar(minutes[i], opens[i], highs[i], lows[i], closes[i], volumes[i]);
+        }
+    }
+
+    public void clear() {
+        for (Level level : levels) {
+            level.size = 0;
+            level.lastMinute = -1;
+        }
+    }
+
+    public boolean supports(int resolution) {
+        return find(resolution) != null;
+    }
+
+    public int size(int resolution) {
+        return level(resolution).size;
+    }
+
+    public int startAt(int resolution, int index) {
+        return level(resolution).starts[index];
+    }
+
+    public int openAt(int resolution, int index) {
+        return level(resolution).opens[index];
+    }
 
-            close = c;
-            totalVolume += v;
-            count++;
+    public int highAt(int resolution, int index) {
+        return level(resolution).highs[index];
+    }
+
+    public int lowAt(int resolution, int index) {
+        return level(resolution).lows[index];
+    }
+
+    public int closeAt(int resolution, int index) {
+        return level(resolution).closes[index];
+    }
+
+    public long volumeAt(int resolution, int index) {
+        return level(resolution).volumes[index];
+    }
+
+    /**
+     * 키움 분봉 응답과 같은 모양의 배열로 변환 (최신순, stck_cntg_hour = 구간 시작 시각)
+     * @param sinceMinute 이 분이 포함된 구간부터, -1이면 전체
+     */
+    public ArrayNode toJson(ObjectMapper mapper, int resolution, int sinceMinute) {
+        Level level = level(resolution);
+        int sinceStart = sinceMinute < 0 ? -1 : sinceMinute - sinceMinute % resolution;
+        ArrayNode data = mapper.createArrayNode();
+        for (int i = level.size - 1; i >= 0 && level.starts[i] >= sinceStart; i--) {
+            ObjectNode candle = data.addObject();
+            candle.put("stck_cntg_hour", String.format("%02d%02d00", level.starts[i] / 60, level.starts[i] % 60));
+            candle.put("stck_prpr", Integer.toString(level.closes[i]));
+            candle.put("stck_oprc", Integer.toString(level.opens[i]));
+            candle.put("stck_hgpr", Integer.toString(level.highs[i]));
+            candle.put("stck_lwpr", Integer.toString(level.lows[i]));
+            candle.put("cntg_vol", Long.toString(level.volumes[i]));
+        }
+        return data;
+    }
 
-            if (count == unitMinutes) {
-                aggregated.add(new Candle(startTime, open, high, low, close, String.valueOf(totalVolume)));
-                count = 0;
-                totalVolume = 0;
+    private Level level(int resolution) {
+        Level level = find(resolution);
+        if (level == null) {
+            throw new IllegalArgumentException("집계하지 않는 분봉 단위: " + resolution);
+        }
+        return level;
+    }
+
+    private Level find(int resolution) {
+        for (Level level : levels) {
+            if (level.resolution == resolution) {
+                return level;
             }
         }
+        return null;
+    }
+
+    /**
+     * 한 해상도의 분봉 (컬럼별 원시 배열, 구간 시작 분 오름차순)
+     */
+    private static final class Level {
+        final int resolution;
+        int[] starts = new int[64];
+        int[] opens = new int[64];
+        int[] highs = new int[64];
+        int[] lows = new int[64];
+        int[] closes = new int[64];
+        long[] volumes = new long[64];
+        int size = 0;
+        int lastMinute = -1; // 마지막 구간에 반영된 가장 늦은 분 (종가 기준)
 
-        // 남은 데이터 처리
-        if (count > 0) {
-            aggregated.add(new Candle(startTime, open, high, low, close, String.valueOf(totalVolume)));
+        Level(int resolution) {
+            this.resolution = resolution;
         }
 
-        return aggregated;
+        void merge(int minute, int open, int high, int low, int close, long volume) {
+            int start = minute - minute % resolution;
+            int last = size - 1;
+
+            if (size == 0 || start > starts[last]) {
+                if (size == starts.length) {
+                    grow();
+                }
+                starts[size] = start;
+                opens[size] = open;
+                highs[size] = high;
+                lows[size] = low;
+                closes[size] = close;
+                volumes[size] = volume;
+                size++;
+                lastMinute = minute;
+                return;
+            }
+
+            int at = start == starts[last] ? last : Arrays.binarySearch(starts, 0, size, start);
+            if (at < 0) {
+                return; // 이미 지난 빈 구간
+            }
+            if (high > highs[at]) highs[at] = high;
+            if (low < lows[at]) lows[at] = low;
+            volumes[at] += volume;
+            if (at == last && minute >= lastMinute) {
+                closes[at] = close;
+                lastMinute = minute;
+            }
+        }
+
+        private void grow() {
+            int capacity = starts.length * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            opens = Arrays.copyOf(opens, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            closes = Arrays.copyOf(closes, capacity);
+            volumes = Arrays.copyOf(volumes, capacity);
+        }
     }
 }
@@ -0,0 +1,186 @@
+package org.scoula.util.mocktrading;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 키움 분봉(ka10080) 응답을 원시 배열 1분봉으로 변환 (가장 최근 영업일만, 응답 순서 = 최신순)
+ * - JsonParser로 응답을 한 번만 읽으며 트리(JsonNode)를 만들지 않음
+ * - 더 최근 날짜 분봉이 나오면 그때까지 모은 분봉을 버리므로 최근 날짜를 찾으려고 다시 읽지 않음
+ * - 가격 앞의 +/- 부호는 숫자로 바꾸면서 건너뜀
+ */
+public final class KiwoomMinuteBars {
+
+    private static final String CHART_FIELD = "stk_min_pole_chart_qry";
+
+    private String date;    // yyyyMMdd, 분봉이 없으면 null
+    private int count = 0;
+    private int[] minutes = new int[512];
+    private int[] opens = new int[512];
+    private int[] highs = new int[512];
+    private int[] lows = new int[512];
+    private int[] closes = new int[512];
+    private long[] volumes = new long[512];
+
+    private KiwoomMinuteBars() {
+    }
+
+    /**
+     * 응답 본문 파싱
+     * @return 분봉 배열(stk_min_pole_chart_qry)이 없으면 null
+     */
+    public static KiwoomMinuteBars parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        KiwoomMinuteBars bars = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (CHART_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                bars = new KiwoomMinuteBars();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    bars.readCandle(parser);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return bars;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int minuteAt(int index) {
+        return minutes[index];
+    }
+
+    public int openAt(int index) {
+        return opens[index];
+    }
+
+    public int highAt(int index) {
+        return highs[index];
+    }
+
+    public int lowAt(int index) {
+        return lows[index];
+    }
+
+    public int closeAt(int index) {
+        return closes[index];
+    }
+
+    public long volumeAt(int index) {
+        return volumes[index];
+    }
+
+    // 분봉 객체 하나 ({"cntr_tm":"20250805133700","cur_prc":"+71000",...})
+    private void readCandle(JsonParser parser) throws IOException {
+        String time = null;
+        int open = 0, high = 0, low = 0, close = 0;
+        long volume = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "cntr_tm": time = parser.getText(); break;
+                case "cur_prc": close = (int) number(parser); break;
+                case "open_pric": open = (int) number(parser); break;
+                case "high_pric": high = (int) number(parser); break;
+                case "low_pric": low = (int) number(parser); break;
+                case "trde_qty": volume = number(parser); break;
+                default: break;
+            }
+        }
+        if (time == null || time.length() != 14 || !isDigits(time, 12)) {
+            return;
+        }
+
+        int cmp = date == null ? 1 : compareDate(time, date);
+        if (cmp < 0) {
+            return; // 더 이전 날짜
+        }
+        if (cmp > 0) {
+            date = time.substring(0, 8);
+            count = 0;
+        }
+        int minute = ((time.charAt(8) - '0') * 10 + (time.charAt(9) - '0')) * 60
+                + (time.charAt(10) - '0') * 10 + (time.charAt(11) - '0');
+        if (count == minutes.length) {
+            grow();
+        }
+        minutes[count] = minute;
+        opens[count] = open;
+        highs[count] = high;
+        lows[count] = low;
+        closes[count] = close;
+        volumes[count] = volume;
+        count++;
+    }
+
+    // "+71000" / "-71000" / "71000" -> 71000 (숫자가 아닌 문자가 있으면 0)
+    private static long number(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return Math.abs(parser.getLongValue());
+        }
+        char[] chars = parser.getTextCharacters();
+        int start = parser.getTextOffset();
+        int end = start + parser.getTextLength();
+        if (start < end && (chars[start] == '+' || chars[start] == '-')) {
+            start++;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int d = chars[i] - '0';
+            if (d < 0 || d > 9) {
+                return 0;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static boolean isDigits(String s, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // "yyyyMMddHHmmss"의 날짜 부분과 "yyyyMMdd" 비교 (substring 없이)
+    private static int compareDate(String time, String date) {
+        for (int i = 0; i < 8; i++) {
+            int diff = time.charAt(i) - date.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private void grow() {
+        int capacity = minutes.length * 2;
+        minutes = Arrays.copyOf(minutes, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+}
@@ -0,0 +1,328 @@
+package org.scoula.util.mocktrading;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 한 종목 하루치 1분봉을 원시 배열 링버퍼로 누적 (실시간 체결 틱 -> OHLCV)
+ * - 분봉은 분(0~1439) 오름차순으로만 추가되고, 같은 분 틱은 마지막 분봉을 갱신
+ * - 하루 최대 분봉 수(1440)보다 크게 잡아 하루 안에서는 덮어쓰지 않음, 날짜가 바뀌면 비움
+ * - 키움 분봉(KiwoomMinuteBars)으로 한 번 채운 뒤(backfill) 이후는 틱으로만 갱신
+ * - 3/5/10/30/60분봉은 CandleAggregator가 틱마다 함께 갱신 (backfill 시에는 1분봉으로 다시 집계)
+ * - 모든 메서드는 인스턴스 락으로 보호 (틱 수신 스레드와 조회 스레드가 함께 사용)
+ */
+public class MinuteCandleRing {
+
+    private static final int CAPACITY = 1_536;
+
+    private final int[] minutes = new int[CAPACITY];
+    private final int[] opens = new int[CAPACITY];
+    private final int[] highs = new int[CAPACITY];
+    private final int[] lows = new int[CAPACITY];
+    private final int[] closes = new int[CAPACITY];
+    private final long[] volumes = new long[CAPACITY];
+
+    private int head = 0;   // 가장 오래된 분봉 위치
+    private int count = 0;
+
+    // 상위 해상도 분봉
+    private final CandleAggregator aggregator = new CandleAggregator(3, 5, 10, 30, 60);
+
+    private String date;    // yyyyMMdd
+    private boolean backfilled = false;
+
+    /**
+     * 체결 틱 반영
+     * @param date 영업일 (yyyyMMdd, 바뀌면 새 날로 비움)
+     * @param minuteOfDay 체결 분 (시*60 + 분)
+     */
+    public synchronized void apply(String date, int minuteOfDay, int price, long volume) {
+        if (price <= 0 || minuteOfDay < 0) {
+            return;
+        }
+        if (this.date == null || (date != null && date.compareTo(this.date) > 0)) {
+            reset(date);
+        } else if (date != null && date.compareTo(this.date) < 0) {
+            return; // 지난 날짜 틱
+        }
+
+        if (count > 0) {
+            int last = index(count - 1);
+            if (minutes[last] == minuteOfDay) {
+                merge(last, price, price, price, volume, true);
+                aggregator.onTick(minuteOfDay, price, volume);
+                return;
+            }
+            if (minutes[last] > minuteOfDay) {
+                // 늦게 도착한 이전 분 틱 - 해당 분봉이 있으면 고가/저가/거래량만 반영
+                int at = find(minuteOfDay);
+                if (at >= 0) {
+                    merge(at, price, price, price, volume, false);
+                    aggregator.onTick(minuteOfDay, price, volume);
+                }
+                return;
+            }
+        }
+        append(minuteOfDay, price, price, price, price, volume);
+        aggregator.onTick(minuteOfDay, price, volume);
+    }
+
+    /**
+     * 키움 분봉 원시 배열(최신순)로 채움
+     * - 틱으로 만든 분봉 사이에 빠진 분(이전/중간/이후)은 추가하고, 겹치는 분은 고가/저가/거래량만 합침
+     * - 틱 수신 전부터 이어진 첫 분봉은 시가를 키움 값으로 바로잡음
+     */
+    public synchronized void backfill(KiwoomMinuteBars bars) {
+        int n = bars != null ? bars.size() : 0;
+        int[] fMinutes = new int[n];
+        int[] fOpens = new int[n];
+        int[] fHighs = new int[n];
+        int[] fLows = new int[n];
+        int[] fCloses = new int[n];
+        long[] fVolumes = new long[n];
+        int filled = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int minute = bars.minuteAt(i);
+            if (filled > 0 && fMinutes[filled - 1] >= minute) continue;
+            fMinutes[filled] = minute;
+            fOpens[filled] = bars.openAt(i);
+            fHighs[filled] = bars.highAt(i);
+            fLows[filled] = bars.lowAt(i);
+            fCloses[filled] = bars.closeAt(i);
+            fVolumes[filled] = bars.volumeAt(i);
+            filled++;
+        }
+        mergeBackfill(bars != null ? bars.getDate() : null, bars != null,
+                fMinutes, fOpens, fHighs, fLows, fCloses, fVolumes, filled);
+    }
+
+    // 시간순 키움 분봉을 틱 분봉과 합침
+    private void mergeBackfill(String chartDate, boolean hasData, int[] fMinutes, int[] fOpens, int[] fHighs,
+                               int[] fLows, int[] fCloses, long[] fVolumes, int filled) {
+        if (chartDate == null || chartDate.length() != 8) {
+            chartDate = LocalDate.now(MinuteCandleSeries.MARKET_ZONE).format(DateTimeFormatter.BASIC_ISO_DATE);
+        }
+        if (date == null || chartDate.compareTo(date) > 0) {
+            reset(chartDate);
+        }
+        backfilled = true;
+        if (!hasData || !chartDate.equals(date)) {
+            return; // 데이터 없음 또는 틱이 더 최신 날짜
+        }
+
+        // 틱 분봉과 키움 분봉을 분 순서로 합침 - 틱이 없던 앞/중간/뒤 구간은 키움 분봉으로 채움
+        int total = count + filled;
+        int[] m = new int[total];
+        int[] o = new int[total];
+        int[] h = new int[total];
+        int[] l = new int[total];
+        int[] c = new int[total];
+        long[] v = new long[total];
+        int i = 0, j = 0, k = 0;
+        while (i < count || j < filled) {
+            int at = i < count ? index(i) : -1;
+            if (j >= filled || (at >= 0 && minutes[at] < fMinutes[j])) {
+                m[k] = minutes[at]; o[k] = opens[at]; h[k] = highs[at]; l[k] = lows[at]; c[k] = closes[at]; v[k] = volumes[at];
+                i++;
+            } else if (at < 0 || fMinutes[j] < minutes[at]) {
+                m[k] = fMinutes[j]; o[k] = fOpens[j]; h[k] = fHighs[j]; l[k] = fLows[j]; c[k] = fCloses[j]; v[k] = fVolumes[j];
+                j++;
+            } else {
+                // 겹치는 분 - 고가/저가/거래량만 합치고, 틱 수신 전부터 이어진 첫 분봉은 시가를 키움 값으로
+                m[k] = minutes[at]; c[k] = closes[at];
+                o[k] = i == 0 && fOpens[j] > 0 ? fOpens[j] : opens[at];
+                h[k] = Math.max(highs[at], fHighs[j]);
+                l[k] = fLows[j] > 0 && fLows[j] < lows[at] ? fLows[j] : lows[at];
+                v[k] = Math.max(volumes[at], fVolumes[j]);
+                i++;
+                j++;
+            }
+            k++;
+        }
+
+        // 용량을 넘으면 최근 분봉만
+        int from = Math.max(0, k - CAPACITY);
+        head = 0;
+        count = 0;
+        for (int n = from; n < k; n++) {
+            append(m[n], o[n], h[n], l[n], c[n], v[n]);
+        }
+        reaggregate();
+    }
+
+    public synchronized boolean isBackfilled() {
+        return backfilled;
+    }
+
+    public synchronized String getDate() {
+        return date;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * 시간순 분봉 (체결 판정용)
+     * @return 분봉이 없으면 null
+     */
+    public synchronized MinuteCandleSeries toSeries() {
+        if (count == 0 || date == null) {
+            return null;
+        }
+        long dayStartMinute = LocalDate.parse(date, DateTimeFormatter.BASIC_ISO_DATE)
+                .atStartOfDay(MinuteCandleSeries.MARKET_ZONE).toEpochSecond() / 60;
+        long[] epochMinutes = new long[count];
+        int[] h = new int[count];
+        int[] l = new int[count];
+        for (int i = 0; i < count; i++) {
+            int at = index(i);
+            epochMinutes[i] = dayStartMinute + minutes[at];
+            h[i] = highs[at];
+            l[i] = lows[at];
+        }
+        return MinuteCandleSeries.of(epochMinutes, h, l);
+    }
+
+    /**
+     * 키움 분봉 응답과 같은 모양으로 변환 (최신순)
+     * @param sinceMinute 이 분 이상인 분봉만 (-1이면 전체)
+     */
+    public synchronized ObjectNode toJson(ObjectMapper mapper, int sinceMinute) {
+        return toJson(mapper, sinceMinute, 1);
+    }
+
+    /**
+     * 해상도별 분봉 (1/3/5/10/30/60분, 최신순)
+     * @param sinceMinute 이 분이 포함된 구간부터 (-1이면 전체)
+     */
+    public synchronized ObjectNode toJson(ObjectMapper mapper, int sinceMinute, int resolution) {
+        ObjectNode result = mapper.createObjectNode();
+        result.put("date", date);
+        if (resolution != 1) {
+            result.set("data", aggregator.toJson(mapper, resolution, sinceMinute));
+            return result;
+        }
+        ArrayNode data = result.putArray("data");
+        for (int i = count - 1; i >= 0; i--) {
+            int at = index(i);
+            if (minutes[at] < sinceMinute) break;
+            ObjectNode candle = data.addObject();
+            candle.put("stck_cntg_hour", String.format("%02d%02d00", minutes[at] / 60, minutes[at] % 60));
+            candle.put("stck_prpr", Integer.toString(closes[at]));
+            candle.put("stck_oprc", Integer.toString(opens[at]));
+            candle.put("stck_hgpr", Integer.toString(highs[at]));
+            candle.put("stck_lwpr", Integer.toString(lows[at]));
+            candle.put("cntg_vol", Long.toString(volumes[at]));
+        }
+        return result;
+    }
+
+    /**
+     * "HHmm" 또는 "HHmmss" -> 분 (형식이 틀리면 -1)
+     */
+    public static int parseMinuteOfDay(String hhmm) {
+        if (hhmm == null || hhmm.length() < 4) {
+            return -1;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (!Character.isDigit(hhmm.charAt(i))) {
+                return -1;
+            }
+        }
+        return digits(hhmm, 0) * 60 + digits(hhmm, 2);
+    }
+
+    /**
+     * 지원하는 분봉 단위인지 (1/3/5/10/30/60)
+     */
+    public static boolean supportsResolution(int resolution) {
+        for (int supported : CandleAggregator.DEFAULT_RESOLUTIONS) {
+            if (supported == resolution) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reset(String newDate) {
+        date = newDate;
+        head = 0;
+        count = 0;
+        backfilled = false;
+        aggregator.clear();
+    }
+
+    // 1분봉 전체로 상위 해상도 다시 집계
+    private void reaggregate() {
+        int[] m = new int[count];
+        int[] o = new int[count];
+        int[] h = new int[count];
+        int[] l = new int[count];
+        int[] c = new int[count];
+        long[] v = new long[count];
+        for (int i = 0; i < count; i++) {
+            int at = index(i);
+            m[i] = minutes[at];
+            o[i] = opens[at];
+            h[i] = highs[at];
+            l[i] = lows[at];
+            c[i] = closes[at];
+            v[i] = volumes[at];
+        }
+        aggregator.rebuild(m, o, h, l, c, v, count);
+    }
+
+    private void append(int minute, int open, int high, int low, int close, long volume) {
+        int at;
+        if (count == CAPACITY) {
+            at = head;
+            head = (head + 1) % CAPACITY;
+        } else {
+            at = index(count);
+            count++;
+        }
+        write(at, minute, open, high, low, close, volume);
+    }
+
+    private void write(int at, int minute, int open, int high, int low, int close, long volume) {
+        minutes[at] = minute;
+        opens[at] = open;
+        highs[at] = high;
+        lows[at] = low;
+        closes[at] = close;
+        volumes[at] = volume;
+    }
+
+    private void merge(int at, int high, int low, int close, long volume, boolean updateClose) {
+        if (high > highs[at]) highs[at] = high;
+        if (low > 0 && low < lows[at]) lows[at] = low;
+        if (updateClose) closes[at] = close;
+        volumes[at] += volume;
+    }
+
+    // 분으로 위치 찾기 (최근 분봉부터 이진 탐색)
+    private int find(int minute) {
+        int lo = 0, hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = minutes[index(mid)];
+            if (value == minute) return index(mid);
+            if (value < minute) lo = mid + 1;
+            else hi = mid - 1;
+        }
+        return -1;
+    }
+
+    private int index(int offset) {
+        return (head + offset) % CAPACITY;
+    }
+
+    private static int digits(String s, int offset) {
+        return (s.charAt(offset) - '0') * 10 + (s.charAt(offset + 1) - '0');
+    }
+}
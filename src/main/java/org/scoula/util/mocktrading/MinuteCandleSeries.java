@@ -0,0 +1,92 @@
+package org.scoula.util.mocktrading;
+
+import java.time.ZoneId;
+
+/**
+ * 한 종목 하루치 1분봉을 시간순 원시 배열로 보관 (체결 판정용, MinuteCandleRing.toSeries()로 생성)
+ * - 분봉 시각은 epoch 분(분 단위 UTC 경과)으로 한 번만 변환
+ * - 주문 시각 이후 첫 분봉은 이진 탐색으로 찾음
+ * - 각 위치부터 끝까지의 최고가/최저가를 미리 누적해 두어, 주문마다 분봉을 순회하지 않고 한 번에 조회
+ */
+public class MinuteCandleSeries {
+
+    public static final ZoneId MARKET_ZONE = ZoneId.of("Asia/Seoul");
+
+    private final long[] epochMinutes;
+    private final int[] highs;
+    private final int[] lows;
+    private final int[] maxHighsFrom;  // i번째 분봉부터 끝까지 최고가
+    private final int[] minLowsFrom;   // i번째 분봉부터 끝까지 최저가
+
+    private MinuteCandleSeries(long[] epochMinutes, int[] highs, int[] lows) {
+        this.epochMinutes = epochMinutes;
+        this.highs = highs;
+        this.lows = lows;
+        this.maxHighsFrom = new int[highs.length];
+        this.minLowsFrom = new int[lows.length];
+        for (int i = highs.length - 1; i >= 0; i--) {
+            boolean last = i == highs.length - 1;
+            maxHighsFrom[i] = last ? highs[i] : Math.max(highs[i], maxHighsFrom[i + 1]);
+            minLowsFrom[i] = last ? lows[i] : Math.min(lows[i], minLowsFrom[i + 1]);
+        }
+    }
+
+    // 이미 시간순으로 정렬된 원시 배열로 생성 (MinuteCandleRing)
+    static MinuteCandleSeries of(long[] epochMinutes, int[] highs, int[] lows) {
+        return new MinuteCandleSeries(epochMinutes, highs, lows);
+    }
+
+    /**
+     * epochMinute 이상인 첫 분봉 위치 (없으면 size())
+     */
+    public int firstIndexAtOrAfter(long epochMinute) {
+        int lo = 0, hi = epochMinutes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochMinutes[mid] < epochMinute) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public int size() {
+        return epochMinutes.length;
+    }
+
+    public long epochMinuteAt(int index) {
+        return epochMinutes[index];
+    }
+
+    public int highAt(int index) {
+        return highs[index];
+    }
+
+    public int lowAt(int index) {
+        return lows[index];
+    }
+
+    /**
+     * index번째 분봉부터 마지막 분봉까지의 최고가
+     */
+    public int maxHighFrom(int index) {
+        return maxHighsFrom[index];
+    }
+
+    /**
+     * index번째 분봉부터 마지막 분봉까지의 최저가
+     */
+    public int minLowFrom(int index) {
+        return minLowsFrom[index];
+    }
+
+    /**
+     * 분봉 시각 "HHmm" (로그용)
+     */
+    public String hourMinuteAt(int index) {
+        long minuteOfDay = Math.floorMod(epochMinutes[index] + 9 * 60, 24 * 60); // KST
+        return String.format("%02d%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
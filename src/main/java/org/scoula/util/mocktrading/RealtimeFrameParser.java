@@ -0,0 +1,306 @@
+package org.scoula.util.mocktrading;
+
+import java.util.Arrays;
+
+/**
+ * 한국투자증권 실시간 프레임 파서 ("0|H0UNCNT0|001|f0^f1^...")
+ * - split/정규식 없이 프레임을 한 번만 훑어 필드 경계(offset)만 기록
+ * - 가격/수량은 문자열을 만들지 않고 CharSequence에서 바로 int/long으로 변환
+ * - 내부 배열을 재사용하므로 스레드당 하나의 인스턴스를 사용할 것
+ * - 다른 스레드로 넘길 DTO는 snapshot()으로 필드 경계만 복사해 두고 필요할 때 읽음
+ */
+public final class RealtimeFrameParser {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private CharSequence frame;
+    private boolean encrypted;
+    private int trIdStart;
+    private int trIdEnd;
+    private int recordCount;
+
+    private int fieldCount;
+    private int[] fieldStarts = new int[INITIAL_CAPACITY];
+    private int[] fieldEnds = new int[INITIAL_CAPACITY];
+
+    /**
+     * 프레임 파싱 - 헤더 형식이 아니면 false (JSON 응답 메시지 등)
+     */
+    public boolean parse(CharSequence frame) {
+        this.frame = frame;
+        this.fieldCount = 0;
+        this.recordCount = 0;
+
+        int length = frame.length();
+        if (length < 2 || frame.charAt(1) != '|') {
+            return false;
+        }
+
+        char flag = frame.charAt(0);
+        if (flag != '0' && flag != '1') {
+            return false;
+        }
+        encrypted = flag == '1';
+
+        trIdStart = 2;
+        trIdEnd = indexOf('|', trIdStart, length);
+        if (trIdEnd < 0) {
+            return false;
+        }
+
+        int countEnd = indexOf('|', trIdEnd + 1, length);
+        if (countEnd < 0) {
+            return false;
+        }
+        recordCount = parseInt(frame, trIdEnd + 1, countEnd);
+
+        // 암호화 프레임은 본문을 해석하지 않음
+        if (encrypted) {
+            return true;
+        }
+
+        int start = countEnd + 1;
+        for (int i = start; i < length; i++) {
+            if (frame.charAt(i) == '^') {
+                addField(start, i);
+                start = i + 1;
+            }
+        }
+        addField(start, length);
+        return true;
+    }
+
+    public boolean isEncrypted() {
+        return encrypted;
+    }
+
+    public boolean isTrId(String trId) {
+        int length = trIdEnd - trIdStart;
+        if (frame == null || trId.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (frame.charAt(trIdStart + i) != trId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getTrId() {
+        return frame.subSequence(trIdStart, trIdEnd).toString();
+    }
+
+    public int recordCount() {
+        return recordCount;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * 필드 문자열 (범위를 벗어나면 빈 문자열) - DTO 전송용으로만 사용
+     */
+    public String getString(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return "";
+        }
+        return frame.subSequence(fieldStarts[index], fieldEnds[index]).toString();
+    }
+
+    /**
+     * 현재 프레임과 필드 경계 복사본 (파서를 다음 프레임에 재사용해도 유지됨)
+     */
+    public Fields snapshot() {
+        int[] bounds = new int[fieldCount * 2];
+        for (int i = 0; i < fieldCount; i++) {
+            bounds[i * 2] = fieldStarts[i];
+            bounds[i * 2 + 1] = fieldEnds[i];
+        }
+        return new Fields(frame.toString(), bounds);
+    }
+
+    public boolean fieldEquals(int index, String value) {
+        if (index < 0 || index >= fieldCount) {
+            return false;
+        }
+        int start = fieldStarts[index];
+        int length = fieldEnds[index] - start;
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (frame.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public char getChar(int index) {
+        if (index < 0 || index >= fieldCount || fieldStarts[index] == fieldEnds[index]) {
+            return 0;
+        }
+        return frame.charAt(fieldStarts[index]);
+    }
+
+    public int getInt(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return 0;
+        }
+        return parseInt(frame, fieldStarts[index], fieldEnds[index]);
+    }
+
+    public long getLong(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return 0L;
+        }
+        return parseLong(frame, fieldStarts[index], fieldEnds[index]);
+    }
+
+    public double getDouble(int index) {
+        if (index < 0 || index >= fieldCount) {
+            return 0.0;
+        }
+        return parseDouble(frame, fieldStarts[index], fieldEnds[index]);
+    }
+
+    /**
+     * 부호(+/-)가 붙은 정수 파싱, 숫자가 아니면 0 (소수점 이하는 버림)
+     */
+    public static int parseInt(CharSequence s, int start, int end) {
+        return (int) parseLong(s, start, end);
+    }
+
+    public static long parseLong(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return 0L;
+        }
+
+        boolean negative = false;
+        char first = s.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        long value = 0L;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                break;
+            }
+            if (c < '0' || c > '9') {
+                return 0L;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    public static double parseDouble(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return 0.0;
+        }
+
+        boolean negative = false;
+        char first = s.charAt(start);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            start++;
+        }
+
+        long integer = 0L;
+        long fraction = 0L;
+        long scale = 1L;
+        boolean inFraction = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.' && !inFraction) {
+                inFraction = true;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return 0.0;
+            }
+            if (inFraction) {
+                if (scale < 1_000_000_000_000L) {
+                    fraction = fraction * 10 + (c - '0');
+                    scale *= 10;
+                }
+            } else {
+                integer = integer * 10 + (c - '0');
+            }
+        }
+
+        double value = integer + (double) fraction / scale;
+        return negative ? -value : value;
+    }
+
+    /**
+     * 프레임 한 건의 필드 (불변) - 문자열은 getString을 부를 때만 만듦
+     */
+    public static final class Fields {
+
+        private final String frame;
+        private final int[] bounds;   // 필드 i의 시작 = bounds[2i], 끝 = bounds[2i + 1]
+
+        private Fields(String frame, int[] bounds) {
+            this.frame = frame;
+            this.bounds = bounds;
+        }
+
+        public int fieldCount() {
+            return bounds.length / 2;
+        }
+
+        /**
+         * 필드 문자열 (범위를 벗어나면 null)
+         */
+        public String getString(int index) {
+            if (index < 0 || index >= fieldCount()) {
+                return null;
+            }
+            return frame.substring(bounds[index * 2], bounds[index * 2 + 1]);
+        }
+
+        public int getInt(int index) {
+            return (int) getLong(index);
+        }
+
+        public long getLong(int index) {
+            if (index < 0 || index >= fieldCount()) {
+                return 0L;
+            }
+            return parseLong(frame, bounds[index * 2], bounds[index * 2 + 1]);
+        }
+
+        public double getDouble(int index) {
+            if (index < 0 || index >= fieldCount()) {
+                return 0.0;
+            }
+            return parseDouble(frame, bounds[index * 2], bounds[index * 2 + 1]);
+        }
+    }
+
+    private int indexOf(char target, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (frame.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            int capacity = fieldStarts.length * 2;
+            fieldStarts = Arrays.copyOf(fieldStarts, capacity);
+            fieldEnds = Arrays.copyOf(fieldEnds, capacity);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldCount++;
+    }
+}
@@ -0,0 +1,131 @@
+package org.scoula.util.mocktrading;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 동일 키 동시 요청 합치기(single-flight) + 짧은 TTL 결과 캐시
+ * - 같은 키로 진행 중인 호출이 있으면 새로 호출하지 않고 그 결과를 함께 기다림
+ * - 성공한 결과는 ttlMs 동안 재사용 (null 결과와 예외는 캐시하지 않음)
+ * - 반환 값은 여러 호출자가 공유하므로 호출자는 읽기 전용으로 사용해야 함
+ */
+public class SingleFlightCache<K, V> {
+
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load() throws Exception;
+    }
+
+    private final long ttlMs;
+    private final int maxEntries;
+
+    private final Map<K, Entry<V>> results = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public SingleFlightCache(long ttlMs, int maxEntries) {
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+    }
+
+    public V get(K key, Loader<V> loader) throws IOException {
+        Entry<V> entry = results.get(key);
+        if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return await(existing);
+        }
+
+        // 이 스레드가 대표로 호출
+        try {
+            // 직전 대표 호출이 방금 끝나 결과가 이미 저장되었을 수 있음
+            entry = results.get(key);
+            V value;
+            if (entry != null && System.currentTimeMillis() < entry.expiresAt) {
+                hits.incrementAndGet();
+                value = entry.value;
+            } else {
+                loads.incrementAndGet();
+                value = loader.load();
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw asIOException(e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    public void invalidate(K key) {
+        results.remove(key);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    private void put(K key, V value) {
+        long now = System.currentTimeMillis();
+        if (results.size() >= maxEntries) {
+            Iterator<Entry<V>> iterator = results.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiresAt <= now) {
+                    iterator.remove();
+                }
+            }
+            if (results.size() >= maxEntries) {
+                return;
+            }
+        }
+        results.put(key, new Entry<>(value, now + ttlMs));
+    }
+
+    private static <V> V await(CompletableFuture<V> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw asIOException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    private static IOException asIOException(Throwable e) {
+        return e instanceof IOException ? (IOException) e : new IOException(e.getMessage(), e);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.scoula.service.mocktrading;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.scoula.domain.mocktrading.vo.OrderContext;
+import org.scoula.exception.OrderException;
+import org.scoula.mapper.trading.AccountLedgerMapper;
+import org.scoula.mapper.trading.OrderMapper;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLedgerTest {
+
+    private static final int ACCOUNT_ID = 1;
+
+    // 커밋된 잔고 (다른 커넥션이 읽는 값)
+    private final AtomicLong committedBalance = new AtomicLong(1_000_000L);
+
+    // 원장 기록 건수 / 기록 실패 여부
+    private final AtomicInteger insertedEntries = new AtomicInteger();
+    private volatile boolean failInsert = false;
+
+    private AccountLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = new AccountLedger(ledgerMapper(), orderMapper(), new NoOpTransactionManager());
+        ledger.onApplicationEvent(new ContextRefreshedEvent(new GenericApplicationContext()));
+        assertTrue(ledger.isReady());
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.shutdown();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("지정가 예약 트랜잭션이 끝나기 전 들어온 시장가 매수는 커밋된 잔고를 기다려 같은 현금을 쓰지 못함")
+    void marketBuyWaitsForReservationCommit() throws Exception {
+        AtomicReference<CompletableFuture<AccountLedger.TradeResult>> buy = new AtomicReference<>();
+        AtomicReference<Thread> buyer = new AtomicReference<>();
+
+        ledger.exclusive(Collections.singleton(ACCOUNT_ID), () -> {
+            // 예약 UPDATE 실행, 아직 커밋 전 - 이 사이에 같은 현금으로 시장가 매수
+            buy.set(CompletableFuture.supplyAsync(() -> {
+                buyer.set(Thread.currentThread());
+                return ledger.trade(ACCOUNT_ID, "005930", "삼성전자", "BUY", "MARKET", 10, 100_000, null);
+            }));
+            awaitBlockedOrDone(buy.get(), buyer);
+            committedBalance.set(0L); // 커밋
+            return null;
+        });
+
+        assertEquals(AccountLedger.TradeResult.INSUFFICIENT_BALANCE, buy.get().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("잠금이 없으면 커밋된 잔고로 바로 체결")
+    void tradesAgainstCommittedBalance() {
+        assertEquals(AccountLedger.TradeResult.FILLED,
+                ledger.trade(ACCOUNT_ID, "005930", "삼성전자", "BUY", "MARKET", 10, 100_000, null));
+        assertEquals(AccountLedger.TradeResult.INSUFFICIENT_BALANCE,
+                ledger.trade(ACCOUNT_ID, "005930", "삼성전자", "BUY", "MARKET", 1, 100_000, null));
+    }
+
+    @Test
+    @DisplayName("체결 응답 전에 원장 기록이 커밋됨")
+    void commitsEntryBeforeFilled() {
+        assertEquals(AccountLedger.TradeResult.FILLED,
+                ledger.trade(ACCOUNT_ID, "005930", "삼성전자", "BUY", "MARKET", 1, 100_000, null));
+        assertEquals(1, insertedEntries.get());
+    }
+
+    @Test
+    @DisplayName("원장 기록에 실패하면 503으로 거절하고 다음 체결은 DB 잔고로 다시 적재")
+    void rejectsAndReloadsWhenCommitFails() {
+        failInsert = true;
+        OrderException e = assertThrows(OrderException.class,
+                () -> ledger.trade(ACCOUNT_ID, "005930", "삼성전자", "BUY", "MARKET", 10, 100_000, null));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+
+        failInsert = false;
+        assertEquals(AccountLedger.TradeResult.FILLED,
+                ledger.trade(ACCOUNT_ID, "005930", "삼성전자", "BUY", "MARKET", 10, 100_000, null));
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서 잠금을 시작하면 거부 (반영용 커넥션을 하나 더 잡지 않도록)")
+    void rejectsExclusiveInsideTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThrows(IllegalStateException.class,
+                () -> ledger.exclusive(Collections.singleton(ACCOUNT_ID), () -> null));
+    }
+
+    // 매수 스레드가 잠금 대기에 들어가거나 (잠금이 없어) 끝날 때까지 대기
+    private static void awaitBlockedOrDone(CompletableFuture<?> future, AtomicReference<Thread> thread) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!future.isDone() && System.currentTimeMillis() < deadline) {
+            Thread t = thread.get();
+            if (t != null && t.getState() == Thread.State.WAITING) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private OrderMapper orderMapper() {
+        return fake(OrderMapper.class, (name, args) -> "selectOrderContext".equals(name)
+                ? OrderContext.builder().accountId(ACCOUNT_ID).currentBalance(committedBalance.get()).build()
+                : null);
+    }
+
+    private AccountLedgerMapper ledgerMapper() {
+        return fake(AccountLedgerMapper.class, (name, args) -> {
+            if (!"insertEntries".equals(name)) {
+                return null;
+            }
+            if (failInsert) {
+                throw new IllegalStateException("insert failed");
+            }
+            return insertedEntries.addAndGet(((List<?>) args[0]).size());
+        });
+    }
+
+    private static <T> T fake(Class<T> type) {
+        return fake(type, (name, args) -> null);
+    }
+
+    // 지정한 값이 없으면 숫자는 0, 목록은 빈 목록
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> type, Answer answer) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object value = answer.answer(method.getName(), args);
+            if (value != null) {
+                return value;
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (List.class.isAssignableFrom(returnType)) {
+                return Collections.emptyList();
+            }
+            return null;
+        });
+    }
+
+    private interface Answer {
+        Object answer(String methodName, Object[] args);
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
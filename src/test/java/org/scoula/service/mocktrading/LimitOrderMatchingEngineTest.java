@@ -0,0 +1,56 @@
+package org.scoula.service.mocktrading;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.scoula.domain.mocktrading.PendingOrderDto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimitOrderMatchingEngineTest {
+
+    @Test
+    @DisplayName("체결가와 교차하는 주문만 꺼냄 (매수: 목표가 >= 체결가, 매도: 목표가 <= 체결가)")
+    void matchesCrossingOrdersOnly() {
+        LimitOrderMatchingEngine.Book book = new LimitOrderMatchingEngine.Book("005930");
+        book.add(order(1, "BUY", 71000));
+        book.add(order(2, "BUY", 70000));
+        book.add(order(3, "SELL", 72000));
+        book.add(order(4, "SELL", 73000));
+
+        assertTrue(book.match(71500).isEmpty());
+
+        assertEquals(List.of(1), ids(book.match(71000)));
+        assertEquals(List.of(3), ids(book.match(72500)));
+        assertEquals(2, book.size());
+    }
+
+    @Test
+    @DisplayName("같은 가격은 접수순, 취소된 주문은 매칭되지 않음")
+    void keepsTimePriorityAndSkipsRemoved() {
+        LimitOrderMatchingEngine.Book book = new LimitOrderMatchingEngine.Book("000660");
+        book.add(order(10, "BUY", 250000));
+        book.add(order(11, "BUY", 250000));
+        book.add(order(12, "BUY", 255000));
+        book.remove(11);
+
+        assertEquals(List.of(12, 10), ids(book.match(249000)));
+        assertTrue(book.isEmpty());
+    }
+
+    private static PendingOrderDto order(int orderId, String orderType, int targetPrice) {
+        PendingOrderDto order = new PendingOrderDto();
+        order.setOrderId(orderId);
+        order.setStockCode("005930");
+        order.setOrderType(orderType);
+        order.setQuantity(1);
+        order.setTargetPrice(targetPrice);
+        return order;
+    }
+
+    private static List<Integer> ids(List<PendingOrderDto> orders) {
+        return orders.stream().map(PendingOrderDto::getOrderId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,64 @@
+package org.scoula.util.mocktrading;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleAggregatorTest {
+
+    @Test
+    @DisplayName("행 개수가 아니라 시각 구간으로 묶음 (빈 분이 있어도 구간 유지)")
+    void alignsToTimeBuckets() {
+        CandleAggregator aggregator = new CandleAggregator(1, 5);
+        aggregator.onMinuteBar(minute(9, 0), 100, 110, 95, 105, 10);
+        aggregator.onMinuteBar(minute(9, 3), 105, 120, 100, 115, 20);
+        aggregator.onMinuteBar(minute(9, 6), 115, 118, 90, 92, 30);
+
+        assertEquals(3, aggregator.size(1));
+        assertEquals(2, aggregator.size(5));
+
+        assertEquals(minute(9, 0), aggregator.startAt(5, 0));
+        assertEquals(100, aggregator.openAt(5, 0));
+        assertEquals(120, aggregator.highAt(5, 0));
+        assertEquals(95, aggregator.lowAt(5, 0));
+        assertEquals(115, aggregator.closeAt(5, 0));
+        assertEquals(30, aggregator.volumeAt(5, 0));
+
+        assertEquals(minute(9, 5), aggregator.startAt(5, 1));
+        assertEquals(90, aggregator.lowAt(5, 1));
+    }
+
+    @Test
+    @DisplayName("틱마다 모든 해상도의 마지막 구간만 갱신, 늦게 온 틱은 종가를 바꾸지 않음")
+    void updatesIncrementallyFromTicks() {
+        CandleAggregator aggregator = new CandleAggregator();
+        aggregator.onTick(minute(10, 29), 200, 1);
+        aggregator.onTick(minute(10, 30), 210, 2);
+        aggregator.onTick(minute(10, 31), 190, 3);
+        aggregator.onTick(minute(10, 30), 215, 4);
+
+        assertEquals(2, aggregator.size(30));
+        assertEquals(210, aggregator.openAt(30, 1));
+        assertEquals(215, aggregator.highAt(30, 1));
+        assertEquals(190, aggregator.closeAt(30, 1));
+        assertEquals(9, aggregator.volumeAt(30, 1));
+
+        assertEquals(1, aggregator.size(60));
+        assertEquals(minute(10, 0), aggregator.startAt(60, 0));
+        assertEquals(10, aggregator.volumeAt(60, 0));
+    }
+
+    @Test
+    @DisplayName("집계하지 않는 단위는 거부")
+    void rejectsUnknownResolution() {
+        CandleAggregator aggregator = new CandleAggregator(3, 5);
+        assertFalse(aggregator.supports(1));
+        assertThrows(IllegalArgumentException.class, () -> aggregator.size(1));
+        assertThrows(IllegalArgumentException.class, () -> new CandleAggregator(7));
+    }
+
+    private static int minute(int hour, int minute) {
+        return hour * 60 + minute;
+    }
+}
@@ -0,0 +1,49 @@
+package org.scoula.util.mocktrading;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KiwoomMinuteBarsTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("가장 최근 날짜 분봉만 남기고 가격 부호를 제거")
+    void keepsLatestDateAndStripsSigns() throws Exception {
+        KiwoomMinuteBars bars = parse("{\"return_code\":0,\"meta\":{\"a\":[1,2]},\"stk_min_pole_chart_qry\":["
+                + candle("20250805153000", "-70500", "70400") + ","
+                + candle("20250806090100", "+71100", "-71000") + ","
+                + candle("20250806090000", "+71000", "+70900") + ","
+                + candle("20250805152900", "-70400", "70300") + "]}");
+
+        assertEquals("20250806", bars.getDate());
+        assertEquals(2, bars.size());
+        assertEquals(9 * 60 + 1, bars.minuteAt(0));
+        assertEquals(71100, bars.closeAt(0));
+        assertEquals(71000, bars.openAt(0));
+        assertEquals(9 * 60, bars.minuteAt(1));
+        assertEquals(70900, bars.openAt(1));
+        assertEquals(12, bars.volumeAt(1));
+    }
+
+    @Test
+    @DisplayName("분봉 배열이 없으면 null")
+    void returnsNullWithoutChartArray() throws Exception {
+        assertNull(parse("{\"return_code\":3,\"return_msg\":\"error\"}"));
+    }
+
+    private static KiwoomMinuteBars parse(String json) throws Exception {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return KiwoomMinuteBars.parse(parser);
+        }
+    }
+
+    private static String candle(String time, String close, String open) {
+        return "{\"cntr_tm\":\"" + time + "\",\"cur_prc\":\"" + close + "\",\"open_pric\":\"" + open
+                + "\",\"high_pric\":\"+71200\",\"low_pric\":\"-70800\",\"trde_qty\":\"12\"}";
+    }
+}
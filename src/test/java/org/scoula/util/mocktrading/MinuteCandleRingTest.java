@@ -0,0 +1,108 @@
+package org.scoula.util.mocktrading;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinuteCandleRingTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("같은 분 틱은 하나의 OHLCV 분봉으로 누적")
+    void aggregatesTicksIntoMinuteBars() {
+        MinuteCandleRing ring = new MinuteCandleRing();
+        ring.apply("20250806", minute(9, 0), 71000, 10);
+        ring.apply("20250806", minute(9, 0), 71300, 5);
+        ring.apply("20250806", minute(9, 0), 70900, 3);
+        ring.apply("20250806", minute(9, 1), 71100, 7);
+
+        JsonNode data = ring.toJson(mapper, -1).path("data");
+        assertEquals(2, data.size());
+        JsonNode first = data.get(1);
+        assertEquals("090000", first.path("stck_cntg_hour").asText());
+        assertEquals("71000", first.path("stck_oprc").asText());
+        assertEquals("71300", first.path("stck_hgpr").asText());
+        assertEquals("70900", first.path("stck_lwpr").asText());
+        assertEquals("70900", first.path("stck_prpr").asText());
+        assertEquals("18", first.path("cntg_vol").asText());
+    }
+
+    @Test
+    @DisplayName("키움 분봉으로 틱 이전 구간을 채우고 since 이후만 반환")
+    void backfillsEarlierBarsAndFiltersSince() throws Exception {
+        MinuteCandleRing ring = new MinuteCandleRing();
+        ring.apply("20250806", minute(9, 2), 71200, 4);
+        ring.backfill(bars("{\"stk_min_pole_chart_qry\":["
+                + candle("20250806090200", "+71150", "+71050") + ","
+                + candle("20250806090100", "+71050", "-70900") + ","
+                + candle("20250806090000", "-70900", "-70500") + "]}"));
+
+        assertTrue(ring.isBackfilled());
+        assertEquals(3, ring.size());
+
+        JsonNode latest = ring.toJson(mapper, minute(9, 2)).path("data");
+        assertEquals(1, latest.size());
+        assertEquals("71050", latest.get(0).path("stck_oprc").asText());
+        assertEquals("70800", latest.get(0).path("stck_lwpr").asText());
+        assertEquals("71200", latest.get(0).path("stck_prpr").asText());
+
+        MinuteCandleSeries series = ring.toSeries();
+        assertEquals(3, series.size());
+        assertEquals("0900", series.hourMinuteAt(0));
+        assertEquals(70800, series.lowAt(1));
+    }
+
+    @Test
+    @DisplayName("틱이 끊겼던 중간 구간도 키움 분봉으로 채움")
+    void backfillsInteriorGap() throws Exception {
+        MinuteCandleRing ring = new MinuteCandleRing();
+        ring.apply("20250806", minute(9, 0), 71000, 5);
+        ring.apply("20250806", minute(9, 3), 71300, 2);
+        ring.backfill(bars("{\"stk_min_pole_chart_qry\":["
+                + candle("20250806090300", "+71300", "+71250") + ","
+                + candle("20250806090200", "+71200", "+71150") + ","
+                + candle("20250806090100", "+71100", "-70950") + ","
+                + candle("20250806090000", "+71000", "-70900") + "]}"));
+
+        assertEquals(4, ring.size());
+        JsonNode data = ring.toJson(mapper, -1).path("data");
+        assertEquals("090200", data.get(1).path("stck_cntg_hour").asText());
+        assertEquals("71200", data.get(1).path("stck_prpr").asText());
+        assertEquals("090100", data.get(2).path("stck_cntg_hour").asText());
+        assertEquals("70900", data.get(3).path("stck_oprc").asText());
+        assertEquals("71300", data.get(0).path("stck_oprc").asText());
+    }
+
+    @Test
+    @DisplayName("영업일이 바뀌면 새로 시작")
+    void resetsOnNewBusinessDate() {
+        MinuteCandleRing ring = new MinuteCandleRing();
+        ring.apply("20250806", minute(15, 29), 71000, 1);
+        ring.apply("20250807", minute(9, 0), 72000, 1);
+        ring.apply("20250806", minute(15, 30), 71000, 1);
+
+        assertEquals("20250807", ring.getDate());
+        assertEquals(1, ring.size());
+        assertFalse(ring.isBackfilled());
+    }
+
+    private static KiwoomMinuteBars bars(String json) throws Exception {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return KiwoomMinuteBars.parse(parser);
+        }
+    }
+
+    private static String candle(String time, String close, String open) {
+        return "{\"cntr_tm\":\"" + time + "\",\"cur_prc\":\"" + close + "\",\"open_pric\":\"" + open
+                + "\",\"high_pric\":\"+71200\",\"low_pric\":\"-70800\",\"trde_qty\":\"12\"}";
+    }
+
+    private static int minute(int hour, int minute) {
+        return hour * 60 + minute;
+    }
+}
@@ -0,0 +1,84 @@
+package org.scoula.util.mocktrading;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinuteCandleSeriesTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("최신순 분봉을 시간순으로 정렬하고 epoch 분으로 변환")
+    void sortsCandlesAscending() throws Exception {
+        MinuteCandleSeries series = series();
+
+        assertEquals(3, series.size());
+        assertEquals("0900", series.hourMinuteAt(0));
+        assertEquals("0902", series.hourMinuteAt(2));
+        assertEquals(epochMinute(2025, 8, 6, 9, 1), series.epochMinuteAt(1));
+        assertEquals(71200, series.highAt(2));
+        assertEquals(70500, series.lowAt(0));
+    }
+
+    @Test
+    @DisplayName("주어진 시각 이상인 첫 분봉 위치를 이진 탐색")
+    void findsFirstCandleAtOrAfter() throws Exception {
+        MinuteCandleSeries series = series();
+
+        assertEquals(0, series.firstIndexAtOrAfter(epochMinute(2025, 8, 6, 8, 59)));
+        assertEquals(1, series.firstIndexAtOrAfter(epochMinute(2025, 8, 6, 9, 1)));
+        assertEquals(3, series.firstIndexAtOrAfter(epochMinute(2025, 8, 6, 9, 3)));
+    }
+
+    @Test
+    @DisplayName("각 위치부터 마지막 분봉까지의 최고가/최저가")
+    void suffixHighAndLow() throws Exception {
+        MinuteCandleSeries series = series();
+
+        assertEquals(71200, series.maxHighFrom(0));
+        assertEquals(70500, series.minLowFrom(0));
+        assertEquals(70800, series.minLowFrom(1));
+        assertEquals(71000, series.minLowFrom(2));
+    }
+
+    @Test
+    @DisplayName("데이터가 없으면 null")
+    void returnsNullWithoutData() throws Exception {
+        assertNull(new MinuteCandleRing().toSeries());
+
+        MinuteCandleRing ring = new MinuteCandleRing();
+        ring.backfill(bars("{\"stk_min_pole_chart_qry\":[]}"));
+        assertNull(ring.toSeries());
+    }
+
+    private static MinuteCandleSeries series() throws Exception {
+        MinuteCandleRing ring = new MinuteCandleRing();
+        ring.backfill(bars("{\"stk_min_pole_chart_qry\":["
+                + candle("20250806090200", "+71200", "-71000") + ","
+                + candle("20250806090100", "+71100", "-70800") + ","
+                + candle("20250806090000", "+71000", "-70500") + "]}"));
+        return ring.toSeries();
+    }
+
+    private static KiwoomMinuteBars bars(String json) throws Exception {
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            return KiwoomMinuteBars.parse(parser);
+        }
+    }
+
+    private static String candle(String time, String high, String low) {
+        return "{\"cntr_tm\":\"" + time + "\",\"cur_prc\":\"" + high + "\",\"open_pric\":\"" + low
+                + "\",\"high_pric\":\"" + high + "\",\"low_pric\":\"" + low + "\",\"trde_qty\":\"12\"}";
+    }
+
+    private static long epochMinute(int year, int month, int day, int hour, int minute) {
+        return LocalDateTime.of(year, month, day, hour, minute)
+                .atZone(MinuteCandleSeries.MARKET_ZONE).toEpochSecond() / 60;
+    }
+}
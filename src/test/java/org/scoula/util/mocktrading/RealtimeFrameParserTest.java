@@ -0,0 +1,91 @@
+package org.scoula.util.mocktrading;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RealtimeFrameParserTest {
+
+    private final RealtimeFrameParser parser = new RealtimeFrameParser();
+
+    @Test
+    @DisplayName("체결 프레임 헤더와 필드 경계를 split과 동일하게 해석")
+    void parseExecutionFrame() {
+        String frame = "0|H0UNCNT0|001|005930^093015^71500^2^-500^0.70^^1234567";
+
+        assertTrue(parser.parse(frame));
+        assertFalse(parser.isEncrypted());
+        assertTrue(parser.isTrId("H0UNCNT0"));
+        assertFalse(parser.isTrId("H0STASP0"));
+        assertEquals(1, parser.recordCount());
+        assertEquals(8, parser.fieldCount());
+
+        assertEquals("005930", parser.getString(0));
+        assertTrue(parser.fieldEquals(0, "005930"));
+        assertEquals(93015, parser.getInt(1));
+        assertEquals(71500, parser.getInt(2));
+        assertEquals('2', parser.getChar(3));
+        assertEquals(-500, parser.getInt(4));
+        assertEquals(0.70, parser.getDouble(5), 1e-9);
+        assertEquals("", parser.getString(6));
+        assertEquals(0, parser.getInt(6));
+        assertEquals(1234567L, parser.getLong(7));
+    }
+
+    @Test
+    @DisplayName("범위를 벗어난 필드와 숫자가 아닌 값은 기본값 반환")
+    void outOfRangeAndInvalidFields() {
+        assertTrue(parser.parse("0|H0STASP0|001|ABC^+12^1.5"));
+
+        assertEquals("", parser.getString(10));
+        assertEquals(0, parser.getInt(10));
+        assertEquals(0, parser.getInt(0));
+        assertEquals(12, parser.getInt(1));
+        assertEquals(1, parser.getInt(2));
+        assertEquals(1.5, parser.getDouble(2), 1e-9);
+    }
+
+    @Test
+    @DisplayName("JSON 응답과 암호화 프레임 구분")
+    void nonDataFrames() {
+        assertFalse(parser.parse("{\"header\":{\"tr_id\":\"PINGPONG\"}}"));
+
+        assertTrue(parser.parse("1|H0STCNI0|001|ENCRYPTEDPAYLOAD"));
+        assertTrue(parser.isEncrypted());
+        assertEquals(0, parser.fieldCount());
+    }
+
+    @Test
+    @DisplayName("인스턴스 재사용 시 이전 프레임 필드가 남지 않음")
+    void reuseAcrossFrames() {
+        StringBuilder longFrame = new StringBuilder("0|H0STASP0|001|");
+        for (int i = 0; i < 100; i++) {
+            longFrame.append(i).append('^');
+        }
+        longFrame.append(100);
+
+        assertTrue(parser.parse(longFrame));
+        assertEquals(101, parser.fieldCount());
+        assertEquals(100, parser.getInt(100));
+
+        assertTrue(parser.parse("0|H0UNCNT0|001|005930^1"));
+        assertEquals(2, parser.fieldCount());
+        assertEquals("", parser.getString(2));
+    }
+
+    @Test
+    @DisplayName("스냅샷은 파서를 다음 프레임에 재사용해도 원래 필드를 유지")
+    void snapshotSurvivesReuse() {
+        assertTrue(parser.parse("0|H0UNCNT0|001|005930^093015^+71500^0.70"));
+        RealtimeFrameParser.Fields fields = parser.snapshot();
+
+        assertTrue(parser.parse("0|H0UNCNT0|001|000660^100000^250000"));
+        assertEquals(4, fields.fieldCount());
+        assertEquals("005930", fields.getString(0));
+        assertEquals(71500, fields.getInt(2));
+        assertEquals(0.70, fields.getDouble(3), 1e-9);
+        assertNull(fields.getString(4));
+        assertEquals(0L, fields.getLong(4));
+    }
+}
@@ -0,0 +1,79 @@
+package org.scoula.util.mocktrading;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightCacheTest {
+
+    @Test
+    @DisplayName("같은 키 동시 요청은 한 번만 호출하고 결과를 공유")
+    void coalescesConcurrentCalls() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(1_000L, 16);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> cache.get("005930", () -> {
+                    calls.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "71500";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> future : futures) {
+                assertEquals("71500", future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getLoadCount());
+    }
+
+    @Test
+    @DisplayName("TTL 안에서는 캐시, 지나면 다시 호출")
+    void reusesResultWithinTtl() throws Exception {
+        SingleFlightCache<String, Integer> cache = new SingleFlightCache<>(100L, 16);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, cache.get("k", calls::incrementAndGet));
+        assertEquals(1, cache.get("k", calls::incrementAndGet));
+        assertEquals(1, cache.getHitCount());
+
+        Thread.sleep(150);
+        assertEquals(2, cache.get("k", calls::incrementAndGet));
+    }
+
+    @Test
+    @DisplayName("예외와 null 결과는 캐시하지 않음")
+    void doesNotCacheFailures() throws Exception {
+        SingleFlightCache<String, String> cache = new SingleFlightCache<>(1_000L, 16);
+
+        IOException error = assertThrows(IOException.class, () -> cache.get("k", () -> {
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals("boom", error.getMessage());
+
+        assertNull(cache.get("k", () -> null));
+        assertEquals("ok", cache.get("k", () -> "ok"));
+        assertEquals(3, cache.getLoadCount());
+    }
+}